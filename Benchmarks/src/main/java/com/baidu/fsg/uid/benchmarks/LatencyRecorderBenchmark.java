@@ -0,0 +1,86 @@
+package com.baidu.fsg.uid.benchmarks;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import com.baidu.fsg.uid.core.CacheGeneratorProperties;
+import com.baidu.fsg.uid.core.buffer.RejectedTakePolicy;
+import com.baidu.fsg.uid.core.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.core.latency.LatencyRecorder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the latency recorder: disabled against sampling 1 of 1024 calls and recording every call.<p>
+ *
+ * <code>guarded</code> wraps a trivial body in the same guard as {@link CachedUidGenerator#getUID()}, against the
+ * unguarded <code>baseline</code>, so the overhead isn't hidden by the padding. Disabled should be on par with
+ * the baseline, the null check is all it adds. <code>getUID</code> shows the same on the generator, whose empty
+ * buffer is padded by the caller so no take is rejected
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LatencyRecorderBenchmark {
+
+    /** Record 1 of every N calls, or disabled */
+    @Param({"disabled", "1024", "1"})
+    private String sampleRate;
+
+    private LatencyRecorder latencyRecorder;
+    private CachedUidGenerator generator;
+    private long counter;
+
+    @Setup
+    public void setup() {
+        Integer rate = "disabled".equals(sampleRate) ? null : Integer.valueOf(sampleRate);
+        latencyRecorder = rate == null ? null : new LatencyRecorder(rate, Duration.ofMinutes(1));
+
+        CacheGeneratorProperties properties = new CacheGeneratorProperties();
+        properties.setRejectedTakePolicy(RejectedTakePolicy.CALLER_RUNS).setScheduleInterval(null);
+        properties.setLatencySampleRate(rate);
+        generator = new CachedUidGenerator(() -> 1L, properties);
+    }
+
+    @TearDown
+    public void close() {
+        generator.close();
+    }
+
+    @Benchmark
+    public long baseline() {
+        return ++counter;
+    }
+
+    @Benchmark
+    public long guarded() {
+        if (latencyRecorder != null && latencyRecorder.sample()) {
+            long startNanos = System.nanoTime();
+            try {
+                return ++counter;
+            } finally {
+                latencyRecorder.record(System.nanoTime() - startNanos);
+            }
+        }
+        return ++counter;
+    }
+
+    @Benchmark
+    public long getUID() {
+        return generator.getUID();
+    }
+
+}
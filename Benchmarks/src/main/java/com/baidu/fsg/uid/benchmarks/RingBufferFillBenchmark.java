@@ -0,0 +1,56 @@
+package com.baidu.fsg.uid.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.baidu.fsg.uid.core.CacheGeneratorProperties;
+import com.baidu.fsg.uid.core.impl.CachedUidGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Startup of {@link CachedUidGenerator}: the constructor and the first UID, eager fill of all slots against lazy
+ * fill of one second. Each invocation is a cold start, the generator is closed after it is measured
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class RingBufferFillBenchmark {
+
+    @Param({"3", "5", "7", "8", "9", "10"})
+    private int boostPower;
+
+    @Param({"false", "true"})
+    private boolean lazyFill;
+
+    private CachedUidGenerator generator;
+
+    @Benchmark
+    public long startup() {
+        CacheGeneratorProperties properties = new CacheGeneratorProperties();
+        properties.setBoostPower(boostPower).setLazyFill(lazyFill).setScheduleInterval(null);
+        generator = new CachedUidGenerator(() -> 1L, properties);
+        return generator.getUID();
+    }
+
+    @TearDown(Level.Invocation)
+    public void close() {
+        if (generator != null) {
+            generator.close();
+            generator = null;
+        }
+    }
+
+}
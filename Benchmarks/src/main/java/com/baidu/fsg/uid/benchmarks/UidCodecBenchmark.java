@@ -0,0 +1,96 @@
+package com.baidu.fsg.uid.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.baidu.fsg.uid.core.UidCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of {@link UidCodec} against the decimal form of {@link Long}. Encoders write into a reused buffer,
+ * <code>toString</code> variants include the string allocation
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UidCodecBenchmark {
+    private static final int SIZE = 1 << 16;
+    private static final int MASK = SIZE - 1;
+
+    private final long[] uids = new long[SIZE];
+    private final String[] base32 = new String[SIZE];
+    private final String[] base62 = new String[SIZE];
+    private final String[] decimal = new String[SIZE];
+    private final byte[] buffer = new byte[UidCodec.BASE32_LENGTH];
+    private int index;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < SIZE; i++) {
+            uids[i] = random.nextLong() & Long.MAX_VALUE;
+            base32[i] = UidCodec.toBase32(uids[i]);
+            base62[i] = UidCodec.toBase62(uids[i]);
+            decimal[i] = Long.toString(uids[i]);
+        }
+    }
+
+    private int next() {
+        return index++ & MASK;
+    }
+
+    @Benchmark
+    public byte[] encodeBase32() {
+        UidCodec.encodeBase32(uids[next()], buffer, 0);
+        return buffer;
+    }
+
+    @Benchmark
+    public byte[] encodeBase62() {
+        UidCodec.encodeBase62(uids[next()], buffer, 0);
+        return buffer;
+    }
+
+    @Benchmark
+    public String toBase32() {
+        return UidCodec.toBase32(uids[next()]);
+    }
+
+    @Benchmark
+    public String toBase62() {
+        return UidCodec.toBase62(uids[next()]);
+    }
+
+    @Benchmark
+    public String toDecimal() {
+        return Long.toString(uids[next()]);
+    }
+
+    @Benchmark
+    public long parseBase32() {
+        return UidCodec.parseBase32(base32[next()]);
+    }
+
+    @Benchmark
+    public long parseBase62() {
+        return UidCodec.parseBase62(base62[next()]);
+    }
+
+    @Benchmark
+    public long parseDecimal() {
+        return Long.parseLong(decimal[next()]);
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.baidu.fsg.uid.core;
 
+import com.baidu.fsg.uid.core.buffer.RejectedTakePolicy;
 import com.baidu.fsg.uid.core.buffer.RingBuffer;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -25,4 +26,16 @@ public class CacheGeneratorProperties extends GeneratorProperties{
     @Min(1)
     @NotNull
     private Integer boostPower = DEFAULT_BOOST_POWER;
+
+    @NotNull
+    private RejectedTakePolicy rejectedTakePolicy = RejectedTakePolicy.EXCEPTION;
+
+    @Min(0)
+    @NotNull
+    private Integer reservedPoolSize = 0;
+
+    /**
+     * Pad only one second of UIDs at startup, the rest of the RingBuffer is padded in the background
+     */
+    private boolean lazyFill;
 }
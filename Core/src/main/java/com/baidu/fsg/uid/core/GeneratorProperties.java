@@ -20,4 +20,31 @@ public class GeneratorProperties {
     @Min(1)
     @NotNull
     private Long epochSeconds = 1640966400L;
+    /**
+     * Seconds of the high-water mark reserved ahead, which is checkpointed in half the interval. A restart waits up
+     * to the interval for the clock to pass the mark. Null means no reservation, only checkpoint on close
+     */
+    @Min(1)
+    private Long checkpointInterval;
+    /**
+     * Record the latency of 1 of every N getUID() calls, see {@link com.baidu.fsg.uid.core.latency.LatencyRecorder}.
+     * Null means no recording
+     */
+    @Min(1)
+    private Integer latencySampleRate;
+    /**
+     * Interval of latency snapshots, unit as second
+     */
+    @Min(1)
+    @NotNull
+    private Long latencyInterval = 60L;
+    /**
+     * Register the MXBean of the generator, unregistered when closed, see {@link com.baidu.fsg.uid.core.jmx.UidGeneratorMXBean}
+     */
+    private boolean jmxEnabled;
+    /**
+     * Name of the generator, which tells apart the MXBeans of the generators sharing a worker id. Null means a name
+     * of the type unique within the JVM
+     */
+    private String name;
 }
@@ -0,0 +1,311 @@
+package com.baidu.fsg.uid.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.springframework.util.Assert;
+
+/**
+ * Fixed-width, lexicographically sortable string forms of a UID.<p>
+ *
+ * Both alphabets are in ascending ASCII order and every UID is encoded with the same width (leading zeros
+ * included), so comparing two encoded UIDs byte by byte gives the same order as comparing the UIDs as unsigned
+ * longs:
+ * <li><b>Base32:</b> Crockford alphabet <code>0-9 A-Z</code> without <code>I L O U</code>, {@value #BASE32_LENGTH}
+ *                    characters. The decoder is case insensitive and accepts <code>I L</code> as <code>1</code>
+ *                    and <code>O</code> as <code>0</code>
+ * <li><b>Base62:</b> alphabet <code>0-9 A-Z a-z</code>, {@value #BASE62_LENGTH} characters, case sensitive<p>
+ *
+ * Encoders write into a caller-provided <code>byte[]</code>, <code>char[]</code> or {@link ByteBuffer} and
+ * decoders read straight from them, so neither side creates intermediate objects.
+ */
+public final class UidCodec {
+
+    /** Encoded widths */
+    public static final int BASE32_LENGTH = 13;
+    public static final int BASE62_LENGTH = 11;
+
+    /** Alphabets, in ascending ASCII order to keep the encoded form sortable */
+    private static final byte[] BASE32_DIGITS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BASE62_DIGITS =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.US_ASCII);
+
+    /** Reverse lookup tables for ASCII, -1 for invalid characters */
+    private static final byte[] BASE32_VALUES = new byte[128];
+    private static final byte[] BASE62_VALUES = new byte[128];
+
+    private static final int BASE32_MASK = 0x1F;
+    private static final int BASE32_SHIFT = 5;
+    private static final int BASE62_RADIX = 62;
+
+    static {
+        Arrays.fill(BASE32_VALUES, (byte) -1);
+        Arrays.fill(BASE62_VALUES, (byte) -1);
+        for (int i = 0; i < BASE32_DIGITS.length; i++) {
+            BASE32_VALUES[BASE32_DIGITS[i]] = (byte) i;
+            BASE32_VALUES[Character.toLowerCase(BASE32_DIGITS[i])] = (byte) i;
+        }
+        // Crockford aliases for the easily confused letters
+        BASE32_VALUES['O'] = BASE32_VALUES['o'] = 0;
+        BASE32_VALUES['I'] = BASE32_VALUES['i'] = BASE32_VALUES['L'] = BASE32_VALUES['l'] = 1;
+
+        for (int i = 0; i < BASE62_DIGITS.length; i++) {
+            BASE62_VALUES[BASE62_DIGITS[i]] = (byte) i;
+        }
+    }
+
+    private UidCodec() {
+    }
+
+    /**
+     * Encode UID as Crockford Base32 into <code>dst</code> starting at <code>offset</code>
+     *
+     * @param uid
+     * @param dst
+     * @param offset
+     * @return the offset after the last written byte
+     */
+    public static int encodeBase32(long uid, byte[] dst, int offset) {
+        checkRange(dst.length, offset, BASE32_LENGTH);
+        for (int i = 0, shift = (BASE32_LENGTH - 1) * BASE32_SHIFT; i < BASE32_LENGTH; i++, shift -= BASE32_SHIFT) {
+            dst[offset + i] = BASE32_DIGITS[(int) (uid >>> shift) & BASE32_MASK];
+        }
+        return offset + BASE32_LENGTH;
+    }
+
+    public static int encodeBase32(long uid, char[] dst, int offset) {
+        checkRange(dst.length, offset, BASE32_LENGTH);
+        for (int i = 0, shift = (BASE32_LENGTH - 1) * BASE32_SHIFT; i < BASE32_LENGTH; i++, shift -= BASE32_SHIFT) {
+            dst[offset + i] = (char) BASE32_DIGITS[(int) (uid >>> shift) & BASE32_MASK];
+        }
+        return offset + BASE32_LENGTH;
+    }
+
+    /**
+     * Encode UID as Crockford Base32 at the buffer's position, the position is moved past the written bytes
+     */
+    public static void encodeBase32(long uid, ByteBuffer dst) {
+        int position = dst.position();
+        checkRange(dst.limit(), position, BASE32_LENGTH);
+        for (int i = 0, shift = (BASE32_LENGTH - 1) * BASE32_SHIFT; i < BASE32_LENGTH; i++, shift -= BASE32_SHIFT) {
+            dst.put(position + i, BASE32_DIGITS[(int) (uid >>> shift) & BASE32_MASK]);
+        }
+        dst.position(position + BASE32_LENGTH);
+    }
+
+    /**
+     * Encode UID as a Crockford Base32 string, the string itself is the only allocation
+     */
+    public static String toBase32(long uid) {
+        byte[] bytes = new byte[BASE32_LENGTH];
+        encodeBase32(uid, bytes, 0);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Decode a Crockford Base32 UID of {@value #BASE32_LENGTH} bytes starting at <code>offset</code>
+     *
+     * @throws IllegalArgumentException if there is an invalid character or the value overflows 64 bits
+     */
+    public static long decodeBase32(byte[] src, int offset) {
+        checkRange(src.length, offset, BASE32_LENGTH);
+        long uid = 0L;
+        for (int i = 0; i < BASE32_LENGTH; i++) {
+            uid = (uid << BASE32_SHIFT) | base32Value(src[offset + i], i);
+        }
+        return uid;
+    }
+
+    public static long decodeBase32(char[] src, int offset) {
+        checkRange(src.length, offset, BASE32_LENGTH);
+        long uid = 0L;
+        for (int i = 0; i < BASE32_LENGTH; i++) {
+            uid = (uid << BASE32_SHIFT) | base32Value(src[offset + i], i);
+        }
+        return uid;
+    }
+
+    public static long decodeBase32(CharSequence src, int offset) {
+        checkRange(src.length(), offset, BASE32_LENGTH);
+        long uid = 0L;
+        for (int i = 0; i < BASE32_LENGTH; i++) {
+            uid = (uid << BASE32_SHIFT) | base32Value(src.charAt(offset + i), i);
+        }
+        return uid;
+    }
+
+    /**
+     * Decode a Crockford Base32 UID at the buffer's position, the position is moved past the read bytes
+     */
+    public static long decodeBase32(ByteBuffer src) {
+        int position = src.position();
+        checkRange(src.limit(), position, BASE32_LENGTH);
+        long uid = 0L;
+        for (int i = 0; i < BASE32_LENGTH; i++) {
+            uid = (uid << BASE32_SHIFT) | base32Value(src.get(position + i), i);
+        }
+        src.position(position + BASE32_LENGTH);
+        return uid;
+    }
+
+    /**
+     * Parse a whole Crockford Base32 string
+     */
+    public static long parseBase32(CharSequence src) {
+        Assert.isTrue(src.length() == BASE32_LENGTH, "Base32 UID must be " + BASE32_LENGTH + " characters");
+        return decodeBase32(src, 0);
+    }
+
+    /**
+     * Encode UID as Base62 into <code>dst</code> starting at <code>offset</code>
+     *
+     * @param uid
+     * @param dst
+     * @param offset
+     * @return the offset after the last written byte
+     */
+    public static int encodeBase62(long uid, byte[] dst, int offset) {
+        checkRange(dst.length, offset, BASE62_LENGTH);
+        // the first division is unsigned, the quotient is then positive
+        long quotient = Long.divideUnsigned(uid, BASE62_RADIX);
+        dst[offset + BASE62_LENGTH - 1] = BASE62_DIGITS[(int) (uid - quotient * BASE62_RADIX)];
+        for (int i = BASE62_LENGTH - 2; i >= 0; i--) {
+            long next = quotient / BASE62_RADIX;
+            dst[offset + i] = BASE62_DIGITS[(int) (quotient - next * BASE62_RADIX)];
+            quotient = next;
+        }
+        return offset + BASE62_LENGTH;
+    }
+
+    public static int encodeBase62(long uid, char[] dst, int offset) {
+        checkRange(dst.length, offset, BASE62_LENGTH);
+        long quotient = Long.divideUnsigned(uid, BASE62_RADIX);
+        dst[offset + BASE62_LENGTH - 1] = (char) BASE62_DIGITS[(int) (uid - quotient * BASE62_RADIX)];
+        for (int i = BASE62_LENGTH - 2; i >= 0; i--) {
+            long next = quotient / BASE62_RADIX;
+            dst[offset + i] = (char) BASE62_DIGITS[(int) (quotient - next * BASE62_RADIX)];
+            quotient = next;
+        }
+        return offset + BASE62_LENGTH;
+    }
+
+    /**
+     * Encode UID as Base62 at the buffer's position, the position is moved past the written bytes
+     */
+    public static void encodeBase62(long uid, ByteBuffer dst) {
+        int position = dst.position();
+        checkRange(dst.limit(), position, BASE62_LENGTH);
+        long quotient = Long.divideUnsigned(uid, BASE62_RADIX);
+        dst.put(position + BASE62_LENGTH - 1, BASE62_DIGITS[(int) (uid - quotient * BASE62_RADIX)]);
+        for (int i = BASE62_LENGTH - 2; i >= 0; i--) {
+            long next = quotient / BASE62_RADIX;
+            dst.put(position + i, BASE62_DIGITS[(int) (quotient - next * BASE62_RADIX)]);
+            quotient = next;
+        }
+        dst.position(position + BASE62_LENGTH);
+    }
+
+    /**
+     * Encode UID as a Base62 string, the string itself is the only allocation
+     */
+    public static String toBase62(long uid) {
+        byte[] bytes = new byte[BASE62_LENGTH];
+        encodeBase62(uid, bytes, 0);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Decode a Base62 UID of {@value #BASE62_LENGTH} bytes starting at <code>offset</code>
+     *
+     * @throws IllegalArgumentException if there is an invalid character or the value overflows 64 bits
+     */
+    public static long decodeBase62(byte[] src, int offset) {
+        checkRange(src.length, offset, BASE62_LENGTH);
+        long uid = 0L;
+        for (int i = 0; i < BASE62_LENGTH - 1; i++) {
+            uid = uid * BASE62_RADIX + base62Value(src[offset + i], i);
+        }
+        return lastBase62Digit(uid, base62Value(src[offset + BASE62_LENGTH - 1], BASE62_LENGTH - 1));
+    }
+
+    public static long decodeBase62(char[] src, int offset) {
+        checkRange(src.length, offset, BASE62_LENGTH);
+        long uid = 0L;
+        for (int i = 0; i < BASE62_LENGTH - 1; i++) {
+            uid = uid * BASE62_RADIX + base62Value(src[offset + i], i);
+        }
+        return lastBase62Digit(uid, base62Value(src[offset + BASE62_LENGTH - 1], BASE62_LENGTH - 1));
+    }
+
+    public static long decodeBase62(CharSequence src, int offset) {
+        checkRange(src.length(), offset, BASE62_LENGTH);
+        long uid = 0L;
+        for (int i = 0; i < BASE62_LENGTH - 1; i++) {
+            uid = uid * BASE62_RADIX + base62Value(src.charAt(offset + i), i);
+        }
+        return lastBase62Digit(uid, base62Value(src.charAt(offset + BASE62_LENGTH - 1), BASE62_LENGTH - 1));
+    }
+
+    /**
+     * Decode a Base62 UID at the buffer's position, the position is moved past the read bytes
+     */
+    public static long decodeBase62(ByteBuffer src) {
+        int position = src.position();
+        checkRange(src.limit(), position, BASE62_LENGTH);
+        long uid = 0L;
+        for (int i = 0; i < BASE62_LENGTH - 1; i++) {
+            uid = uid * BASE62_RADIX + base62Value(src.get(position + i), i);
+        }
+        uid = lastBase62Digit(uid, base62Value(src.get(position + BASE62_LENGTH - 1), BASE62_LENGTH - 1));
+        src.position(position + BASE62_LENGTH);
+        return uid;
+    }
+
+    /**
+     * Parse a whole Base62 string
+     */
+    public static long parseBase62(CharSequence src) {
+        Assert.isTrue(src.length() == BASE62_LENGTH, "Base62 UID must be " + BASE62_LENGTH + " characters");
+        return decodeBase62(src, 0);
+    }
+
+    /**
+     * Look up a Base32 digit, the leading digit only holds the highest 4 bits
+     */
+    private static long base32Value(int c, int index) {
+        int value = c < BASE32_VALUES.length && c >= 0 ? BASE32_VALUES[c] : -1;
+        if (value < 0 || (index == 0 && value > BASE32_MASK >>> 1)) {
+            throw new IllegalArgumentException("Invalid Base32 UID character '" + (char) c + "' at " + index);
+        }
+        return value;
+    }
+
+    private static long base62Value(int c, int index) {
+        int value = c < BASE62_VALUES.length && c >= 0 ? BASE62_VALUES[c] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid Base62 UID character '" + (char) c + "' at " + index);
+        }
+        return value;
+    }
+
+    /**
+     * The first 10 digits always fit in a positive long, only the last one may overflow the unsigned 64 bits
+     */
+    private static long lastBase62Digit(long uid, long digit) {
+        long low = uid * BASE62_RADIX;
+        long sum = low + digit;
+        if (Math.multiplyHigh(uid, BASE62_RADIX) != 0 || Long.compareUnsigned(sum, low) < 0) {
+            throw new IllegalArgumentException("Base62 UID overflows 64 bits");
+        }
+        return sum;
+    }
+
+    private static void checkRange(int length, int offset, int width) {
+        if (offset < 0 || offset > length - width) {
+            throw new IndexOutOfBoundsException("Need " + width + " positions from offset " + offset
+                    + ", but length is " + length);
+        }
+    }
+
+}
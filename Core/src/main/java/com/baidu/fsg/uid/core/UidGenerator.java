@@ -15,6 +15,10 @@
  */
 package com.baidu.fsg.uid.core;
 
+import java.util.function.LongSupplier;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
 import com.baidu.fsg.uid.core.exception.UidGenerateException;
 
 /**
@@ -32,6 +36,43 @@ public interface UidGenerator {
      */
     long getUID() throws UidGenerateException;
 
+    /**
+     * Get <code>length</code> unique IDs into <code>dst</code> starting at <code>offset</code>. The IDs of one
+     * call are in generated order. Implementations reserve them as a block where they can, the default just
+     * calls {@link #getUID()} for each
+     *
+     * @param dst
+     * @param offset
+     * @param length
+     * @throws UidGenerateException
+     */
+    default void getUIDs(long[] dst, int offset, int length) throws UidGenerateException {
+        for (int i = offset; i < offset + length; i++) {
+            dst[i] = getUID();
+        }
+    }
+
+    /**
+     * View of this generator as a primitive supplier
+     *
+     * @return supplier of {@link #getUID()}
+     */
+    default LongSupplier asLongSupplier() {
+        return this::getUID;
+    }
+
+    /**
+     * Stream of <code>count</code> unique IDs without boxing. The stream is backed by a splittable
+     * {@link java.util.Spliterator.OfLong}, each split takes blocks of IDs by {@link #getUIDs(long[], int, int)},
+     * so a parallel stream does not contend on every element. IDs within a split are in generated order
+     *
+     * @param count
+     * @return sequential stream, call <code>parallel()</code> as needed
+     */
+    default LongStream uids(long count) {
+        return StreamSupport.longStream(new UidSpliterator(this, count), false);
+    }
+
     /**
      * Parse the UID into elements which are used to generate the UID. <br>
      * Such as timestamp & workerId & sequence...
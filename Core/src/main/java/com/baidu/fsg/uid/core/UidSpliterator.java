@@ -0,0 +1,94 @@
+package com.baidu.fsg.uid.core;
+
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+import org.springframework.util.Assert;
+
+/**
+ * Spliterator of a fixed count of UIDs. IDs are taken from the {@link UidGenerator} a block at a time and the
+ * block is consumed locally, a split only divides the count which is not taken yet, so every split reserves
+ * its own disjoint blocks when it runs.
+ */
+class UidSpliterator implements Spliterator.OfLong {
+
+    /** Count of IDs taken from the generator at a time */
+    static final int BLOCK_SIZE = 256;
+
+    private final UidGenerator uidGenerator;
+
+    /** IDs not taken from the generator yet */
+    private long remaining;
+
+    /** Current block, IDs in [position, limit) are not consumed yet */
+    private long[] block;
+    private int position;
+    private int limit;
+
+    UidSpliterator(UidGenerator uidGenerator, long count) {
+        Assert.isTrue(count >= 0, "count must not be negative");
+        this.uidGenerator = uidGenerator;
+        this.remaining = count;
+    }
+
+    @Override
+    public boolean tryAdvance(LongConsumer action) {
+        if (position == limit && !nextBlock()) {
+            return false;
+        }
+        action.accept(block[position++]);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(LongConsumer action) {
+        do {
+            while (position < limit) {
+                action.accept(block[position++]);
+            }
+        } while (nextBlock());
+    }
+
+    @Override
+    public Spliterator.OfLong trySplit() {
+        // not worth splitting less than two blocks
+        if (remaining < BLOCK_SIZE * 2L) {
+            return null;
+        }
+        long half = remaining >>> 1;
+        remaining -= half;
+        return new UidSpliterator(uidGenerator, half);
+    }
+
+    @Override
+    public long estimateSize() {
+        return remaining + (limit - position);
+    }
+
+    @Override
+    public int characteristics() {
+        return SIZED | SUBSIZED | DISTINCT | NONNULL | IMMUTABLE;
+    }
+
+    /**
+     * Take the next block from the generator
+     *
+     * @return false if there is no more ID to take
+     */
+    private boolean nextBlock() {
+        if (remaining == 0) {
+            return false;
+        }
+        if (block == null) {
+            block = new long[(int) Math.min(BLOCK_SIZE, remaining)];
+        }
+
+        int length = (int) Math.min(block.length, remaining);
+        uidGenerator.getUIDs(block, 0, length);
+        remaining -= length;
+        position = 0;
+        limit = length;
+        return true;
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.baidu.fsg.uid.core;
+
+import java.util.UUID;
+
+import com.baidu.fsg.uid.core.exception.UidGenerateException;
+
+/**
+ * Represents a 128 bits unique id generator, whose ids are shaped as UUID version 7.
+ */
+public interface UuidGenerator {
+
+    /**
+     * Get a unique UUID
+     *
+     * @return UUID
+     * @throws UidGenerateException
+     */
+    UUID getUUID() throws UidGenerateException;
+
+    /**
+     * Get a unique UUID without allocation, the most significant half is written at <code>offset</code> and
+     * the least significant half at <code>offset + 1</code>
+     *
+     * @param dst
+     * @param offset
+     * @throws UidGenerateException
+     */
+    void getUUID(long[] dst, int offset) throws UidGenerateException;
+
+    /**
+     * Parse the UUID into elements which are used to generate it. <br>
+     * Such as timestamp & workerId & counter...
+     *
+     * @param uuid
+     * @return Parsed info
+     */
+    String parseUUID(UUID uuid);
+
+}
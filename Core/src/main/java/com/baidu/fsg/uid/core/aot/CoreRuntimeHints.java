@@ -0,0 +1,38 @@
+package com.baidu.fsg.uid.core.aot;
+
+import com.baidu.fsg.uid.core.BitsAllocator;
+import com.baidu.fsg.uid.core.jfr.ClockBackwardsEvent;
+import com.baidu.fsg.uid.core.jfr.NextSecondWaitEvent;
+import com.baidu.fsg.uid.core.jfr.PaddingEvent;
+import com.baidu.fsg.uid.core.jfr.PaddingThresholdEvent;
+import com.baidu.fsg.uid.core.jfr.RejectedPutEvent;
+import com.baidu.fsg.uid.core.jfr.RejectedTakeEvent;
+import com.baidu.fsg.uid.core.jmx.UidGeneratorMXBean;
+import com.baidu.fsg.uid.core.jmx.UidGeneratorManagement;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection of Core for a native image, registered by <code>META-INF/spring/aot.factories</code><p>
+ *
+ * {@link BitsAllocator#toString()} reflects on its fields, the MXBean is introspected by its interface, and the
+ * JFR events are described by their fields and annotations. The JFR events and the MXBean work only if the image
+ * is built with <code>--enable-monitoring=jfr,jmxserver</code>.
+ */
+public class CoreRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection().registerType(BitsAllocator.class, MemberCategory.DECLARED_FIELDS);
+
+        hints.reflection().registerType(UidGeneratorMXBean.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(UidGeneratorManagement.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        for (Class<?> event : new Class<?>[]{PaddingEvent.class, RejectedPutEvent.class, RejectedTakeEvent.class,
+                PaddingThresholdEvent.class, NextSecondWaitEvent.class, ClockBackwardsEvent.class}) {
+            hints.reflection().registerType(event, MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+    }
+
+}
@@ -15,14 +15,17 @@
  */
 package com.baidu.fsg.uid.core.buffer;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
-import com.baidu.fsg.uid.core.utils.NamingThreadFactory;
+import com.baidu.fsg.uid.core.jfr.PaddingEvent;
 import com.baidu.fsg.uid.core.utils.PaddedAtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,9 +41,8 @@ public class BufferPaddingExecutor implements AutoCloseable{
     private static final Logger LOGGER = LoggerFactory.getLogger(RingBuffer.class);
 
     /** Constants */
-    private static final String WORKER_NAME = "RingBuffer-Padding-Worker";
-    private static final String SCHEDULE_NAME = "RingBuffer-Padding-Schedule";
     private static final long DEFAULT_SCHEDULE_INTERVAL = 5 * 60L; // 5 minutes
+    private static final Duration DEFAULT_STOP_TIMEOUT = Duration.ofSeconds(5);
     
     /** Whether buffer padding is running */
     private final AtomicBoolean running;
@@ -56,9 +58,17 @@ public class BufferPaddingExecutor implements AutoCloseable{
     private final ExecutorService bufferPadExecutors;
     /** Padding schedule thread */
     private final ScheduledExecutorService bufferPadSchedule;
+    /** Pools are shut down on close if owned, otherwise only this executor stops using them */
+    private final PaddingPools pools;
+    private final boolean ownsPools;
+    private volatile boolean closed;
     
-    /** Schedule interval Unit as seconds */
-    private long scheduleInterval = DEFAULT_SCHEDULE_INTERVAL;
+    /** Listeners notified after each padding, such as consumers waiting for an empty buffer */
+    private final List<Runnable> paddedListeners = new CopyOnWriteArrayList<>();
+
+    /** Schedule interval Unit as seconds, the schedule is replaced when changed after start */
+    private volatile long scheduleInterval = DEFAULT_SCHEDULE_INTERVAL;
+    private ScheduledFuture<?> scheduledPadding;
 
     /**
      * Constructor with {@link RingBuffer} and {@link BufferedUidProvider}, default use schedule
@@ -78,43 +88,82 @@ public class BufferPaddingExecutor implements AutoCloseable{
      * @param usingSchedule
      */
     public BufferPaddingExecutor(RingBuffer ringBuffer, BufferedUidProvider uidProvider, boolean usingSchedule) {
+        this(ringBuffer, uidProvider, usingSchedule, new PaddingPools(usingSchedule), true);
+    }
+
+    /**
+     * Constructor with {@link RingBuffer}, {@link BufferedUidProvider}, whether use schedule padding, and the
+     * {@link PaddingPools} shared with other executors, which are not shut down on close
+     *
+     * @param ringBuffer {@link RingBuffer}
+     * @param uidProvider {@link BufferedUidProvider}
+     * @param usingSchedule
+     * @param sharedPools {@link PaddingPools}
+     */
+    public BufferPaddingExecutor(RingBuffer ringBuffer, BufferedUidProvider uidProvider, boolean usingSchedule,
+                                 PaddingPools sharedPools) {
+        this(ringBuffer, uidProvider, usingSchedule, sharedPools, false);
+    }
+
+    private BufferPaddingExecutor(RingBuffer ringBuffer, BufferedUidProvider uidProvider, boolean usingSchedule,
+                                  PaddingPools pools, boolean ownsPools) {
+        Assert.isTrue(!usingSchedule || pools.getSchedule() != null, "Padding pools without schedule thread");
         this.running = new AtomicBoolean(false);
         this.lastSecond = new PaddedAtomicLong(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
         this.ringBuffer = ringBuffer;
         this.uidProvider = uidProvider;
+        this.pools = pools;
+        this.ownsPools = ownsPools;
 
-        // initialize thread pool
-        int cores = Runtime.getRuntime().availableProcessors();
-        bufferPadExecutors = Executors.newFixedThreadPool(cores * 2, new NamingThreadFactory(WORKER_NAME));
-
-        // initialize schedule thread
-        if (usingSchedule) {
-            bufferPadSchedule = Executors.newSingleThreadScheduledExecutor(new NamingThreadFactory(SCHEDULE_NAME));
-        } else {
-            bufferPadSchedule = null;
-        }
+        // thread pool & schedule thread
+        bufferPadExecutors = pools.getWorkers();
+        bufferPadSchedule = usingSchedule ? pools.getSchedule() : null;
     }
 
     /**
      * Start executors such as schedule
      */
-    public void start() {
+    public synchronized void start() {
         if (bufferPadSchedule != null) {
-            bufferPadSchedule.scheduleWithFixedDelay(this::paddingBuffer, scheduleInterval, scheduleInterval, TimeUnit.SECONDS);
+            scheduledPadding = bufferPadSchedule.scheduleWithFixedDelay(this::paddingBuffer, scheduleInterval, scheduleInterval, TimeUnit.SECONDS);
         }
     }
 
     /**
-     * Shutdown executors
+     * Stop padding: the schedule is cancelled, no more padding is submitted, and the padding in progress stops
+     * once the second it is putting is done, instead of being interrupted mid-fill. UIDs in the buffer can
+     * still be taken, and {@link #getLastSecond()} is final after that
+     *
+     * @param timeout max wait for the padding in progress
+     * @return false if still padding after the timeout
      */
-    @Override
-    public void close() {
-        if (!bufferPadExecutors.isShutdown()) {
-            bufferPadExecutors.shutdownNow();
+    public boolean stop(Duration timeout) {
+        closed = true;
+        synchronized (this) {
+            if (scheduledPadding != null) {
+                scheduledPadding.cancel(false);
+            }
         }
 
-        if (bufferPadSchedule != null && !bufferPadSchedule.isShutdown()) {
-            bufferPadSchedule.shutdownNow();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (running.get()) {
+            if (System.nanoTime() - deadline >= 0) {
+                LOGGER.warn("Padding buffer is still running after {}. {}", timeout, ringBuffer);
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    /**
+     * Stop padding, then shutdown executors if owned
+     */
+    @Override
+    public void close() {
+        stop(DEFAULT_STOP_TIMEOUT);
+        if (ownsPools) {
+            pools.close();
         }
     }
 
@@ -131,6 +180,9 @@ public class BufferPaddingExecutor implements AutoCloseable{
      * Padding buffer in the thread pool
      */
     public void asyncPadding() {
+        if (closed) {
+            return;
+        }
         bufferPadExecutors.submit(this::paddingBuffer);
     }
 
@@ -147,28 +199,133 @@ public class BufferPaddingExecutor implements AutoCloseable{
         }
 
         // fill the rest slots until to catch the cursor
+        PaddingEvent event = new PaddingEvent();
+        event.begin();
+        long startNanos = System.nanoTime();
+        long uidsAdded = 0;
+        long secondsConsumed = 0;
         boolean isFullRingBuffer = false;
-        while (!isFullRingBuffer) {
-            List<Long> uidList = uidProvider.provide(lastSecond.incrementAndGet());
-            for (Long uid : uidList) {
-                isFullRingBuffer = !ringBuffer.put(uid);
-                if (isFullRingBuffer) {
-                    break;
+        try {
+            while (!isFullRingBuffer && !closed) {
+                List<Long> uidList = provideNextSecond();
+                secondsConsumed++;
+                for (Long uid : uidList) {
+                    isFullRingBuffer = !ringBuffer.put(uid);
+                    if (isFullRingBuffer) {
+                        break;
+                    }
+                    uidsAdded++;
                 }
             }
+        } catch (RuntimeException e) {
+            // such as the high-water mark can't be reserved, padding is retried on the next trigger
+            LOGGER.error("Padding buffer exception. {}", ringBuffer, e);
         }
 
         // not running now
+        ringBuffer.getMetrics().recordPadding(System.nanoTime() - startNanos);
+        event.finish(uidsAdded, secondsConsumed, lastSecond.get());
         running.compareAndSet(true, false);
         LOGGER.info("End to padding buffer lastSecond:{}. {}", lastSecond.get(), ringBuffer);
+
+        // new slots are published
+        for (Runnable listener : paddedListeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                LOGGER.error("Padded listener exception. ", e);
+            }
+        }
+    }
+
+    /**
+     * Padding the UIDs of one more second in the caller thread, without waiting for a running padding
+     *
+     * @return count of UIDs put into the buffer
+     */
+    public int paddingOneSecond() {
+        int count = 0;
+        for (Long uid : provideNextSecond()) {
+            if (!ringBuffer.put(uid)) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * UIDs of the next second, the second is given back if the provider fails so it is not skipped in vain
+     */
+    private List<Long> provideNextSecond() {
+        long second = borrowSecond();
+        try {
+            return uidProvider.provide(second);
+        } catch (RuntimeException e) {
+            lastSecond.compareAndSet(second, second - 1);
+            throw e;
+        }
+    }
+
+    /**
+     * Borrow the next second for UIDs out of the buffer. Padding claims its seconds here as well,
+     * so the seconds borrowed never overlap with the buffer
+     *
+     * @return the borrowed second
+     */
+    public long borrowSecond() {
+        return lastSecond.incrementAndGet();
+    }
+
+    /**
+     * Skip the seconds up to the specified one, the next borrowed second is strictly above it
+     *
+     * @param second
+     */
+    public void resumeAfter(long second) {
+        lastSecond.accumulateAndGet(second, Math::max);
+    }
+
+    /**
+     * Last second borrowed, the highest second of the UIDs in or out of the buffer
+     */
+    public long getLastSecond() {
+        return lastSecond.get();
+    }
+
+    /**
+     * Add a listener which runs in the padding thread after each padding
+     *
+     * @param listener
+     */
+    public void addPaddedListener(Runnable listener) {
+        paddedListeners.add(listener);
+    }
+
+    public void removePaddedListener(Runnable listener) {
+        paddedListeners.remove(listener);
+    }
+
+    public boolean isUsingSchedule() {
+        return bufferPadSchedule != null;
+    }
+
+    public long getScheduleInterval() {
+        return scheduleInterval;
     }
 
     /**
      * Setters
      */
-    public void setScheduleInterval(long scheduleInterval) {
+    public synchronized void setScheduleInterval(long scheduleInterval) {
         Assert.isTrue(scheduleInterval > 0, "Schedule interval must positive!");
         this.scheduleInterval = scheduleInterval;
+
+        // started already, reschedule with the new interval
+        if (scheduledPadding != null && !closed) {
+            scheduledPadding.cancel(false);
+            start();
+        }
     }
     
 }
@@ -0,0 +1,20 @@
+package com.baidu.fsg.uid.core.buffer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caller-runs policy for {@link RejectedTakeBufferHandler}. The caller pads the UIDs of one second synchronously,
+ * then the take retries the buffer. The full padding is still triggered in the padding thread.
+ */
+@Slf4j
+public class CallerRunsRejectedTakeBufferHandler implements RejectedTakeBufferHandler {
+
+    @Override
+    public void rejectTakeBuffer(RingBuffer ringBuffer) {
+        log.warn("Rejected take buffer, padding in the caller thread. {}", ringBuffer);
+        BufferPaddingExecutor bufferPaddingExecutor = ringBuffer.getBufferPaddingExecutor();
+        bufferPaddingExecutor.paddingOneSecond();
+        bufferPaddingExecutor.asyncPadding();
+    }
+
+}
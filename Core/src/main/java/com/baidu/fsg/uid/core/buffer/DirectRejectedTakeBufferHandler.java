@@ -0,0 +1,81 @@
+package com.baidu.fsg.uid.core.buffer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongUnaryOperator;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Direct policy for {@link RejectedTakeBufferHandler}. While the buffer is empty, UIDs are generated in the caller
+ * thread like DefaultUidGenerator, on the same worker id, and without lock<p>
+ *
+ * The handler borrows a whole second by {@link BufferPaddingExecutor#borrowSecond()}, the same sequence of
+ * seconds the padding uses, so its UIDs never overlap with the buffer. Callers then share the sequences of the
+ * borrowed second by an atomic increment. Borrowing the next second is serialized, so however many callers find
+ * the second exhausted, only one second is borrowed and the generator does not run ahead of the clock.
+ */
+@Slf4j
+public class DirectRejectedTakeBufferHandler implements RejectedTakeBufferHandler {
+
+    /** UID of sequence 0 in the specified second */
+    private final LongUnaryOperator firstUidOfSecond;
+    private final long maxSequence;
+
+    /** The second in use, exhausted at the beginning */
+    private final AtomicReference<SecondBlock> block;
+    private final ReentrantLock borrowLock = new ReentrantLock();
+
+    public DirectRejectedTakeBufferHandler(LongUnaryOperator firstUidOfSecond, long maxSequence) {
+        this.firstUidOfSecond = firstUidOfSecond;
+        this.maxSequence = maxSequence;
+        this.block = new AtomicReference<>(new SecondBlock(0L, maxSequence + 1));
+    }
+
+    @Override
+    public void rejectTakeBuffer(RingBuffer ringBuffer) {
+        log.warn("Rejected take buffer, generating directly. {}", ringBuffer);
+        ringBuffer.getBufferPaddingExecutor().asyncPadding();
+    }
+
+    @Override
+    public long takeOnRejected(RingBuffer ringBuffer) {
+        rejectTakeBuffer(ringBuffer);
+
+        while (true) {
+            SecondBlock current = block.get();
+            long sequence = current.nextSequence.getAndIncrement();
+            if (sequence <= maxSequence) {
+                return current.firstUid + sequence;
+            }
+
+            // exhausted, borrow the next second unless another caller already did, then retry with its second
+            borrowLock.lock();
+            try {
+                if (block.get() == current) {
+                    long second = ringBuffer.getBufferPaddingExecutor().borrowSecond();
+                    SecondBlock next = new SecondBlock(firstUidOfSecond.applyAsLong(second), 1L);
+                    block.set(next);
+                    return next.firstUid;
+                }
+            } finally {
+                borrowLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * UIDs of a borrowed second
+     */
+    private static final class SecondBlock {
+        private final long firstUid;
+        private final AtomicLong nextSequence;
+
+        SecondBlock(long firstUid, long nextSequence) {
+            this.firstUid = firstUid;
+            this.nextSequence = new AtomicLong(nextSequence);
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.baidu.fsg.uid.core.buffer;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.baidu.fsg.uid.core.utils.NamingThreadFactory;
+
+/**
+ * Represents the thread pools of {@link BufferPaddingExecutor}: one for padding immediately, the other for
+ * scheduled padding. A {@link BufferPaddingExecutor} creates its own pools by default, several generators may
+ * share one instead, which is closed by its owner once all of them are closed
+ */
+public class PaddingPools implements AutoCloseable {
+
+    /** Constants */
+    private static final String WORKER_NAME = "RingBuffer-Padding-Worker";
+    private static final String SCHEDULE_NAME = "RingBuffer-Padding-Schedule";
+    private static final Duration DEFAULT_CLOSE_TIMEOUT = Duration.ofSeconds(5);
+
+    /** Padding immediately by the thread pool */
+    private final ExecutorService workers;
+    /** Padding schedule thread, null if not using schedule */
+    private final ScheduledExecutorService schedule;
+
+    public PaddingPools() {
+        this(true);
+    }
+
+    /**
+     * @param usingSchedule whether to create the schedule thread
+     */
+    public PaddingPools(boolean usingSchedule) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        this.workers = Executors.newFixedThreadPool(cores * 2, new NamingThreadFactory(WORKER_NAME));
+        this.schedule = usingSchedule ? Executors.newSingleThreadScheduledExecutor(new NamingThreadFactory(SCHEDULE_NAME)) : null;
+    }
+
+    public ExecutorService getWorkers() {
+        return workers;
+    }
+
+    /**
+     * @return null if not using schedule
+     */
+    public ScheduledExecutorService getSchedule() {
+        return schedule;
+    }
+
+    @Override
+    public void close() {
+        close(DEFAULT_CLOSE_TIMEOUT);
+    }
+
+    /**
+     * Shutdown the pools, the padding in progress is waited for at most the timeout before interrupted
+     *
+     * @param timeout
+     */
+    public void close(Duration timeout) {
+        workers.shutdown();
+        if (schedule != null) {
+            schedule.shutdown();
+        }
+
+        try {
+            if (!workers.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (schedule != null) {
+            schedule.shutdownNow();
+        }
+    }
+
+}
@@ -24,10 +24,31 @@ package com.baidu.fsg.uid.core.buffer;
 @FunctionalInterface
 public interface RejectedTakeBufferHandler {
 
+    /**
+     * Returned by {@link #takeOnRejected(RingBuffer)} if the handler supplies no UID. UIDs never use the sign
+     * bit, so it can't be a UID
+     */
+    long NO_UID = -1L;
+
     /**
      * Reject take buffer request
      * 
      * @param ringBuffer
      */
     void rejectTakeBuffer(RingBuffer ringBuffer);
+
+    /**
+     * Reject take buffer request, with a chance to supply the UID in place of the buffer.<br>
+     * If a UID is returned, the take returns it. Otherwise the take retries the buffer once, which succeeds if
+     * the handler has padded the buffer, and fails if still empty.<p>
+     *
+     * Default applies {@link #rejectTakeBuffer(RingBuffer)} and supplies nothing
+     *
+     * @param ringBuffer
+     * @return UID or {@link #NO_UID}
+     */
+    default long takeOnRejected(RingBuffer ringBuffer) {
+        rejectTakeBuffer(ringBuffer);
+        return NO_UID;
+    }
 }
@@ -0,0 +1,13 @@
+package com.baidu.fsg.uid.core.buffer;
+
+/**
+ * Policies of {@link RejectedTakeBufferHandler} for an empty {@link RingBuffer}
+ * <li>EXCEPTION: Throws an exception, the default
+ * <li>CALLER_RUNS: Pads the UIDs of one second in the caller thread, see {@link CallerRunsRejectedTakeBufferHandler}
+ * <li>DIRECT: Generates UIDs directly out of the buffer, see {@link DirectRejectedTakeBufferHandler}
+ */
+public enum RejectedTakePolicy {
+
+    EXCEPTION, CALLER_RUNS, DIRECT
+
+}
@@ -0,0 +1,102 @@
+package com.baidu.fsg.uid.core.buffer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.util.Assert;
+
+/**
+ * A pool of UIDs reserved out of the {@link RingBuffer} for critical callers, it is only taken when the buffer is
+ * rejected. The pool is made of the UIDs of a second borrowed by {@link BufferPaddingExecutor#borrowSecond()}, all
+ * of which are served, not only the size of the pool. After a padding the pool is replaced by a fresh second once
+ * fewer than its size are left, so that many are ready for the next starvation. If the buffer stays starved until
+ * the second is used up, the caller borrows the next second itself, so the pool is never exhausted unless a second
+ * can't be provided.
+ */
+public class ReservedUidPool {
+
+    private final int size;
+    private final BufferedUidProvider uidProvider;
+    private final BufferPaddingExecutor bufferPaddingExecutor;
+    private final AtomicReference<Reserve> reserve;
+
+    /**
+     * Constructor with pool size, the pool is filled at once
+     *
+     * @param size UIDs kept ready, at most the UIDs of one second
+     * @param uidProvider
+     * @param bufferPaddingExecutor
+     */
+    public ReservedUidPool(int size, BufferedUidProvider uidProvider, BufferPaddingExecutor bufferPaddingExecutor) {
+        Assert.isTrue(size > 0, "Reserved pool size must be positive");
+        this.size = size;
+        this.uidProvider = uidProvider;
+        this.bufferPaddingExecutor = bufferPaddingExecutor;
+        this.reserve = new AtomicReference<>(newReserve());
+
+        bufferPaddingExecutor.addPaddedListener(this::refill);
+    }
+
+    /**
+     * Take a reserved UID, the next second is borrowed by the caller once the second of the pool is used up
+     *
+     * @return UID
+     * @throws RuntimeException if the next second can't be provided
+     */
+    public long take() {
+        while (true) {
+            Reserve current = reserve.get();
+            int index = current.next.getAndIncrement();
+            if (index < current.uids.length) {
+                return current.uids[index];
+            }
+
+            // one of the racing callers borrows, the others take from its second
+            synchronized (this) {
+                if (reserve.get() == current) {
+                    reserve.set(newReserve());
+                }
+            }
+            bufferPaddingExecutor.asyncPadding();
+        }
+    }
+
+    /**
+     * UIDs left in the pool
+     */
+    public int getAvailable() {
+        Reserve current = reserve.get();
+        return Math.max(current.uids.length - current.next.get(), 0);
+    }
+
+    /**
+     * Replace the pool if fewer than its size are left, runs in the padding thread
+     */
+    private synchronized void refill() {
+        if (getAvailable() < size) {
+            reserve.set(newReserve());
+        }
+    }
+
+    private Reserve newReserve() {
+        List<Long> uidList = uidProvider.provide(bufferPaddingExecutor.borrowSecond());
+        Assert.isTrue(size <= uidList.size(), "Reserved pool size exceeds the UIDs of one second");
+
+        long[] uids = new long[uidList.size()];
+        for (int i = 0; i < uids.length; i++) {
+            uids[i] = uidList.get(i);
+        }
+        return new Reserve(uids);
+    }
+
+    private static final class Reserve {
+        private final long[] uids;
+        private final AtomicInteger next = new AtomicInteger();
+
+        Reserve(long[] uids) {
+            this.uids = uids;
+        }
+    }
+
+}
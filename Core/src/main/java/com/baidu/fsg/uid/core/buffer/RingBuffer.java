@@ -18,6 +18,9 @@ package com.baidu.fsg.uid.core.buffer;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
+import com.baidu.fsg.uid.core.jfr.PaddingThresholdEvent;
+import com.baidu.fsg.uid.core.jfr.RejectedPutEvent;
+import com.baidu.fsg.uid.core.jfr.RejectedTakeEvent;
 import com.baidu.fsg.uid.core.utils.PaddedAtomicLong;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.Assert;
@@ -58,8 +61,12 @@ public class RingBuffer {
     /** Cursor: current position sequence to consume */
     private final AtomicLong cursor = new PaddedAtomicLong(START_POINT);
 
-    /** Threshold for trigger padding buffer*/
-    private final int paddingThreshold; 
+    /** Takes are refused while fenced, such as the lease of the worker id may be lost */
+    private volatile boolean fenced;
+
+    /** Threshold for trigger padding buffer, tunable at runtime*/
+    private volatile int paddingFactor;
+    private volatile int paddingThreshold; 
     
     /** Reject put/take buffer handle policy */
     private RejectedPutBufferHandler rejectedPutHandler = this::discardPutBuffer;
@@ -68,6 +75,9 @@ public class RingBuffer {
     /** Executor of padding buffer */
     private BufferPaddingExecutor bufferPaddingExecutor;
 
+    /** Counters of rejections & paddings */
+    private final RingBufferMetrics metrics = new RingBufferMetrics();
+
     /**
      * Constructor with buffer size, paddingFactor default as {@value #DEFAULT_PADDING_PERCENT}
      * 
@@ -89,14 +99,14 @@ public class RingBuffer {
         // check buffer size is positive & a power of 2; padding factor in (0, 100)
         Assert.isTrue(bufferSize > 0L, "RingBuffer size must be positive");
         Assert.isTrue(Integer.bitCount(bufferSize) == 1, "RingBuffer size must be a power of 2");
-        Assert.isTrue(paddingFactor > 0 && paddingFactor < 100, "RingBuffer size must be positive");
 
         this.bufferSize = bufferSize;
         this.indexMask = bufferSize - 1;
         this.slots = new long[bufferSize];
-        this.flags = initFlags(bufferSize);
+        // flags are allocated as the slots are put for the first time, see put(long)
+        this.flags = new PaddedAtomicLong[bufferSize];
         
-        this.paddingThreshold = bufferSize * paddingFactor / 100;
+        setPaddingFactor(paddingFactor);
     }
 
     /**
@@ -118,13 +128,20 @@ public class RingBuffer {
             // tail catches the cursor, means that you can't put any cause of RingBuffer is full
             long distance = currentTail - (currentCursor == START_POINT ? 0 : currentCursor);
             if (distance == bufferSize - 1) {
+                metrics.recordRejectedPut();
+                RejectedPutEvent.emit(uid, currentTail, currentCursor);
                 rejectedPutHandler.rejectPutBuffer(this, uid);
                 return false;
             }
 
-            // 1. pre-check whether the flag is CAN_PUT_FLAG
+            // 1. pre-check whether the flag is CAN_PUT_FLAG, a slot never put has no flag yet
             int nextTailIndex = calSlotIndex(currentTail + 1);
-            if (flags[nextTailIndex].get() != CAN_PUT_FLAG) {
+            PaddedAtomicLong flag = flags[nextTailIndex];
+            if (flag == null) {
+                flag = flags[nextTailIndex] = new PaddedAtomicLong(CAN_PUT_FLAG);
+            } else if (flag.get() != CAN_PUT_FLAG) {
+                metrics.recordRejectedPut();
+                RejectedPutEvent.emit(uid, currentTail, currentCursor);
                 rejectedPutHandler.rejectPutBuffer(this, uid);
                 return false;
             }
@@ -133,7 +150,7 @@ public class RingBuffer {
             // 3. update next slot' flag to CAN_TAKE_FLAG
             // 4. publish tail with sequence increase by one
             slots[nextTailIndex] = uid;
-            flags[nextTailIndex].set(CAN_TAKE_FLAG);
+            flag.set(CAN_TAKE_FLAG);
             tail.incrementAndGet();
 
             // The atomicity of operations above, guarantees by 'synchronized'. In another word,
@@ -153,9 +170,11 @@ public class RingBuffer {
      * If there is no more available UID to be taken, the specified {@link RejectedTakeBufferHandler} will be applied<br>
      * 
      * @return UID
-     * @throws IllegalStateException if the cursor moved back
+     * @throws IllegalStateException if the cursor moved back, or fenced
      */
     public long take() {
+        checkFenced();
+
         // spin get next available cursor
         long currentCursor = cursor.get();
         long nextCursor = cursor.updateAndGet(old -> old == tail.get() ? old : old + 1);
@@ -168,12 +187,21 @@ public class RingBuffer {
         if (currentTail - nextCursor < paddingThreshold) {
             log.info("Reach the padding threshold:{}. tail:{}, cursor:{}, rest:{}", paddingThreshold, currentTail,
                     nextCursor, currentTail - nextCursor);
+            PaddingThresholdEvent.emit(paddingThreshold, currentTail, nextCursor);
             bufferPaddingExecutor.asyncPadding();
         }
 
         // cursor catch the tail, means that there is no more available UID to take
         if (nextCursor == currentCursor) {
-            rejectedTakeHandler.rejectTakeBuffer(this);
+            metrics.recordRejectedTake();
+            RejectedTakeEvent.emit(currentTail, nextCursor);
+            long uid = rejectedTakeHandler.takeOnRejected(this);
+            if (uid != RejectedTakeBufferHandler.NO_UID) {
+                return uid;
+            }
+
+            // the handler returns without a UID, it may have padded the buffer. Retry once
+            return retryTake();
         }
 
         // 1. check next slot flag is CAN_TAKE_FLAG
@@ -190,6 +218,108 @@ public class RingBuffer {
         return uid;
     }
 
+    /**
+     * Take up to <code>length</code> UIDs of the ring in a row, the cursor is moved over all of them by a single
+     * CAS, so a batch consumer does not contend on every UID<p>
+     *
+     * The padding threshold and the {@link RejectedTakeBufferHandler} are applied the same way as {@link #take()}
+     *
+     * @param dst
+     * @param offset
+     * @param length
+     * @return count of UIDs taken, at least 1
+     */
+    public int take(long[] dst, int offset, int length) {
+        int count = poll(dst, offset, length);
+
+        // cursor catch the tail, means that there is no more available UID to take
+        if (count == 0) {
+            metrics.recordRejectedTake();
+            RejectedTakeEvent.emit(tail.get(), cursor.get());
+            long uid = rejectedTakeHandler.takeOnRejected(this);
+            if (uid != RejectedTakeBufferHandler.NO_UID) {
+                dst[offset] = uid;
+                return 1;
+            }
+
+            // the handler returns without a UID, it may have padded the buffer. Retry once
+            count = poll(dst, offset, length);
+            if (count == 0) {
+                throw new RuntimeException("Rejected take buffer after retry. " + this);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Take up to <code>length</code> UIDs of the ring like {@link #take(long[], int, int)}, but an empty ring
+     * is not rejected, it just returns 0. Used by consumers which wait for the padding instead of failing
+     *
+     * @param dst
+     * @param offset
+     * @param length
+     * @return count of UIDs taken, 0 if the ring is empty
+     */
+    public int poll(long[] dst, int offset, int length) {
+        checkFenced();
+
+        // reserve a run of cursors, it stops at the tail
+        long currentCursor;
+        long nextCursor;
+        do {
+            currentCursor = cursor.get();
+            nextCursor = Math.min(currentCursor + length, tail.get());
+        } while (nextCursor > currentCursor && !cursor.compareAndSet(currentCursor, nextCursor));
+
+        // trigger padding in an async-mode if reach the threshold
+        long currentTail = tail.get();
+        if (currentTail - nextCursor < paddingThreshold) {
+            log.info("Reach the padding threshold:{}. tail:{}, cursor:{}, rest:{}", paddingThreshold, currentTail,
+                    nextCursor, currentTail - nextCursor);
+            PaddingThresholdEvent.emit(paddingThreshold, currentTail, nextCursor);
+            bufferPaddingExecutor.asyncPadding();
+        }
+        if (nextCursor <= currentCursor) {
+            return 0;
+        }
+
+        // the same steps as take() for each slot: check flag, get UID, then set flag as CAN_PUT_FLAG
+        int count = (int) (nextCursor - currentCursor);
+        for (int i = 0; i < count; i++) {
+            int index = calSlotIndex(currentCursor + 1 + i);
+            Assert.isTrue(flags[index].get() == CAN_TAKE_FLAG, "Curosr not in can take status");
+            dst[offset + i] = slots[index];
+            flags[index].set(CAN_PUT_FLAG);
+        }
+        return count;
+    }
+
+    /**
+     * Take the next UID once more after the {@link RejectedTakeBufferHandler} returns without a UID
+     */
+    private long retryTake() {
+        long currentCursor = cursor.get();
+        while (currentCursor < tail.get()) {
+            if (cursor.compareAndSet(currentCursor, currentCursor + 1)) {
+                int nextCursorIndex = calSlotIndex(currentCursor + 1);
+                Assert.isTrue(flags[nextCursorIndex].get() == CAN_TAKE_FLAG, "Curosr not in can take status");
+
+                long uid = slots[nextCursorIndex];
+                flags[nextCursorIndex].set(CAN_PUT_FLAG);
+                return uid;
+            }
+            currentCursor = cursor.get();
+        }
+
+        throw new RuntimeException("Rejected take buffer after retry. " + this);
+    }
+
+    private void checkFenced() {
+        if (fenced) {
+            throw new IllegalStateException("RingBuffer is fenced, refusing take. " + this);
+        }
+    }
+
     /**
      * Calculate slot index with the slot sequence (sequence % bufferSize) 
      */
@@ -212,18 +342,6 @@ public class RingBuffer {
         throw new RuntimeException("Rejected take buffer. " + ringBuffer);
     }
     
-    /**
-     * Initialize flags as CAN_PUT_FLAG
-     */
-    private PaddedAtomicLong[] initFlags(int bufferSize) {
-        PaddedAtomicLong[] flags = new PaddedAtomicLong[bufferSize];
-        for (int i = 0; i < bufferSize; i++) {
-            flags[i] = new PaddedAtomicLong(CAN_PUT_FLAG);
-        }
-        
-        return flags;
-    }
-
     /**
      * Getters
      */
@@ -239,6 +357,29 @@ public class RingBuffer {
         return bufferSize;
     }
 
+    public int getPaddingThreshold() {
+        return paddingThreshold;
+    }
+
+    public int getPaddingFactor() {
+        return paddingFactor;
+    }
+
+    /**
+     * Count of UIDs taken since created, the cursor moves once for each of them
+     */
+    public long getTakenCount() {
+        return cursor.get() - START_POINT;
+    }
+
+    public RingBufferMetrics getMetrics() {
+        return metrics;
+    }
+
+    public BufferPaddingExecutor getBufferPaddingExecutor() {
+        return bufferPaddingExecutor;
+    }
+
     /**
      * Setters
      */
@@ -246,6 +387,30 @@ public class RingBuffer {
         this.bufferPaddingExecutor = bufferPaddingExecutor;
     }
 
+    /**
+     * Change the padding factor, takes effect at the next take
+     *
+     * @param paddingFactor percent in (0 - 100)
+     */
+    public void setPaddingFactor(int paddingFactor) {
+        Assert.isTrue(paddingFactor > 0 && paddingFactor < 100, "RingBuffer padding factor must be in (0, 100)");
+        this.paddingFactor = paddingFactor;
+        this.paddingThreshold = bufferSize * paddingFactor / 100;
+    }
+
+    /**
+     * Refuse takes while fenced, UIDs in the buffer are kept and can be taken once unfenced
+     *
+     * @param fenced
+     */
+    public void setFenced(boolean fenced) {
+        this.fenced = fenced;
+    }
+
+    public boolean isFenced() {
+        return fenced;
+    }
+
     public void setRejectedPutHandler(RejectedPutBufferHandler rejectedPutHandler) {
         this.rejectedPutHandler = rejectedPutHandler;
     }
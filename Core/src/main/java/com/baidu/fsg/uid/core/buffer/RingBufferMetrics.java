@@ -0,0 +1,54 @@
+package com.baidu.fsg.uid.core.buffer;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Represents counters of a {@link RingBuffer} and its {@link BufferPaddingExecutor}<p>
+ *
+ * The counters are striped by {@link LongAdder}, so recording never contends between threads. UIDs taken are
+ * not counted here: the cursor of the {@link RingBuffer} moves once for each of them, see
+ * {@link RingBuffer#getTakenCount()}.
+ */
+public class RingBufferMetrics {
+
+    private final LongAdder rejectedPuts = new LongAdder();
+    private final LongAdder rejectedTakes = new LongAdder();
+    private final LongAdder paddings = new LongAdder();
+    private final LongAdder paddingNanos = new LongAdder();
+
+    void recordRejectedPut() {
+        rejectedPuts.increment();
+    }
+
+    void recordRejectedTake() {
+        rejectedTakes.increment();
+    }
+
+    void recordPadding(long nanos) {
+        paddings.increment();
+        paddingNanos.add(nanos);
+    }
+
+    /**
+     * Puts rejected as the buffer is full, each padding ends with one
+     */
+    public long getRejectedPutCount() {
+        return rejectedPuts.sum();
+    }
+
+    /**
+     * Takes rejected as the buffer is empty
+     */
+    public long getRejectedTakeCount() {
+        return rejectedTakes.sum();
+    }
+
+    public long getPaddingCount() {
+        return paddings.sum();
+    }
+
+    public long getPaddingNanos() {
+        return paddingNanos.sum();
+    }
+
+}
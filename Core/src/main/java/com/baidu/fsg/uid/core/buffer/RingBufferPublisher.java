@@ -0,0 +1,151 @@
+package com.baidu.fsg.uid.core.buffer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Represents a {@link Flow.Publisher} of the UIDs in a {@link RingBuffer}, each subscriber receives its own
+ * endless sequence of UIDs as it requests<p>
+ *
+ * Demand is completed from the buffer in the requesting thread. When the buffer is empty the delivery is
+ * deferred rather than rejected: the subscription waits for the {@link BufferPaddingExecutor} to publish new slots
+ * and continues in the delivery executor, never in the padding thread. A request larger than the rest UIDs of the
+ * buffer triggers a padding at once, so the demand also feeds the padding besides the threshold.<p>
+ *
+ * UIDs are taken from the buffer no more than requested, so a subscriber requesting one UID at a time wastes none
+ * when it cancels.
+ */
+@Slf4j
+public class RingBufferPublisher implements Flow.Publisher<Long> {
+
+    /** Max count of UIDs taken from the buffer at a time */
+    private static final int BLOCK_SIZE = 256;
+
+    private final RingBuffer ringBuffer;
+    private final BufferPaddingExecutor bufferPaddingExecutor;
+    /** Executor of the deliveries deferred until the padding */
+    private final Executor deliveryExecutor;
+
+    /**
+     * Constructor delivering the deferred UIDs in the {@link ForkJoinPool#commonPool()}
+     */
+    public RingBufferPublisher(RingBuffer ringBuffer, BufferPaddingExecutor bufferPaddingExecutor) {
+        this(ringBuffer, bufferPaddingExecutor, ForkJoinPool.commonPool());
+    }
+
+    public RingBufferPublisher(RingBuffer ringBuffer, BufferPaddingExecutor bufferPaddingExecutor, Executor deliveryExecutor) {
+        this.ringBuffer = ringBuffer;
+        this.bufferPaddingExecutor = bufferPaddingExecutor;
+        this.deliveryExecutor = deliveryExecutor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Long> subscriber) {
+        RingBufferSubscription subscription = new RingBufferSubscription(subscriber);
+        bufferPaddingExecutor.addPaddedListener(subscription);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * Subscription drained by whichever thread requests or the delivery executor, only one thread drains at a time
+     */
+    private class RingBufferSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super Long> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final long[] block = new long[BLOCK_SIZE];
+        private volatile boolean cancelled;
+
+        RingBufferSubscription(Flow.Subscriber<? super Long> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Request must be positive, but was " + n));
+                return;
+            }
+            requested.accumulateAndGet(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+
+            // demand beyond the rest UIDs, no need to wait for the threshold
+            if (n > ringBuffer.getTail() - ringBuffer.getCursor()) {
+                bufferPaddingExecutor.asyncPadding();
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            bufferPaddingExecutor.removePaddedListener(this);
+        }
+
+        /**
+         * Padded listener, continue the deferred delivery out of the padding thread
+         */
+        @Override
+        public void run() {
+            if (requested.get() > 0 && !cancelled) {
+                deliveryExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                long demand = requested.get();
+                long emitted = 0;
+                while (emitted < demand && !cancelled) {
+                    int count;
+                    try {
+                        count = ringBuffer.poll(block, 0, (int) Math.min(BLOCK_SIZE, demand - emitted));
+                    } catch (RuntimeException e) {
+                        // such as fenced, the subscription ends
+                        cancel();
+                        subscriber.onError(e);
+                        return;
+                    }
+                    if (count == 0) {
+                        // buffer is empty, resume when the padding publishes new slots
+                        bufferPaddingExecutor.asyncPadding();
+                        break;
+                    }
+
+                    for (int i = 0; i < count && !cancelled; i++) {
+                        emit(block[i]);
+                    }
+                    emitted += count;
+                }
+
+                if (cancelled) {
+                    return;
+                }
+                if (emitted > 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit(long uid) {
+            try {
+                subscriber.onNext(uid);
+            } catch (Throwable e) {
+                log.error("Subscriber onNext exception, cancel the subscription. ", e);
+                cancel();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.baidu.fsg.uid.core.impl;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import com.baidu.fsg.uid.core.UidGenerator;
+import com.baidu.fsg.uid.core.exception.UidGenerateException;
+import com.baidu.fsg.uid.core.utils.NamingThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Represents a {@link UidGenerator} built in the background, such as a {@link CachedUidGenerator} whose worker
+ * assignment and initial padding would block the startup thread<p>
+ *
+ * Until the delegate is ready, {@link #getUID()} waits for at most the await timeout, then fails fast with
+ * {@link UidGenerateException}. Readiness is exposed by {@link #isReady()}, {@link #awaitReady(Duration)} and
+ * {@link #readiness()}, so callers may hold traffic until then.
+ */
+@Slf4j
+public class AsyncUidGenerator implements UidGenerator, AutoCloseable {
+    private static final String INIT_NAME = "UidGenerator-Init";
+
+    private final CompletableFuture<UidGenerator> delegate;
+    private final Duration awaitTimeout;
+
+    public AsyncUidGenerator(Supplier<? extends UidGenerator> factory, Duration awaitTimeout) {
+        this.awaitTimeout = awaitTimeout;
+        NamingThreadFactory threadFactory = new NamingThreadFactory(INIT_NAME, true);
+        this.delegate = CompletableFuture.supplyAsync(factory::get, command -> threadFactory.newThread(command).start());
+        this.delegate.whenComplete((generator, e) -> {
+            if (e != null) {
+                log.error("Initialize UidGenerator exception. ", e);
+            } else {
+                log.info("Initialized UidGenerator asynchronously. {}", generator.getClass().getSimpleName());
+            }
+        });
+    }
+
+    @Override
+    public long getUID() {
+        return getDelegate().getUID();
+    }
+
+    @Override
+    public void getUIDs(long[] dst, int offset, int length) {
+        getDelegate().getUIDs(dst, offset, length);
+    }
+
+    @Override
+    public String parseUID(long uid) {
+        return getDelegate().parseUID(uid);
+    }
+
+    /**
+     * Whether the delegate is built successfully
+     */
+    public boolean isReady() {
+        return delegate.isDone() && !delegate.isCompletedExceptionally();
+    }
+
+    /**
+     * Wait for the delegate to be built
+     *
+     * @param timeout
+     * @return false if not ready in time or failed to build
+     */
+    public boolean awaitReady(Duration timeout) {
+        try {
+            delegate.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Future completed by the built delegate, or exceptionally if failed to build
+     */
+    public CompletableFuture<UidGenerator> readiness() {
+        return delegate.copy();
+    }
+
+    /**
+     * Close the delegate, which is closed as soon as it is built if still in progress
+     */
+    @Override
+    public void close() {
+        delegate.thenAccept(generator -> {
+            if (generator instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) generator).close();
+                } catch (Exception e) {
+                    log.warn("Close UidGenerator exception. ", e);
+                }
+            }
+        });
+    }
+
+    private UidGenerator getDelegate() {
+        if (isReady()) {
+            return delegate.join();
+        }
+
+        try {
+            return delegate.get(awaitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UidGenerateException("Interrupted while waiting for UidGenerator to be ready", e);
+        } catch (ExecutionException e) {
+            throw new UidGenerateException("UidGenerator failed to initialize", e.getCause());
+        } catch (TimeoutException e) {
+            throw new UidGenerateException("UidGenerator is not ready in " + awaitTimeout);
+        }
+    }
+
+}
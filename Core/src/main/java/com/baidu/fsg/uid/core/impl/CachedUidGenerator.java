@@ -15,17 +15,28 @@
  */
 package com.baidu.fsg.uid.core.impl;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 import com.baidu.fsg.uid.core.CacheGeneratorProperties;
 import com.baidu.fsg.uid.core.worker.WorkerIdAssigner;
 import com.baidu.fsg.uid.core.BitsAllocator;
 import com.baidu.fsg.uid.core.UidGenerator;
 import com.baidu.fsg.uid.core.buffer.BufferPaddingExecutor;
+import com.baidu.fsg.uid.core.buffer.CallerRunsRejectedTakeBufferHandler;
+import com.baidu.fsg.uid.core.buffer.DirectRejectedTakeBufferHandler;
+import com.baidu.fsg.uid.core.buffer.PaddingPools;
 import com.baidu.fsg.uid.core.buffer.RejectedPutBufferHandler;
 import com.baidu.fsg.uid.core.buffer.RejectedTakeBufferHandler;
+import com.baidu.fsg.uid.core.buffer.RejectedTakePolicy;
+import com.baidu.fsg.uid.core.buffer.ReservedUidPool;
 import com.baidu.fsg.uid.core.buffer.RingBuffer;
+import com.baidu.fsg.uid.core.buffer.RingBufferPublisher;
 import com.baidu.fsg.uid.core.exception.UidGenerateException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.Assert;
@@ -44,6 +55,10 @@ import org.springframework.util.Assert;
  * <li><b>scheduleInterval:</b> Padding buffer in a schedule, specify padding buffer interval, Unit as second
  * <li><b>rejectedPutBufferHandler:</b> Policy for rejected put buffer. Default as discard put request, just do logging
  * <li><b>rejectedTakeBufferHandler:</b> Policy for rejected take buffer. Default as throwing up an exception
+ * <li><b>rejectedTakePolicy:</b> Built-in policies for rejected take buffer, see {@link RejectedTakePolicy}.
+ *                                Default as {@link RejectedTakePolicy#EXCEPTION}
+ * <li><b>reservedPoolSize:</b> UIDs kept ready for {@link #getCriticalUID()} when the buffer is rejected, see {@link ReservedUidPool}. Default as 0, no reserve
+ * <li><b>lazyFill:</b> Pad one second of UIDs in the constructor and the rest in the background. Default as false, fill all slots
  * 
  * @author yutianbao
  */
@@ -53,8 +68,21 @@ public class CachedUidGenerator extends DefaultUidGenerator implements AutoClose
     /** RingBuffer */
     private final RingBuffer ringBuffer;
     private final BufferPaddingExecutor bufferPaddingExecutor;
+    /** Reserved UIDs for critical callers, null if no reserve */
+    private final ReservedUidPool reservedUidPool;
 
     public CachedUidGenerator(WorkerIdAssigner workerIdAssigner, CacheGeneratorProperties properties) {
+        this(workerIdAssigner, properties, null);
+    }
+
+    /**
+     * Constructor padding by the {@link PaddingPools} shared with other generators
+     *
+     * @param workerIdAssigner
+     * @param properties
+     * @param sharedPools null to create its own pools
+     */
+    public CachedUidGenerator(WorkerIdAssigner workerIdAssigner, CacheGeneratorProperties properties, PaddingPools sharedPools) {
         super(workerIdAssigner,properties);
         Long scheduleInterval = properties.getScheduleInterval();
         Integer paddingFactor = properties.getPaddingFactor();
@@ -68,21 +96,58 @@ public class CachedUidGenerator extends DefaultUidGenerator implements AutoClose
 
         // initialize RingBufferPaddingExecutor
         boolean usingSchedule = (scheduleInterval != null);
-        this.bufferPaddingExecutor = new BufferPaddingExecutor(ringBuffer, this::nextIdsForOneSecond, usingSchedule);
+        this.bufferPaddingExecutor = sharedPools == null
+                ? new BufferPaddingExecutor(ringBuffer, this::nextIdsForOneSecond, usingSchedule)
+                : new BufferPaddingExecutor(ringBuffer, this::nextIdsForOneSecond, usingSchedule, sharedPools);
         if (usingSchedule) {
             bufferPaddingExecutor.setScheduleInterval(scheduleInterval);
         }
 
         log.info("Initialized BufferPaddingExecutor. Using schdule:{}, interval:{}", usingSchedule, scheduleInterval);
+        if (highWaterMark >= 0) {
+            bufferPaddingExecutor.resumeAfter(highWaterMark);
+        }
 
         // set rejected put/take handle policy
         this.ringBuffer.setBufferPaddingExecutor(bufferPaddingExecutor);
-        // fill in all slots of the RingBuffer
-        bufferPaddingExecutor.paddingBuffer();
+        RejectedTakePolicy rejectedTakePolicy = properties.getRejectedTakePolicy();
+        if (rejectedTakePolicy == RejectedTakePolicy.CALLER_RUNS) {
+            this.ringBuffer.setRejectedTakeHandler(new CallerRunsRejectedTakeBufferHandler());
+        } else if (rejectedTakePolicy == RejectedTakePolicy.DIRECT) {
+            this.ringBuffer.setRejectedTakeHandler(new DirectRejectedTakeBufferHandler(second -> {
+                reserve(second);
+                return bitsAllocator.allocate(second - epochSeconds, workerId, 0L);
+            }, bitsAllocator.getMaxSequence()));
+        }
+        // fill in all slots of the RingBuffer, or one second of them if lazy
+        boolean lazyFill = properties.isLazyFill();
+        if (lazyFill) {
+            bufferPaddingExecutor.paddingOneSecond();
+        } else {
+            bufferPaddingExecutor.paddingBuffer();
+        }
+
+        // reserve UIDs for critical callers
+        Integer reservedPoolSize = properties.getReservedPoolSize();
+        if (reservedPoolSize != null && reservedPoolSize > 0) {
+            this.reservedUidPool = new ReservedUidPool(reservedPoolSize, this::nextIdsForOneSecond, bufferPaddingExecutor);
+        } else {
+            this.reservedUidPool = null;
+        }
+        log.info("Rejected take policy:{}, reserved pool size:{}", rejectedTakePolicy, reservedPoolSize);
 
         // start buffer padding threads
         bufferPaddingExecutor.start();
-        log.info("Initialized RingBuffer successfully.");
+        if (lazyFill) {
+            bufferPaddingExecutor.asyncPadding();
+        }
+        log.info("Initialized RingBuffer successfully. Lazy fill:{}", lazyFill);
+
+        // the lease may be lost before the buffer is created
+        ringBuffer.setFenced(isFenced());
+        if (properties.isJmxEnabled()) {
+            registerMBean();
+        }
     }
 
 
@@ -91,22 +156,170 @@ public class CachedUidGenerator extends DefaultUidGenerator implements AutoClose
 
     @Override
     public long getUID() {
+        if (latencyRecorder != null && latencyRecorder.sample()) {
+            long startNanos = System.nanoTime();
+            try {
+                return takeUID();
+            } finally {
+                latencyRecorder.record(System.nanoTime() - startNanos);
+            }
+        }
+        return takeUID();
+    }
+
+    private long takeUID() {
+        try {
+            return ringBuffer.take();
+        } catch (Exception e) {
+            log.error("Generate unique id exception. ", e);
+            throw new UidGenerateException(e);
+        }
+    }
+
+    /**
+     * Get a UID for a critical caller. It is taken from the RingBuffer as {@link #getUID()}, but if the buffer
+     * is rejected, it is taken from the reserved pool instead of failing, see {@link ReservedUidPool}
+     *
+     * @return UID
+     * @throws UidGenerateException if fenced, or the buffer is rejected and the reserved pool is absent or can't
+     *                              borrow a second, such as the high-water mark can't be reserved
+     */
+    public long getCriticalUID() {
+        if (isFenced()) {
+            throw fencedException();
+        }
         try {
             return ringBuffer.take();
+        } catch (Exception e) {
+            if (reservedUidPool == null) {
+                log.error("Generate unique id exception. ", e);
+                throw new UidGenerateException(e);
+            }
+        }
+
+        try {
+            log.warn("Take reserved UID for critical caller. {}", ringBuffer);
+            return reservedUidPool.take();
+        } catch (Exception e) {
+            log.error("Generate unique id exception. ", e);
+            throw new UidGenerateException(e);
+        }
+    }
+
+    @Override
+    public void getUIDs(long[] dst, int offset, int length) {
+        try {
+            int taken = 0;
+            while (taken < length) {
+                taken += ringBuffer.take(dst, offset + taken, length - taken);
+            }
         } catch (Exception e) {
             log.error("Generate unique id exception. ", e);
             throw new UidGenerateException(e);
         }
     }
 
+    /**
+     * Reactive view of the RingBuffer. Demand is completed from the buffer, when the buffer is empty the
+     * delivery waits for the padding instead of failing, see {@link RingBufferPublisher}
+     *
+     * @return publisher of UIDs
+     */
+    public Flow.Publisher<Long> publisher() {
+        return new RingBufferPublisher(ringBuffer, bufferPaddingExecutor);
+    }
+
+    /**
+     * Reactive view of the RingBuffer, the deliveries deferred until the padding run in the executor
+     *
+     * @param deliveryExecutor such as the scheduler of the subscriber
+     * @return publisher of UIDs
+     */
+    public Flow.Publisher<Long> publisher(Executor deliveryExecutor) {
+        return new RingBufferPublisher(ringBuffer, bufferPaddingExecutor, deliveryExecutor);
+    }
+
     @Override
     public String parseUID(long uid) {
         return super.parseUID(uid);
     }
-    
+
+    /**
+     * Percent of the RingBuffer available to take, rounded up. Once a UID is taken the RingBuffer holds one slot
+     * less than its size at most, which is still 100
+     *
+     * @return 0 - 100
+     */
+    public int getFillPercent() {
+        long available = Math.max(ringBuffer.getTail() - ringBuffer.getCursor(), 0L);
+        int bufferSize = ringBuffer.getBufferSize();
+        return (int) ((available * 100 + bufferSize - 1) / bufferSize);
+    }
+
+    /**
+     * Wait for the RingBuffer to be filled up to the percent, such as after a lazy fill before accepting traffic.
+     * Padding is triggered if the buffer is below the percent but not padding
+     *
+     * @param percent 0 - 100
+     * @param timeout
+     * @return false if still below the percent after the timeout
+     */
+    public boolean awaitFill(int percent, Duration timeout) {
+        Assert.isTrue(percent >= 0 && percent <= 100, "percent must be in [0, 100]");
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (getFillPercent() < percent) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            if (!bufferPaddingExecutor.isRunning()) {
+                bufferPaddingExecutor.asyncPadding();
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    /**
+     * Stop padding gracefully, then checkpoint the final high-water mark as no more seconds are borrowed. UIDs
+     * left in the RingBuffer can still be taken, see {@link BufferPaddingExecutor#stop(Duration)}
+     *
+     * @param timeout max wait for the padding in progress
+     * @return false if still padding after the timeout
+     */
+    public boolean stopPadding(Duration timeout) {
+        boolean stopped = bufferPaddingExecutor.stop(timeout);
+        checkpoint();
+        return stopped;
+    }
+
+    /**
+     * UIDs in the RingBuffer are of the worker id as well, takes are refused while fenced
+     */
+    @Override
+    protected void onLease(long workerId, boolean held) {
+        super.onLease(workerId, held);
+        // called by the super constructor before the buffer is created
+        if (ringBuffer != null) {
+            ringBuffer.setFenced(!held);
+        }
+    }
+
     @Override
     public void close() {
         bufferPaddingExecutor.close();
+        super.close();
+    }
+
+    /**
+     * Seconds are borrowed by the padding, the UIDs in the buffer count as issued
+     */
+    @Override
+    public long getHighWaterSecond() {
+        // sampled before the constructor completes
+        if (bufferPaddingExecutor == null) {
+            return -1L;
+        }
+        return bufferPaddingExecutor.getLastSecond();
     }
 
     /**
@@ -116,6 +329,9 @@ public class CachedUidGenerator extends DefaultUidGenerator implements AutoClose
      * @return UID list, size of {@link BitsAllocator#getMaxSequence()} + 1
      */
     protected List<Long> nextIdsForOneSecond(long currentSecond) {
+        // never borrow above the reserved high-water mark
+        reserve(currentSecond);
+
         // Initialize result list size of (max sequence + 1)
         int listSize = (int) bitsAllocator.getMaxSequence() + 1;
         List<Long> uidList = new ArrayList<>(listSize);
@@ -129,6 +345,10 @@ public class CachedUidGenerator extends DefaultUidGenerator implements AutoClose
         return uidList;
     }
     
+    public RingBuffer getRingBuffer() {
+        return ringBuffer;
+    }
+
     public void setRejectedPutBufferHandler(RejectedPutBufferHandler rejectedPutBufferHandler) {
         this.ringBuffer.setRejectedPutHandler(rejectedPutBufferHandler);
     }
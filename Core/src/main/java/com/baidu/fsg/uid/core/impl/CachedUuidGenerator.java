@@ -0,0 +1,185 @@
+package com.baidu.fsg.uid.core.impl;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.baidu.fsg.uid.core.CacheGeneratorProperties;
+import com.baidu.fsg.uid.core.UuidGenerator;
+import com.baidu.fsg.uid.core.buffer.BufferPaddingExecutor;
+import com.baidu.fsg.uid.core.buffer.RejectedPutBufferHandler;
+import com.baidu.fsg.uid.core.buffer.RejectedTakeBufferHandler;
+import com.baidu.fsg.uid.core.buffer.RingBuffer;
+import com.baidu.fsg.uid.core.exception.UidGenerateException;
+import com.baidu.fsg.uid.core.worker.WorkerIdAssigner;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.RandomUtils;
+import org.springframework.util.Assert;
+
+/**
+ * Represents a cached implementation of {@link UuidGenerator}, UUIDs are shaped as version 7 and pre-generated
+ * into a {@link RingBuffer} by the {@link BufferPaddingExecutor}, the same way as {@link CachedUidGenerator}<p>
+ *
+ * <pre>{@code
+ * +--------------------+-----+-----------+-----+-----------+------------+
+ * |    unix_ts_ms      | ver |  counter  | var | worker id | node salt  |
+ * +--------------------+-----+-----------+-----+-----------+------------+
+ *        48bits         4bits   12bits    2bits  workerBits  the rest
+ * }</pre>
+ *
+ * The counter orders UUIDs within the same millisecond, so UUIDs of one worker are monotonic. The least
+ * significant half only depends on the worker, the worker id keeps workers apart and the node salt is random
+ * per instance, which keeps a restarted instance apart from its former self. So the pair of a UUID is made of
+ * the slot in the ring and a per-instance constant, no second buffer is needed.<p>
+ *
+ * The properties are shared with {@link CachedUidGenerator}:
+ * <li><b>workerBits:</b> bits of worker id in the least significant half, at most 62
+ * <li><b>seqBits:</b> <code>2^seqBits</code> UUIDs are padded for each second and spread over its milliseconds,
+ *                     at most 21 so that one millisecond needs no more than 4096 counters
+ * <li><b>boostPower, paddingFactor, scheduleInterval:</b> the same as {@link CachedUidGenerator}
+ */
+@Slf4j
+public class CachedUuidGenerator implements UuidGenerator, AutoCloseable {
+
+    /** Constants of UUID version 7 */
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_RFC4122 = 0x8000000000000000L;
+    private static final int TIMESTAMP_SHIFT = 16;
+    private static final int COUNTER_BITS = 12;
+    private static final int NODE_BITS = 62;
+    private static final int MAX_SEQ_BITS = 21;
+    private static final int MILLIS_PER_SECOND = 1000;
+
+    private final long workerId;
+    private final int workerBits;
+    /** Least significant half shared by all UUIDs of this instance */
+    private final long leastSigBits;
+    /** UUIDs padded for each second & counters used by each millisecond */
+    private final int idsPerSecond;
+    private final int idsPerMilli;
+
+    /** RingBuffer */
+    private final RingBuffer ringBuffer;
+    private final BufferPaddingExecutor bufferPaddingExecutor;
+
+    public CachedUuidGenerator(WorkerIdAssigner workerIdAssigner, CacheGeneratorProperties properties) {
+        this.workerBits = properties.getWorkerBits();
+        int seqBits = properties.getSeqBits();
+        Assert.isTrue(workerBits < NODE_BITS, "workerBits must be less than " + NODE_BITS);
+        Assert.isTrue(seqBits <= MAX_SEQ_BITS, "seqBits must not exceed " + MAX_SEQ_BITS);
+
+        // initialize worker id
+        this.workerId = workerIdAssigner.assignWorkerId();
+        long maxWorkerId = ~(-1L << workerBits);
+        if (workerId > maxWorkerId) {
+            throw new RuntimeException("Worker id " + workerId + " exceeds the max " + maxWorkerId);
+        }
+        int saltBits = NODE_BITS - workerBits;
+        long salt = RandomUtils.nextLong() & ~(-1L << saltBits);
+        this.leastSigBits = VARIANT_RFC4122 | (workerId << saltBits) | salt;
+
+        this.idsPerSecond = 1 << seqBits;
+        this.idsPerMilli = (idsPerSecond + MILLIS_PER_SECOND - 1) / MILLIS_PER_SECOND;
+        Assert.isTrue(idsPerMilli <= 1 << COUNTER_BITS, "Too many UUIDs for one millisecond");
+        log.info("Initialized UUID bits(48, 4, 12, 2, {}, {}) for workerID:{}", workerBits, saltBits, workerId);
+
+        // initialize RingBuffer
+        Long scheduleInterval = properties.getScheduleInterval();
+        Integer paddingFactor = properties.getPaddingFactor();
+        int bufferSize = idsPerSecond << properties.getBoostPower();
+        this.ringBuffer = new RingBuffer(bufferSize, paddingFactor);
+        log.info("Initialized ring buffer size:{}, paddingFactor:{}", bufferSize, paddingFactor);
+
+        // initialize RingBufferPaddingExecutor
+        boolean usingSchedule = (scheduleInterval != null);
+        this.bufferPaddingExecutor = new BufferPaddingExecutor(ringBuffer, this::nextIdsForOneSecond, usingSchedule);
+        if (usingSchedule) {
+            bufferPaddingExecutor.setScheduleInterval(scheduleInterval);
+        }
+        log.info("Initialized BufferPaddingExecutor. Using schdule:{}, interval:{}", usingSchedule, scheduleInterval);
+
+        this.ringBuffer.setBufferPaddingExecutor(bufferPaddingExecutor);
+        // fill in all slots of the RingBuffer
+        bufferPaddingExecutor.paddingBuffer();
+
+        // start buffer padding threads
+        bufferPaddingExecutor.start();
+        log.info("Initialized RingBuffer successfully.");
+    }
+
+    @Override
+    public UUID getUUID() {
+        return new UUID(takeMostSigBits(), leastSigBits);
+    }
+
+    @Override
+    public void getUUID(long[] dst, int offset) {
+        dst[offset] = takeMostSigBits();
+        dst[offset + 1] = leastSigBits;
+    }
+
+    @Override
+    public String parseUUID(UUID uuid) {
+        long mostSigBits = uuid.getMostSignificantBits();
+        int saltBits = NODE_BITS - workerBits;
+
+        long timestamp = mostSigBits >>> TIMESTAMP_SHIFT;
+        long counter = mostSigBits & ~(-1L << COUNTER_BITS);
+        long workerId = (uuid.getLeastSignificantBits() << 2) >>> (saltBits + 2);
+
+        String thatTimeStr = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()).toString();
+
+        // format as string
+        return String.format("{\"UUID\":\"%s\",\"timestamp\":\"%s\",\"workerId\":\"%d\",\"counter\":\"%d\"}",
+                uuid, thatTimeStr, workerId, counter);
+    }
+
+    @Override
+    public void close() {
+        bufferPaddingExecutor.close();
+    }
+
+    /**
+     * Get the most significant halves in the same specified second, spread over its milliseconds
+     *
+     * @param currentSecond
+     * @return list size of <code>2^seqBits</code>
+     */
+    protected List<Long> nextIdsForOneSecond(long currentSecond) {
+        List<Long> uidList = new ArrayList<>(idsPerSecond);
+
+        long firstMilli = currentSecond * MILLIS_PER_SECOND;
+        for (int offset = 0; offset < idsPerSecond; offset++) {
+            long milli = firstMilli + offset / idsPerMilli;
+            long counter = offset % idsPerMilli;
+            uidList.add((milli << TIMESTAMP_SHIFT) | VERSION_7 | counter);
+        }
+
+        return uidList;
+    }
+
+    private long takeMostSigBits() {
+        try {
+            return ringBuffer.take();
+        } catch (Exception e) {
+            log.error("Generate unique id exception. ", e);
+            throw new UidGenerateException(e);
+        }
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    public void setRejectedPutBufferHandler(RejectedPutBufferHandler rejectedPutBufferHandler) {
+        this.ringBuffer.setRejectedPutHandler(rejectedPutBufferHandler);
+    }
+
+    public void setRejectedTakeBufferHandler(RejectedTakeBufferHandler rejectedTakeBufferHandler) {
+        this.ringBuffer.setRejectedTakeHandler(rejectedTakeBufferHandler);
+    }
+
+}
@@ -19,13 +19,23 @@ import com.baidu.fsg.uid.core.BitsAllocator;
 import com.baidu.fsg.uid.core.GeneratorProperties;
 import com.baidu.fsg.uid.core.UidGenerator;
 import com.baidu.fsg.uid.core.exception.UidGenerateException;
+import com.baidu.fsg.uid.core.jfr.ClockBackwardsEvent;
+import com.baidu.fsg.uid.core.jfr.NextSecondWaitEvent;
+import com.baidu.fsg.uid.core.jmx.UidGeneratorManagement;
+import com.baidu.fsg.uid.core.latency.LatencyRecorder;
+import com.baidu.fsg.uid.core.worker.HighWaterMarkCheckpointer;
 import com.baidu.fsg.uid.core.worker.WorkerIdAssigner;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.management.ObjectName;
+
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -58,23 +68,44 @@ import java.util.concurrent.locks.ReentrantLock;
  * @author yutianbao
  */
 @Slf4j
-public class DefaultUidGenerator implements UidGenerator {
+public class DefaultUidGenerator implements UidGenerator, AutoCloseable {
 
     /**
      * Spring property
      */
     private final ReentrantLock lock = new ReentrantLock();
+    /** Generators built without a name, numbered within the JVM */
+    private static final AtomicInteger UNNAMED = new AtomicInteger();
     /**
      * Stable fields after spring bean initializing
      */
     protected final BitsAllocator bitsAllocator;
     protected final long workerId;
+    protected final String name;
+    /** Highest second issued by the worker before this start, -1 if unknown */
+    protected final long highWaterMark;
+    /**
+     * Second to resume strictly above, waited for instead of refused as the clock moved backwards. Volatile as it
+     * is read under the lock of each stripe of {@link StripedUidGenerator}
+     */
+    private volatile long resumeSecond = -1L;
+    private final HighWaterMarkCheckpointer checkpointer;
+    /** Count of refusals as the clock moved backwards */
+    private final LongAdder clockBackwards = new LongAdder();
+    /** Latencies of getUID(), null if not recorded */
+    protected final LatencyRecorder latencyRecorder;
+    /** Name of the registered MXBean, null if not registered */
+    private ObjectName objectName;
+    /** Set while the lease of the worker id may be lost, nothing is issued until it is renewed */
+    private volatile boolean fenced;
 
     public DefaultUidGenerator(WorkerIdAssigner workerIdAssigner, GeneratorProperties properties) {
         this.timeBits = properties.getTimeBits();
         this.workerBits = properties.getWorkerBits();
         this.seqBits = properties.getSeqBits();
         this.epochSeconds = properties.getEpochSeconds();
+        this.name = properties.getName() != null ? properties.getName()
+                : getClass().getSimpleName() + "-" + UNNAMED.incrementAndGet();
 
         // initialize bits allocator
         bitsAllocator = new BitsAllocator(timeBits, workerBits, seqBits);
@@ -86,6 +117,34 @@ public class DefaultUidGenerator implements UidGenerator {
         }
 
         log.info("Initialized bits(1, {}, {}, {}) for workerID:{}", timeBits, workerBits, seqBits, workerId);
+
+        // stop issuing as soon as the lease of the worker id may be lost, before another worker can reclaim it
+        workerIdAssigner.watchLease(workerId, this::onLease);
+
+        // resume strictly above the high-water mark, the sequence of that second is regarded as used up
+        highWaterMark = workerIdAssigner.getHighWaterMark(workerId);
+        if (highWaterMark >= 0) {
+            lastSecond = highWaterMark;
+            resumeSecond = highWaterMark;
+            sequence = bitsAllocator.getMaxSequence();
+            log.info("Resume workerID:{} above high-water mark:{}", workerId, highWaterMark);
+        }
+
+        // reserve the high-water mark ahead in a schedule if any, and checkpoint on close anyway
+        checkpointer = new HighWaterMarkCheckpointer(workerIdAssigner, workerId, highWaterMark,
+                this::getHighWaterSecond, properties.getCheckpointInterval());
+
+        Integer latencySampleRate = properties.getLatencySampleRate();
+        if (latencySampleRate != null) {
+            latencyRecorder = new LatencyRecorder(latencySampleRate, Duration.ofSeconds(properties.getLatencyInterval()));
+        } else {
+            latencyRecorder = null;
+        }
+
+        // a subclass registers once it is constructed
+        if (properties.isJmxEnabled() && getClass() == DefaultUidGenerator.class) {
+            registerMBean();
+        }
     }
 
     /**
@@ -108,6 +167,18 @@ public class DefaultUidGenerator implements UidGenerator {
 
     @Override
     public long getUID() throws UidGenerateException {
+        if (latencyRecorder != null && latencyRecorder.sample()) {
+            long startNanos = System.nanoTime();
+            try {
+                return generateUID();
+            } finally {
+                latencyRecorder.record(System.nanoTime() - startNanos);
+            }
+        }
+        return generateUID();
+    }
+
+    private long generateUID() {
         try {
             return nextId();
         } catch (Exception e) {
@@ -116,6 +187,50 @@ public class DefaultUidGenerator implements UidGenerator {
         }
     }
 
+    /**
+     * Hold the lock over the whole block, so the block is a run of sequences of this generator
+     */
+    @Override
+    public void getUIDs(long[] dst, int offset, int length) throws UidGenerateException {
+        lock.lock();
+        try {
+            for (int i = offset; i < offset + length; i++) {
+                dst[i] = nextId();
+            }
+        } catch (Exception e) {
+            log.error("Generate unique id exception. ", e);
+            throw new UidGenerateException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Save the high-water mark now if it has advanced, such as on shutdown before the storage is gone
+     */
+    public void checkpoint() {
+        checkpointer.checkpoint();
+    }
+
+    /**
+     * Stop checkpointing with a final checkpoint of the high-water mark, unregister the MXBean
+     */
+    @Override
+    public void close() {
+        checkpointer.close();
+        if (objectName != null) {
+            UidGeneratorManagement.unregister(objectName);
+            objectName = null;
+        }
+    }
+
+    /**
+     * Register the MXBean of this generator, see {@link com.baidu.fsg.uid.core.jmx.UidGeneratorMXBean}
+     */
+    protected void registerMBean() {
+        objectName = UidGeneratorManagement.register(this);
+    }
+
     @Override
     public String parseUID(long uid) {
         long totalBits = BitsAllocator.TOTAL_BITS;
@@ -146,14 +261,11 @@ public class DefaultUidGenerator implements UidGenerator {
     protected long nextId() {
         lock.lock();
         try {
-
-
-            long currentSecond = getCurrentSecond();
+            long currentSecond = currentSecondToIssue();
 
             // Clock moved backwards, refuse to generate uid
             if (currentSecond < lastSecond) {
-                long refusedSeconds = lastSecond - currentSecond;
-                throw new UidGenerateException("Clock moved backwards. Refusing for %d seconds", refusedSeconds);
+                throw refuseClockBackwards(lastSecond, currentSecond);
             }
 
             // At the same second, increase sequence
@@ -169,6 +281,8 @@ public class DefaultUidGenerator implements UidGenerator {
                 sequence = 0L;
             }
 
+            // Never issue above the reserved high-water mark
+            reserve(currentSecond);
             lastSecond = currentSecond;
 
             // Allocate bits for UID
@@ -179,22 +293,171 @@ public class DefaultUidGenerator implements UidGenerator {
         }
     }
 
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BitsAllocator getBitsAllocator() {
+        return bitsAllocator;
+    }
+
+    public long getEpochSeconds() {
+        return epochSeconds;
+    }
+
+    public long getClockBackwardsCount() {
+        return clockBackwards.sum();
+    }
+
+    /**
+     * Latencies of getUID()
+     *
+     * @return null if not recorded
+     */
+    public LatencyRecorder getLatencyRecorder() {
+        return latencyRecorder;
+    }
+
+    /**
+     * Highest second of the issued UIDs, sampled by the checkpointer and health checks
+     *
+     * @return -1 if nothing issued
+     */
+    public long getHighWaterSecond() {
+        lock.lock();
+        try {
+            return lastSecond;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether the lease of the worker id may be lost, nothing is issued while fenced
+     */
+    public boolean isFenced() {
+        return fenced;
+    }
+
+    /**
+     * Fence the generator once the lease of the worker id may be lost, unfence it when the lease is renewed. If
+     * the worker id has been reclaimed by another worker it is never renewed, the generator must be rebuilt with
+     * a fresh worker id
+     *
+     * @param workerId
+     * @param held
+     */
+    protected void onLease(long workerId, boolean held) {
+        if (fenced != held) {
+            return;
+        }
+        fenced = !held;
+        if (held) {
+            log.warn("Lease of workerID:{} is renewed, issuing UIDs again", workerId);
+        } else {
+            log.error("Lease of workerID:{} may be lost, no UID is issued until it is renewed", workerId);
+        }
+    }
+
+    protected UidGenerateException fencedException() {
+        return new UidGenerateException("Lease of workerID:%d may be lost, refusing UID generate", workerId);
+    }
+
+    /**
+     * Current second to issue UIDs of, called under the lock of the caller before its own checks of the clock.
+     * Nothing is issued while fenced, and the clock behind the high-water mark of the last run is waited for
+     *
+     * @return current second
+     * @throws UidGenerateException if fenced
+     */
+    protected long currentSecondToIssue() {
+        if (fenced) {
+            throw fencedException();
+        }
+
+        // read before the clock: once reset by another stripe, the clock has passed it
+        long resume = resumeSecond;
+        long currentSecond = getCurrentSecond();
+
+        // The clock is behind the high-water mark of the last run, wait for it
+        if (resume >= 0) {
+            if (currentSecond <= resume) {
+                currentSecond = awaitResume(resume);
+            }
+            resumeSecond = -1L;
+        }
+        return currentSecond;
+    }
+
+    /**
+     * Make sure the second is reserved by the checkpointer before any UID of it is issued
+     *
+     * @param second
+     * @throws UidGenerateException if it can't be reserved
+     */
+    protected void reserve(long second) {
+        checkpointer.reserve(second);
+    }
+
+    /**
+     * Wait for the clock to pass the high-water mark to resume above. It is not a clock moved backwards, the
+     * mark may be reserved ahead by the last run
+     *
+     * @param resumeSecond
+     * @return current second above the mark
+     */
+    private long awaitResume(long resumeSecond) {
+        log.info("Wait for the clock to pass high-water mark:{} of workerID:{}", resumeSecond, workerId);
+        long currentSecond = getCurrentSecond();
+        while (currentSecond <= resumeSecond) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(1000 - System.currentTimeMillis() % 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UidGenerateException("Interrupted while waiting for high-water mark " + resumeSecond, e);
+            }
+            currentSecond = getCurrentSecond();
+        }
+        return currentSecond;
+    }
+
+    /**
+     * Count the refusal as the clock moved backwards
+     *
+     * @param lastSecond
+     * @param currentSecond
+     * @return exception to throw
+     */
+    protected UidGenerateException refuseClockBackwards(long lastSecond, long currentSecond) {
+        clockBackwards.increment();
+        ClockBackwardsEvent.emit(lastSecond, currentSecond);
+        long refusedSeconds = lastSecond - currentSecond;
+        return new UidGenerateException("Clock moved backwards. Refusing for %d seconds", refusedSeconds);
+    }
+
     /**
      * Get next millisecond
      */
-    private long getNextSecond(long lastTimestamp) {
+    protected long getNextSecond(long lastTimestamp) {
+        NextSecondWaitEvent event = new NextSecondWaitEvent();
+        event.begin();
         long timestamp = getCurrentSecond();
         while (timestamp <= lastTimestamp) {
             timestamp = getCurrentSecond();
         }
 
+        event.finish(lastTimestamp, timestamp);
         return timestamp;
     }
 
     /**
      * Get current second
      */
-    private long getCurrentSecond() {
+    protected long getCurrentSecond() {
         long currentSecond = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
         if (currentSecond - epochSeconds > bitsAllocator.getMaxDeltaSeconds()) {
             throw new UidGenerateException("Timestamp bits is exhausted. Refusing UID generate. Now: " + currentSecond);
@@ -0,0 +1,144 @@
+package com.baidu.fsg.uid.core.impl;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.baidu.fsg.uid.core.GeneratorProperties;
+import com.baidu.fsg.uid.core.exception.UidGenerateException;
+import com.baidu.fsg.uid.core.worker.WorkerIdAssigner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.Assert;
+
+/**
+ * Represents a {@link DefaultUidGenerator} whose sequences of a second are split into stripes, each of them
+ * with its own lock and last second. A thread takes the stripe of its id, so threads only contend with the
+ * others of the same stripe<p>
+ *
+ * UIDs are unique as the stripes never share a sequence, but they are ordered within a stripe only. A stripe
+ * waits for the next second once its own sequences are used up, so the throughput of a thread is limited to
+ * the sequences of its stripe per second. Fencing, resuming and reserving the high-water mark apply to every
+ * stripe as to {@link DefaultUidGenerator}.
+ */
+@Slf4j
+public class StripedUidGenerator extends DefaultUidGenerator {
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    /**
+     * @param workerIdAssigner
+     * @param properties
+     * @param stripeCount power of 2, not more than the sequences of a second
+     */
+    public StripedUidGenerator(WorkerIdAssigner workerIdAssigner, GeneratorProperties properties, int stripeCount) {
+        super(workerIdAssigner, properties);
+        long sequences = bitsAllocator.getMaxSequence() + 1;
+        Assert.isTrue(stripeCount > 0 && Integer.bitCount(stripeCount) == 1, "stripes must be a power of 2");
+        Assert.isTrue(stripeCount <= sequences, "stripes must not exceed the sequences of a second");
+
+        long width = sequences / stripeCount;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(i * width, width, highWaterMark);
+        }
+        this.stripeMask = stripeCount - 1;
+        log.info("Initialized {} stripes of {} sequences", stripeCount, width);
+
+        if (properties.isJmxEnabled()) {
+            registerMBean();
+        }
+    }
+
+    /**
+     * Take the stripes one by one, no lock over the block
+     */
+    @Override
+    public void getUIDs(long[] dst, int offset, int length) throws UidGenerateException {
+        try {
+            for (int i = offset; i < offset + length; i++) {
+                dst[i] = nextId();
+            }
+        } catch (Exception e) {
+            log.error("Generate unique id exception. ", e);
+            throw new UidGenerateException(e);
+        }
+    }
+
+    @Override
+    protected long nextId() {
+        Stripe stripe = stripes[(int) Thread.currentThread().getId() & stripeMask];
+        stripe.lock.lock();
+        try {
+            long currentSecond = currentSecondToIssue();
+
+            // Clock moved backwards, refuse to generate uid
+            if (currentSecond < stripe.lastSecond) {
+                throw refuseClockBackwards(stripe.lastSecond, currentSecond);
+            }
+
+            // At the same second, increase sequence within the stripe
+            if (currentSecond == stripe.lastSecond) {
+                stripe.offset++;
+                // Exceed the sequences of the stripe, we wait the next second to generate uid
+                if (stripe.offset == stripe.width) {
+                    currentSecond = getNextSecond(stripe.lastSecond);
+                    stripe.offset = 0L;
+                }
+
+                // At the different second, sequence restart from the first of the stripe
+            } else {
+                stripe.offset = 0L;
+            }
+
+            // Never issue above the reserved high-water mark
+            reserve(currentSecond);
+            stripe.lastSecond = currentSecond;
+
+            // Allocate bits for UID
+            return bitsAllocator.allocate(currentSecond - epochSeconds, workerId, stripe.first + stripe.offset);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public long getHighWaterSecond() {
+        // sampled before the constructor completes
+        if (stripes == null) {
+            return -1L;
+        }
+
+        long highWaterSecond = -1L;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                highWaterSecond = Math.max(highWaterSecond, stripe.lastSecond);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return highWaterSecond;
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long first;
+        private final long width;
+        private long lastSecond;
+        private long offset;
+
+        /**
+         * Resume strictly above the high-water mark, the sequences of that second are regarded as used up
+         */
+        private Stripe(long first, long width, long highWaterMark) {
+            this.first = first;
+            this.width = width;
+            this.lastSecond = highWaterMark;
+            this.offset = highWaterMark >= 0 ? width - 1 : 0L;
+        }
+    }
+
+}
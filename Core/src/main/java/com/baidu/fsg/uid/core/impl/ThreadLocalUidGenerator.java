@@ -0,0 +1,77 @@
+package com.baidu.fsg.uid.core.impl;
+
+import com.baidu.fsg.uid.core.UidGenerator;
+import com.baidu.fsg.uid.core.exception.UidGenerateException;
+import org.springframework.util.Assert;
+
+/**
+ * Represents a decorator of {@link UidGenerator}, each thread takes a chunk of UIDs from the delegate by
+ * {@link UidGenerator#getUIDs(long[], int, int)} and serves {@link #getUID()} from it without any contention<p>
+ *
+ * UIDs are ordered within a thread only. The UIDs left in the chunk of a thread are wasted when the thread
+ * dies, so prefer a small chunk for short-lived threads.
+ */
+public class ThreadLocalUidGenerator implements UidGenerator, AutoCloseable {
+
+    private final UidGenerator delegate;
+    private final int chunkSize;
+    private final ThreadLocal<Chunk> chunks;
+
+    public ThreadLocalUidGenerator(UidGenerator delegate, int chunkSize) {
+        Assert.notNull(delegate, "delegate can not be null");
+        Assert.isTrue(chunkSize > 0, "chunkSize must be positive");
+        this.delegate = delegate;
+        this.chunkSize = chunkSize;
+        this.chunks = ThreadLocal.withInitial(() -> new Chunk(chunkSize));
+    }
+
+    @Override
+    public long getUID() throws UidGenerateException {
+        Chunk chunk = chunks.get();
+        if (chunk.next == chunk.size) {
+            delegate.getUIDs(chunk.uids, 0, chunkSize);
+            chunk.size = chunkSize;
+            chunk.next = 0;
+        }
+        return chunk.uids[chunk.next++];
+    }
+
+    /**
+     * Taken from the delegate directly, a block is a run of the delegate
+     */
+    @Override
+    public void getUIDs(long[] dst, int offset, int length) throws UidGenerateException {
+        delegate.getUIDs(dst, offset, length);
+    }
+
+    @Override
+    public String parseUID(long uid) {
+        return delegate.parseUID(uid);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (delegate instanceof AutoCloseable) {
+            ((AutoCloseable) delegate).close();
+        }
+    }
+
+    public UidGenerator getDelegate() {
+        return delegate;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    private static class Chunk {
+        private final long[] uids;
+        private int next;
+        private int size;
+
+        private Chunk(int chunkSize) {
+            this.uids = new long[chunkSize];
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.baidu.fsg.uid.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A UID refused as the clock moved backwards behind the last second
+ */
+@Name("com.baidu.fsg.uid.ClockBackwards")
+@Label("Clock Moved Backwards")
+@Category("UID Generator")
+@Description("A UID refused as the clock moved backwards behind the last second")
+public class ClockBackwardsEvent extends Event {
+
+    @Label("Last Second")
+    private long lastSecond;
+
+    @Label("Current Second")
+    private long currentSecond;
+
+    public static void emit(long lastSecond, long currentSecond) {
+        ClockBackwardsEvent event = new ClockBackwardsEvent();
+        if (event.shouldCommit()) {
+            event.lastSecond = lastSecond;
+            event.currentSecond = currentSecond;
+            event.commit();
+        }
+    }
+
+}
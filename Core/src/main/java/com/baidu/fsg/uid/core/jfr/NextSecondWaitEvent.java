@@ -0,0 +1,39 @@
+package com.baidu.fsg.uid.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A spin wait for the next second as the sequence of the last second is exhausted
+ */
+@Name("com.baidu.fsg.uid.NextSecondWait")
+@Label("Next Second Wait")
+@Category("UID Generator")
+@Description("Spin wait for the next second as the sequence of the last second is exhausted")
+public class NextSecondWaitEvent extends Event {
+
+    @Label("Last Second")
+    private long lastSecond;
+
+    @Label("Next Second")
+    private long nextSecond;
+
+    /**
+     * End the event and commit it if enabled
+     *
+     * @param lastSecond
+     * @param nextSecond
+     */
+    public void finish(long lastSecond, long nextSecond) {
+        end();
+        if (shouldCommit()) {
+            this.lastSecond = lastSecond;
+            this.nextSecond = nextSecond;
+            commit();
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.baidu.fsg.uid.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A padding run of {@link com.baidu.fsg.uid.core.buffer.BufferPaddingExecutor}, from start until the ring buffer
+ * is full
+ */
+@Name("com.baidu.fsg.uid.Padding")
+@Label("RingBuffer Padding")
+@Category({"UID Generator", "Ring Buffer"})
+@Description("A padding run filling the ring buffer until it is full")
+public class PaddingEvent extends Event {
+
+    @Label("UIDs Added")
+    private long uidsAdded;
+
+    @Label("Seconds Consumed")
+    @Description("Seconds borrowed by the padding")
+    private long secondsConsumed;
+
+    @Label("Last Second")
+    @Description("Last second borrowed after the padding")
+    private long lastSecond;
+
+    /**
+     * End the event and commit it if enabled
+     *
+     * @param uidsAdded
+     * @param secondsConsumed
+     * @param lastSecond
+     */
+    public void finish(long uidsAdded, long secondsConsumed, long lastSecond) {
+        end();
+        if (shouldCommit()) {
+            this.uidsAdded = uidsAdded;
+            this.secondsConsumed = secondsConsumed;
+            this.lastSecond = lastSecond;
+            commit();
+        }
+    }
+
+}
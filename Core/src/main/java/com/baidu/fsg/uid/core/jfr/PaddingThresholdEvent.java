@@ -0,0 +1,39 @@
+package com.baidu.fsg.uid.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * UIDs remaining in the ring buffer fell below the padding threshold on a take, a padding is triggered
+ */
+@Name("com.baidu.fsg.uid.PaddingThreshold")
+@Label("RingBuffer Padding Threshold")
+@Category({"UID Generator", "Ring Buffer"})
+@Description("UIDs remaining fell below the padding threshold on a take")
+@StackTrace(false)
+public class PaddingThresholdEvent extends Event {
+
+    @Label("Padding Threshold")
+    private long threshold;
+
+    @Label("Tail")
+    private long tail;
+
+    @Label("Cursor")
+    private long cursor;
+
+    public static void emit(long threshold, long tail, long cursor) {
+        PaddingThresholdEvent event = new PaddingThresholdEvent();
+        if (event.shouldCommit()) {
+            event.threshold = threshold;
+            event.tail = tail;
+            event.cursor = cursor;
+            event.commit();
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.baidu.fsg.uid.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A put rejected as the ring buffer is full, each padding ends with one
+ */
+@Name("com.baidu.fsg.uid.RejectedPut")
+@Label("RingBuffer Rejected Put")
+@Category({"UID Generator", "Ring Buffer"})
+@Description("A put rejected as the ring buffer is full")
+@StackTrace(false)
+public class RejectedPutEvent extends Event {
+
+    @Label("UID")
+    private long uid;
+
+    @Label("Tail")
+    private long tail;
+
+    @Label("Cursor")
+    private long cursor;
+
+    public static void emit(long uid, long tail, long cursor) {
+        RejectedPutEvent event = new RejectedPutEvent();
+        if (event.shouldCommit()) {
+            event.uid = uid;
+            event.tail = tail;
+            event.cursor = cursor;
+            event.commit();
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.baidu.fsg.uid.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A take rejected as the ring buffer is empty, the caller is starved
+ */
+@Name("com.baidu.fsg.uid.RejectedTake")
+@Label("RingBuffer Rejected Take")
+@Category({"UID Generator", "Ring Buffer"})
+@Description("A take rejected as the ring buffer is empty")
+public class RejectedTakeEvent extends Event {
+
+    @Label("Tail")
+    private long tail;
+
+    @Label("Cursor")
+    private long cursor;
+
+    public static void emit(long tail, long cursor) {
+        RejectedTakeEvent event = new RejectedTakeEvent();
+        if (event.shouldCommit()) {
+            event.tail = tail;
+            event.cursor = cursor;
+            event.commit();
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.baidu.fsg.uid.core.jmx;
+
+/**
+ * Management interface of a UID generator, registered as <code>com.baidu.fsg.uid:type=...,worker=...,name=...</code><p>
+ *
+ * The attributes & operations of the ring buffer are of a cached generator only, the attributes are -1 and the
+ * operations are unsupported otherwise.
+ */
+public interface UidGeneratorMXBean {
+
+    /**
+     * Name of the generator, such as its bean name
+     */
+    String getName();
+
+    long getWorkerId();
+
+    int getTimeBits();
+
+    int getWorkerBits();
+
+    int getSequenceBits();
+
+    long getEpochSeconds();
+
+    /**
+     * Seconds left before the timestamp bits run out, counted from the highest second issued
+     */
+    long getRemainingSeconds();
+
+    long getHighWaterSecond();
+
+    long getClockBackwardsCount();
+
+    int getBufferSize();
+
+    long getTail();
+
+    long getCursor();
+
+    /**
+     * UIDs available in the ring buffer, tail - cursor
+     */
+    long getRemaining();
+
+    long getTakenCount();
+
+    long getRejectedTakeCount();
+
+    long getRejectedPutCount();
+
+    long getPaddingCount();
+
+    long getPaddingNanos();
+
+    boolean isPaddingRunning();
+
+    int getPaddingThreshold();
+
+    int getPaddingFactor();
+
+    /**
+     * Percentage in (0, 100) of the buffer size, the padding is triggered once the UIDs available are fewer
+     */
+    void setPaddingFactor(int paddingFactor);
+
+    long getScheduleInterval();
+
+    /**
+     * Interval of the scheduled padding in seconds, rescheduled at once
+     */
+    void setScheduleInterval(long scheduleInterval);
+
+    /**
+     * Pad the ring buffer in the background now
+     */
+    void padNow();
+
+}
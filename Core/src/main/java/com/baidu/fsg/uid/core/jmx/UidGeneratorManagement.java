@@ -0,0 +1,227 @@
+package com.baidu.fsg.uid.core.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.baidu.fsg.uid.core.buffer.BufferPaddingExecutor;
+import com.baidu.fsg.uid.core.buffer.RingBuffer;
+import com.baidu.fsg.uid.core.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.core.impl.DefaultUidGenerator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Represents the {@link UidGeneratorMXBean} of a {@link DefaultUidGenerator} or {@link CachedUidGenerator},
+ * registered to the platform MBean server
+ */
+@Slf4j
+public class UidGeneratorManagement implements UidGeneratorMXBean {
+    public static final String DOMAIN = "com.baidu.fsg.uid";
+
+    private final DefaultUidGenerator generator;
+
+    public UidGeneratorManagement(DefaultUidGenerator generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * Register the MXBean of the generator
+     *
+     * @param generator
+     * @return the registered name, null if failed as of another generator of the same name & worker
+     */
+    public static ObjectName register(DefaultUidGenerator generator) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=" + generator.getClass().getSimpleName()
+                    + ",worker=" + generator.getWorkerId() + ",name=" + quoteIfNeeded(generator.getName()));
+            server.registerMBean(new UidGeneratorManagement(generator), name);
+            log.info("Registered MXBean {}", name);
+            return name;
+        } catch (InstanceAlreadyExistsException e) {
+            log.warn("MXBean of another UidGenerator is registered already, skip. {}", e.getMessage());
+            return null;
+        } catch (JMException e) {
+            throw new IllegalStateException("Register MXBean of UidGenerator exception", e);
+        }
+    }
+
+    /**
+     * Names of beans are kept as is, unless they have characters reserved by {@link ObjectName}
+     */
+    private static String quoteIfNeeded(String value) {
+        for (char c : value.toCharArray()) {
+            if (",=:\"*?\n".indexOf(c) >= 0) {
+                return ObjectName.quote(value);
+            }
+        }
+        return value;
+    }
+
+    public static void unregister(ObjectName name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            log.warn("Unregister MXBean {} exception", name, e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return generator.getName();
+    }
+
+    @Override
+    public long getWorkerId() {
+        return generator.getWorkerId();
+    }
+
+    @Override
+    public int getTimeBits() {
+        return generator.getBitsAllocator().getTimestampBits();
+    }
+
+    @Override
+    public int getWorkerBits() {
+        return generator.getBitsAllocator().getWorkerIdBits();
+    }
+
+    @Override
+    public int getSequenceBits() {
+        return generator.getBitsAllocator().getSequenceBits();
+    }
+
+    @Override
+    public long getEpochSeconds() {
+        return generator.getEpochSeconds();
+    }
+
+    @Override
+    public long getRemainingSeconds() {
+        long second = Math.max(generator.getHighWaterSecond(), TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+        return generator.getBitsAllocator().getMaxDeltaSeconds() - (second - generator.getEpochSeconds());
+    }
+
+    @Override
+    public long getHighWaterSecond() {
+        return generator.getHighWaterSecond();
+    }
+
+    @Override
+    public long getClockBackwardsCount() {
+        return generator.getClockBackwardsCount();
+    }
+
+    @Override
+    public int getBufferSize() {
+        RingBuffer ringBuffer = getRingBuffer();
+        return ringBuffer == null ? -1 : ringBuffer.getBufferSize();
+    }
+
+    @Override
+    public long getTail() {
+        RingBuffer ringBuffer = getRingBuffer();
+        return ringBuffer == null ? -1L : ringBuffer.getTail();
+    }
+
+    @Override
+    public long getCursor() {
+        RingBuffer ringBuffer = getRingBuffer();
+        return ringBuffer == null ? -1L : ringBuffer.getCursor();
+    }
+
+    @Override
+    public long getRemaining() {
+        RingBuffer ringBuffer = getRingBuffer();
+        return ringBuffer == null ? -1L : ringBuffer.getTail() - ringBuffer.getCursor();
+    }
+
+    @Override
+    public long getTakenCount() {
+        RingBuffer ringBuffer = getRingBuffer();
+        return ringBuffer == null ? -1L : ringBuffer.getTakenCount();
+    }
+
+    @Override
+    public long getRejectedTakeCount() {
+        RingBuffer ringBuffer = getRingBuffer();
+        return ringBuffer == null ? -1L : ringBuffer.getMetrics().getRejectedTakeCount();
+    }
+
+    @Override
+    public long getRejectedPutCount() {
+        RingBuffer ringBuffer = getRingBuffer();
+        return ringBuffer == null ? -1L : ringBuffer.getMetrics().getRejectedPutCount();
+    }
+
+    @Override
+    public long getPaddingCount() {
+        RingBuffer ringBuffer = getRingBuffer();
+        return ringBuffer == null ? -1L : ringBuffer.getMetrics().getPaddingCount();
+    }
+
+    @Override
+    public long getPaddingNanos() {
+        RingBuffer ringBuffer = getRingBuffer();
+        return ringBuffer == null ? -1L : ringBuffer.getMetrics().getPaddingNanos();
+    }
+
+    @Override
+    public boolean isPaddingRunning() {
+        RingBuffer ringBuffer = getRingBuffer();
+        return ringBuffer != null && ringBuffer.getBufferPaddingExecutor().isRunning();
+    }
+
+    @Override
+    public int getPaddingThreshold() {
+        RingBuffer ringBuffer = getRingBuffer();
+        return ringBuffer == null ? -1 : ringBuffer.getPaddingThreshold();
+    }
+
+    @Override
+    public int getPaddingFactor() {
+        RingBuffer ringBuffer = getRingBuffer();
+        return ringBuffer == null ? -1 : ringBuffer.getPaddingFactor();
+    }
+
+    @Override
+    public void setPaddingFactor(int paddingFactor) {
+        requireRingBuffer().setPaddingFactor(paddingFactor);
+        log.info("Changed padding factor to {} by JMX. {}", paddingFactor, getRingBuffer());
+    }
+
+    @Override
+    public long getScheduleInterval() {
+        RingBuffer ringBuffer = getRingBuffer();
+        return ringBuffer == null ? -1L : ringBuffer.getBufferPaddingExecutor().getScheduleInterval();
+    }
+
+    @Override
+    public void setScheduleInterval(long scheduleInterval) {
+        BufferPaddingExecutor bufferPaddingExecutor = requireRingBuffer().getBufferPaddingExecutor();
+        bufferPaddingExecutor.setScheduleInterval(scheduleInterval);
+        log.info("Changed padding schedule interval to {}s by JMX", scheduleInterval);
+    }
+
+    @Override
+    public void padNow() {
+        requireRingBuffer().getBufferPaddingExecutor().asyncPadding();
+    }
+
+    private RingBuffer getRingBuffer() {
+        return generator instanceof CachedUidGenerator cached ? cached.getRingBuffer() : null;
+    }
+
+    private RingBuffer requireRingBuffer() {
+        RingBuffer ringBuffer = getRingBuffer();
+        if (ringBuffer == null) {
+            throw new UnsupportedOperationException("Not a CachedUidGenerator");
+        }
+        return ringBuffer;
+    }
+
+}
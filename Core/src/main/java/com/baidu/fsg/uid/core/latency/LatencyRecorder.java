@@ -0,0 +1,167 @@
+package com.baidu.fsg.uid.core.latency;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.util.Assert;
+
+/**
+ * Represents a recorder of latencies into log-linear histograms, in the way of HdrHistogram's recorder<p>
+ *
+ * Each thread records into its own histogram, so recording never contends between threads. Buckets are split
+ * into 32 sub-buckets per power of 2, which keeps values within about 3%. Latencies above
+ * {@link #MAX_TRACKABLE_NANOS} are counted in the last bucket, the max is exact anyway.<p>
+ *
+ * Only 1 of every <code>sampleRate</code> calls is recorded, see {@link #sample()}. The histograms are drained
+ * into a {@link LatencySnapshot} once an interval passes, {@link #getSnapshot()} returns the snapshot of the last
+ * interval in between.
+ */
+public class LatencyRecorder {
+
+    /** 32 sub-buckets per power of 2 */
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /** About 68 seconds */
+    public static final long MAX_TRACKABLE_NANOS = (1L << 36) - 1;
+    static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_NANOS) + 1;
+
+    private final int sampleRate;
+    private final long intervalNanos;
+
+    private final ThreadLocal<ThreadHistogram> histograms = ThreadLocal.withInitial(this::register);
+    private final List<ThreadHistogram> registered = new CopyOnWriteArrayList<>();
+
+    private LatencySnapshot snapshot;
+    private long intervalStartNanos;
+
+    /**
+     * @param sampleRate record 1 of every N calls, 1 means all
+     * @param interval   interval of snapshots
+     */
+    public LatencyRecorder(int sampleRate, Duration interval) {
+        Assert.isTrue(sampleRate > 0, "sampleRate must be positive");
+        Assert.isTrue(!interval.isNegative() && !interval.isZero(), "interval must be positive");
+        this.sampleRate = sampleRate;
+        this.intervalNanos = interval.toNanos();
+        this.intervalStartNanos = System.nanoTime();
+        this.snapshot = new LatencySnapshot(new long[BUCKET_COUNT], 0L, 0L, 0L, sampleRate);
+    }
+
+    /**
+     * Whether to record the latency of this call
+     */
+    public boolean sample() {
+        return sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    /**
+     * Record a latency into the histogram of the current thread
+     *
+     * @param nanos
+     */
+    public void record(long nanos) {
+        histograms.get().record(nanos);
+    }
+
+    /**
+     * Snapshot of the last complete interval, the histograms are drained if an interval has passed since
+     */
+    public synchronized LatencySnapshot getSnapshot() {
+        long now = System.nanoTime();
+        if (now - intervalStartNanos >= intervalNanos) {
+            snapshot = drain();
+            intervalStartNanos = now;
+        }
+        return snapshot;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Move the counts of all threads into a snapshot, histograms of dead threads are dropped once drained
+     */
+    private LatencySnapshot drain() {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0L;
+        long sum = 0L;
+        long max = 0L;
+        for (ThreadHistogram histogram : registered) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                if (histogram.counts.get(i) != 0L) {
+                    long count = histogram.counts.getAndSet(i, 0L);
+                    counts[i] += count;
+                    total += count;
+                }
+            }
+            sum += histogram.sum.getAndSet(0L);
+            max = Math.max(max, histogram.max.getAndSet(0L));
+
+            Thread owner = histogram.owner.get();
+            if (owner == null || !owner.isAlive()) {
+                registered.remove(histogram);
+            }
+        }
+        return new LatencySnapshot(counts, total, sum, max, sampleRate);
+    }
+
+    private ThreadHistogram register() {
+        ThreadHistogram histogram = new ThreadHistogram(Thread.currentThread());
+        registered.add(histogram);
+        return histogram;
+    }
+
+    /**
+     * Index of the bucket holding the value
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return value < 0 ? 0 : (int) value;
+        }
+        long clamped = Math.min(value, MAX_TRACKABLE_NANOS);
+        int shift = 63 - Long.numberOfLeadingZeros(clamped) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((clamped >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    /**
+     * Highest value of the bucket
+     */
+    static long bucketHighestValue(int index) {
+        int block = index >>> SUB_BUCKET_BITS;
+        int sub = index & (SUB_BUCKET_COUNT - 1);
+        if (block == 0) {
+            return sub;
+        }
+        int shift = block - 1;
+        return ((long) (sub + SUB_BUCKET_COUNT + 1) << shift) - 1;
+    }
+
+    /**
+     * Histogram written by its owner thread only, drained by the snapshot
+     */
+    private static class ThreadHistogram {
+        private final WeakReference<Thread> owner;
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        private ThreadHistogram(Thread owner) {
+            this.owner = new WeakReference<>(owner);
+        }
+
+        private void record(long nanos) {
+            counts.getAndIncrement(bucketIndex(nanos));
+            sum.getAndAdd(nanos);
+            if (nanos > max.get()) {
+                max.accumulateAndGet(nanos, Math::max);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.baidu.fsg.uid.core.latency;
+
+/**
+ * Represents an immutable histogram of the latencies recorded in an interval by {@link LatencyRecorder}. The
+ * counts are of the sampled calls only, multiply by the sample rate for the count of all calls
+ */
+public class LatencySnapshot {
+
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+    private final int sampleRate;
+
+    LatencySnapshot(long[] counts, long count, long sum, long max, int sampleRate) {
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Latency at the percentile, the highest value of its bucket
+     *
+     * @param percentile in [0, 100]
+     * @return nanos, 0 if nothing recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0L) {
+            return 0L;
+        }
+
+        long rank = Math.max(1L, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+        long seen = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyRecorder.bucketHighestValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Count of the recorded calls
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Max latency in nanos
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Mean latency in nanos
+     */
+    public double getMean() {
+        return count == 0L ? 0.0 : (double) sum / count;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LatencySnapshot [count=%d, p50=%d, p99=%d, p99.9=%d, max=%d, sampleRate=%d]", count,
+                getValueAtPercentile(50), getValueAtPercentile(99), getValueAtPercentile(99.9), max, sampleRate);
+    }
+
+}
@@ -39,9 +39,11 @@ public abstract class DockerUtils {
     /** Whether is docker */
     private static boolean IS_DOCKER;
 
-    static {
-        retrieveFromEnv();
-    }
+    /**
+     * Whether retrieved from environment. It's done on first use instead of on class initialization, so the
+     * environment is the one of the running process even if the class is initialized at build time
+     */
+    private static volatile boolean RETRIEVED;
 
     /**
      * Retrieve docker host
@@ -49,6 +51,7 @@ public abstract class DockerUtils {
      * @return empty string if not a docker
      */
     public static String getDockerHost() {
+        ensureRetrieved();
         return DOCKER_HOST;
     }
 
@@ -58,6 +61,7 @@ public abstract class DockerUtils {
      * @return empty string if not a docker
      */
     public static String getDockerPort() {
+        ensureRetrieved();
         return DOCKER_PORT;
     }
 
@@ -67,9 +71,21 @@ public abstract class DockerUtils {
      * @return
      */
     public static boolean isDocker() {
+        ensureRetrieved();
         return IS_DOCKER;
     }
 
+    private static void ensureRetrieved() {
+        if (!RETRIEVED) {
+            synchronized (DockerUtils.class) {
+                if (!RETRIEVED) {
+                    retrieveFromEnv();
+                    RETRIEVED = true;
+                }
+            }
+        }
+    }
+
     /**
      * Retrieve host & port from environment
      */
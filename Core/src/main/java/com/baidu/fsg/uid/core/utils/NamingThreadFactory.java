@@ -46,6 +46,10 @@ public class NamingThreadFactory implements ThreadFactory {
      * UncaughtExceptionHandler
      */
     private UncaughtExceptionHandler uncaughtExceptionHandler;
+    /**
+     * Short class name of the creator, the prefix if there is no specified name
+     */
+    private final String invoker;
     /**
      * Sequences for multi thread name prefix
      */
@@ -70,6 +74,7 @@ public class NamingThreadFactory implements ThreadFactory {
         this.name = name;
         this.daemon = daemon;
         this.uncaughtExceptionHandler = handler;
+        this.invoker = StringUtils.isBlank(name) ? getInvoker() : getClass().getSimpleName();
         this.sequences = new ConcurrentHashMap<String, AtomicLong>();
     }
 
@@ -78,11 +83,11 @@ public class NamingThreadFactory implements ThreadFactory {
         Thread thread = new Thread(r);
         thread.setDaemon(this.daemon);
 
-        // If there is no specified name for thread, it will auto detect using the invoker classname instead.
-        // Notice that auto detect may cause some performance overhead
+        // If there is no specified name for thread, use the classname of the factory creator instead,
+        // which is detected once in the constructor
         String prefix = this.name;
         if (StringUtils.isBlank(prefix)) {
-            prefix = getInvoker(2);
+            prefix = this.invoker;
         }
         thread.setName(prefix + "-" + getSequence(prefix));
 
@@ -101,18 +106,19 @@ public class NamingThreadFactory implements ThreadFactory {
     }
 
     /**
-     * Get the method invoker's class name
+     * Get the class name of the first frame out of this factory, walking only the top frames of the stack
+     * rather than filling a whole stack trace
      * 
-     * @param depth
      * @return
      */
-    private String getInvoker(int depth) {
-        Exception e = new Exception();
-        StackTraceElement[] stes = e.getStackTrace();
-        if (stes.length > depth) {
-            return ClassUtils.getShortClassName(stes[depth].getClassName());
-        }
-        return getClass().getSimpleName();
+    private String getInvoker() {
+        String factoryName = NamingThreadFactory.class.getName();
+        return StackWalker.getInstance().walk(frames -> frames
+                .map(StackWalker.StackFrame::getClassName)
+                .filter(className -> !className.equals(factoryName))
+                .findFirst())
+                .map(ClassUtils::getShortClassName)
+                .orElse(getClass().getSimpleName());
     }
 
     /**
@@ -28,17 +28,10 @@ import java.util.Enumeration;
 public abstract class NetUtils {
 
     /**
-     * Pre-loaded local address
+     * Local address, retrieved on first use instead of on class initialization, so it is never baked into an
+     * image initialized at build time, and no interface is enumerated unless needed
      */
-    public static InetAddress localAddress;
-
-    static {
-        try {
-            localAddress = getLocalInetAddress();
-        } catch (SocketException e) {
-            throw new RuntimeException("fail to get local ip.");
-        }
-    }
+    private static volatile InetAddress cachedLocalAddress;
 
     /**
      * Retrieve the first validated local ip address(the Public and LAN ip addresses are validated).
@@ -72,13 +65,47 @@ public abstract class NetUtils {
         throw new RuntimeException("No validated local address!");
     }
 
+    /**
+     * Retrieve the local address once, the same one for later calls
+     *
+     * @return the local address
+     */
+    public static InetAddress getCachedLocalInetAddress() {
+        InetAddress address = cachedLocalAddress;
+        if (address == null) {
+            synchronized (NetUtils.class) {
+                address = cachedLocalAddress;
+                if (address == null) {
+                    try {
+                        address = getLocalInetAddress();
+                    } catch (SocketException e) {
+                        throw new RuntimeException("fail to get local ip.", e);
+                    }
+                    cachedLocalAddress = address;
+                }
+            }
+        }
+        return address;
+    }
+
+    /**
+     * Pre-loaded local address, which was a public field retrieved on class initialization
+     *
+     * @return the local address
+     * @deprecated use {@link #getCachedLocalInetAddress()}
+     */
+    @Deprecated
+    public static InetAddress localAddress() {
+        return getCachedLocalInetAddress();
+    }
+
     /**
      * Retrieve local address
      * 
      * @return the string local address
      */
     public static String getLocalAddress() {
-        return localAddress.getHostAddress();
+        return getCachedLocalInetAddress().getHostAddress();
     }
 
 }
@@ -0,0 +1,51 @@
+package com.baidu.fsg.uid.core.worker;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.Assert;
+
+/**
+ * Represents a {@link WorkerIdAssigner} deriving the worker id from the local environment, without any storage<p>
+ *
+ * The worker id is checked against the max worker id of the {@link com.baidu.fsg.uid.core.BitsAllocator}, since
+ * no storage would tell two workers apart if it were truncated.
+ */
+@Slf4j
+public abstract class AbstractLocalWorkerIdAssigner implements WorkerIdAssigner {
+
+    protected final long maxWorkerId;
+
+    protected AbstractLocalWorkerIdAssigner(long maxWorkerId) {
+        Assert.isTrue(maxWorkerId > 0, "maxWorkerId must be positive");
+        this.maxWorkerId = maxWorkerId;
+    }
+
+    /**
+     * Max worker id of the worker bits
+     *
+     * @param workerBits
+     * @return <code>2^workerBits - 1</code>
+     */
+    public static long maxWorkerId(int workerBits) {
+        return ~(-1L << workerBits);
+    }
+
+    @Override
+    public long assignWorkerId() {
+        long workerId = resolveWorkerId();
+        if (workerId < 0 || workerId > maxWorkerId) {
+            throw new RuntimeException("Worker id " + workerId + " is out of [0, " + maxWorkerId + "] by "
+                    + getClass().getSimpleName());
+        }
+
+        log.info("Assign worker id:{} by {}", workerId, getClass().getSimpleName());
+        return workerId;
+    }
+
+    /**
+     * Derive the worker id from the local environment
+     *
+     * @return worker id
+     */
+    protected abstract long resolveWorkerId();
+
+}
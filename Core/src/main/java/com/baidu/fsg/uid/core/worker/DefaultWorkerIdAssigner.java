@@ -52,6 +52,21 @@ public class DefaultWorkerIdAssigner implements WorkerIdAssigner {
         return workerNode.getId();
     }
 
+    @Override
+    public void watchLease(long workerId, LeaseListener listener) {
+        workerNodeStorage.watchLease(workerId, listener);
+    }
+
+    @Override
+    public long getHighWaterMark(long workerId) {
+        return workerNodeStorage.getHighWaterMark(workerId);
+    }
+
+    @Override
+    public void saveHighWaterMark(long workerId, long second) {
+        workerNodeStorage.saveHighWaterMark(workerId, second);
+    }
+
     /**
      * Build worker node entity by IP and PORT
      */
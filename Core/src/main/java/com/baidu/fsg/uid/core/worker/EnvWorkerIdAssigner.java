@@ -0,0 +1,35 @@
+package com.baidu.fsg.uid.core.worker;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Represents a {@link WorkerIdAssigner} by an environment variable, the worker id is provided by the deployment
+ */
+public class EnvWorkerIdAssigner extends AbstractLocalWorkerIdAssigner {
+    public static final String DEFAULT_ENV_KEY = "UID_WORKER_ID";
+
+    private final String envKey;
+
+    public EnvWorkerIdAssigner(long maxWorkerId) {
+        this(DEFAULT_ENV_KEY, maxWorkerId);
+    }
+
+    public EnvWorkerIdAssigner(String envKey, long maxWorkerId) {
+        super(maxWorkerId);
+        this.envKey = envKey;
+    }
+
+    @Override
+    protected long resolveWorkerId() {
+        String workerId = System.getenv(envKey);
+        if (StringUtils.isBlank(workerId)) {
+            throw new RuntimeException("Missing worker id from env:" + envKey);
+        }
+        try {
+            return Long.parseLong(workerId.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid worker id from env " + envKey + ":" + workerId, e);
+        }
+    }
+
+}
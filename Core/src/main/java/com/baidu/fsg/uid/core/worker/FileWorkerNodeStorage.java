@@ -0,0 +1,386 @@
+package com.baidu.fsg.uid.core.worker;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.baidu.fsg.uid.core.utils.NamingThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.RandomUtils;
+import org.springframework.util.Assert;
+
+/**
+ * Represents an implementation of {@link WorkerNodeStorage} on a local file shared by the processes of one host,
+ * for hosts without a database<p>
+ *
+ * <pre>{@code
+ * +-------+---------+---------+-----------+-------------+-------------+-----
+ * | magic | version | next id | free head |  record 1   |  record 2   | ...
+ * +-------+---------+---------+-----------+-------------+-------------+-----
+ *   4bytes  4bytes    8bytes     8bytes      48bytes       48bytes
+ *
+ * record: | state | pad | pid | token | heartbeat | next free | high-water mark |
+ * }</pre>
+ *
+ * Every operation holds {@link FileChannel#lock()} of the whole file. A worker id is popped from the free list,
+ * or the next id is taken if the free list is empty, both O(1). Ids released by {@link #close()} are pushed back
+ * to the free list. The records of crashed processes are only scanned for when all ids up to the max worker id
+ * are taken: a record is stale if its process is gone, or its heartbeat is older than the stale timeout.<p>
+ *
+ * The high-water mark stays in the record when the id is freed or reclaimed, so the next process leasing it
+ * resumes above the seconds already issued. Only the process holding the lease can raise it.<p>
+ *
+ * The lease is lost for good once the record is reclaimed by another process, and may be lost once the heartbeat
+ * keeps failing for the stale timeout less a heartbeat interval. Watchers of the lease are told either way, so the
+ * generator is fenced.<p>
+ *
+ * Processes on one host never share a worker node, so every registration takes a new one.
+ */
+@Slf4j
+public class FileWorkerNodeStorage implements WorkerNodeStorage, AutoCloseable {
+    private static final String HEARTBEAT_NAME = "WorkerNode-FileHeartbeat";
+
+    /** Layout of the file */
+    private static final int MAGIC = 0x55494457;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 24;
+    private static final int RECORD_SIZE = 48;
+    private static final int VERSION_OFFSET = 4;
+    private static final int NEXT_ID_OFFSET = 8;
+    private static final int FREE_HEAD_OFFSET = 16;
+    private static final int NEXT_FREE_OFFSET = 32;
+    private static final int HIGH_WATER_MARK_OFFSET = 40;
+    private static final int STATE_FREE = 0;
+    private static final int STATE_USED = 1;
+
+    /** FileLock is held by the JVM, threads of one JVM are serialized by the monitor of the file */
+    private static final Map<Path, Object> MONITORS = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final long maxWorkerId;
+    private final Duration heartbeatInterval;
+    private final Duration staleTimeout;
+    private final FileChannel channel;
+    private final Object monitor;
+    private final long pid = ProcessHandle.current().pid();
+
+    /** Leased worker id -> token of the lease */
+    private final Map<Long, Long> leases = new ConcurrentHashMap<>();
+    private final Map<Long, List<LeaseListener>> leaseListeners = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService heartbeatSchedule;
+    /** Nano time of the last heartbeat done */
+    private volatile long heartbeatAt = System.nanoTime();
+    /** Whether the heartbeat keeps failing, the leases may be lost */
+    private volatile boolean overdue;
+
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+
+    public FileWorkerNodeStorage(Path file, long maxWorkerId) {
+        this(file, maxWorkerId, Duration.ofSeconds(10), Duration.ofMinutes(1));
+    }
+
+    public FileWorkerNodeStorage(Path file, long maxWorkerId, Duration heartbeatInterval, Duration staleTimeout) {
+        Assert.isTrue(maxWorkerId > 0, "maxWorkerId must be positive");
+        Assert.isTrue(staleTimeout.compareTo(heartbeatInterval) > 0, "staleTimeout must be longer than heartbeatInterval");
+        this.file = file.toAbsolutePath().normalize();
+        this.maxWorkerId = maxWorkerId;
+        this.heartbeatInterval = heartbeatInterval;
+        this.staleTimeout = staleTimeout;
+        this.monitor = MONITORS.computeIfAbsent(this.file, key -> new Object());
+        try {
+            Path parent = this.file.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.channel = FileChannel.open(this.file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Open worker node file " + this.file + " exception", e);
+        }
+
+        long interval = heartbeatInterval.toMillis();
+        this.heartbeatSchedule = Executors.newSingleThreadScheduledExecutor(new NamingThreadFactory(HEARTBEAT_NAME, true));
+        heartbeatSchedule.scheduleWithFixedDelay(this::heartbeatLeases, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Processes on one host never share a worker node
+     *
+     * @return always null
+     */
+    @Override
+    public WorkerNode getWorkerNodeByHostPort(String host, String port) {
+        return null;
+    }
+
+    /**
+     * Lease a worker id: pop the free list, or take the next id, or reclaim a stale one
+     *
+     * @param workerNode
+     */
+    @Override
+    public void addWorkerNode(WorkerNode workerNode) {
+        long token = RandomUtils.nextLong();
+        long id = locked(() -> {
+            long freeHead = readHeader().getLong(FREE_HEAD_OFFSET);
+            if (freeHead != 0) {
+                ByteBuffer free = readRecord(freeHead);
+                long nextFree = free.getLong(NEXT_FREE_OFFSET);
+                writeRecord(freeHead, STATE_USED, token, 0, free.getLong(HIGH_WATER_MARK_OFFSET));
+                writeHeader(header.getLong(NEXT_ID_OFFSET), nextFree);
+                return freeHead;
+            }
+
+            long nextId = header.getLong(NEXT_ID_OFFSET);
+            if (nextId <= maxWorkerId) {
+                writeRecord(nextId, STATE_USED, token, 0, -1L);
+                writeHeader(nextId + 1, 0);
+                return nextId;
+            }
+
+            return reclaimStale(token);
+        });
+
+        leases.put(id, token);
+        workerNode.setId(id);
+        log.info("Leased worker node from file:{}. {}", file, workerNode);
+    }
+
+    @Override
+    public void watchLease(long workerId, LeaseListener listener) {
+        leaseListeners.computeIfAbsent(workerId, key -> new CopyOnWriteArrayList<>()).add(listener);
+        if (!leases.containsKey(workerId) || overdue) {
+            listener.onLease(workerId, false);
+        }
+    }
+
+    /**
+     * Kept in the record even if the id is freed or reclaimed
+     *
+     * @param workerId
+     * @return -1 if never saved
+     */
+    @Override
+    public long getHighWaterMark(long workerId) {
+        return locked(() -> readRecord(workerId).getLong(HIGH_WATER_MARK_OFFSET));
+    }
+
+    /**
+     * Save the high-water mark, only if the lease is still held
+     *
+     * @param workerId
+     * @param second
+     */
+    @Override
+    public void saveHighWaterMark(long workerId, long second) {
+        Long token = leases.get(workerId);
+        if (token == null) {
+            log.warn("Lease of worker id:{} is not held, skip saving high-water mark:{}", workerId, second);
+            return;
+        }
+
+        locked(() -> {
+            ByteBuffer leased = readRecord(workerId);
+            if (isOwned(leased, token) && second > leased.getLong(HIGH_WATER_MARK_OFFSET)) {
+                writeRecord(workerId, STATE_USED, token, 0, second);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Release the leased worker ids to the free list
+     */
+    @Override
+    public void close() {
+        heartbeatSchedule.shutdownNow();
+        try {
+            locked(() -> {
+                for (Map.Entry<Long, Long> lease : leases.entrySet()) {
+                    ByteBuffer leased = readRecord(lease.getKey());
+                    if (isOwned(leased, lease.getValue())) {
+                        long highWaterMark = leased.getLong(HIGH_WATER_MARK_OFFSET);
+                        long freeHead = readHeader().getLong(FREE_HEAD_OFFSET);
+                        writeRecord(lease.getKey(), STATE_FREE, 0, freeHead, highWaterMark);
+                        writeHeader(header.getLong(NEXT_ID_OFFSET), lease.getKey());
+                    }
+                }
+                return null;
+            });
+            leases.clear();
+            leaseListeners.clear();
+        } catch (Exception e) {
+            log.warn("Release worker nodes to file:{} exception, they will be reclaimed as stale", file, e);
+        }
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Close worker node file:{} exception", file, e);
+        }
+    }
+
+    /**
+     * Scan for the record of a dead process or an old heartbeat, all ids are taken anyway
+     */
+    private long reclaimStale(long token) throws IOException {
+        long staleBefore = System.currentTimeMillis() - staleTimeout.toMillis();
+        for (long id = 1; id <= maxWorkerId; id++) {
+            ByteBuffer stale = readRecord(id);
+            long owner = stale.getLong(8);
+            if (stale.getInt(0) == STATE_USED
+                    && (stale.getLong(24) < staleBefore || ProcessHandle.of(owner).isEmpty())) {
+                log.warn("Reclaim stale worker id:{} of pid:{}", id, owner);
+                writeRecord(id, STATE_USED, token, 0, stale.getLong(HIGH_WATER_MARK_OFFSET));
+                return id;
+            }
+        }
+        throw new IllegalStateException("All worker ids up to " + maxWorkerId + " are taken in file " + file);
+    }
+
+    /**
+     * Heartbeat the leases, tell the watchers if lost
+     */
+    private void heartbeatLeases() {
+        try {
+            List<Long> lost = locked(() -> {
+                List<Long> reclaimed = new ArrayList<>();
+                for (Map.Entry<Long, Long> lease : leases.entrySet()) {
+                    ByteBuffer leased = readRecord(lease.getKey());
+                    if (isOwned(leased, lease.getValue())) {
+                        writeRecord(lease.getKey(), STATE_USED, lease.getValue(), 0, leased.getLong(HIGH_WATER_MARK_OFFSET));
+                    } else {
+                        log.error("Lease of worker id:{} is lost, it has been reclaimed by another process", lease.getKey());
+                        leases.remove(lease.getKey());
+                        reclaimed.add(lease.getKey());
+                    }
+                }
+                return reclaimed;
+            });
+            heartbeatAt = System.nanoTime();
+            lost.forEach(workerId -> notifyListeners(workerId, false));
+            if (overdue) {
+                overdue = false;
+                log.warn("Heartbeat worker nodes to file:{} recovered", file);
+                leases.keySet().forEach(workerId -> notifyListeners(workerId, true));
+            }
+        } catch (Exception e) {
+            log.error("Heartbeat worker nodes to file:{} exception", file, e);
+            if (!overdue && System.nanoTime() - heartbeatAt >= staleTimeout.minus(heartbeatInterval).toNanos()) {
+                // other processes may take the records as stale soon
+                overdue = true;
+                leases.keySet().forEach(workerId -> notifyListeners(workerId, false));
+            }
+        }
+    }
+
+    private void notifyListeners(long workerId, boolean held) {
+        for (LeaseListener listener : leaseListeners.getOrDefault(workerId, List.of())) {
+            try {
+                listener.onLease(workerId, held);
+            } catch (Exception e) {
+                log.error("Notify lease of worker id:{} exception", workerId, e);
+            }
+        }
+    }
+
+    private boolean isOwned(ByteBuffer leased, long token) {
+        return leased.getInt(0) == STATE_USED && leased.getLong(8) == pid && leased.getLong(16) == token;
+    }
+
+    private <T> T locked(IOSupplier<T> action) {
+        synchronized (monitor) {
+            try (FileLock ignored = channel.lock()) {
+                return action.get();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Access worker node file " + file + " exception", e);
+            }
+        }
+    }
+
+    /**
+     * Read the header, initialize it if the file is new
+     */
+    private ByteBuffer readHeader() throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            writeHeader(1, 0);
+            return header;
+        }
+
+        read(header.clear(), 0);
+        if (header.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not a worker node file: " + file);
+        }
+        if (header.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IllegalStateException("Worker node file " + file + " is of version "
+                    + header.getInt(VERSION_OFFSET) + ", expected " + VERSION);
+        }
+        return header;
+    }
+
+    private void writeHeader(long nextId, long freeHead) throws IOException {
+        header.clear();
+        header.putInt(MAGIC).putInt(VERSION).putLong(nextId).putLong(freeHead).flip();
+        write(header, 0);
+    }
+
+    private ByteBuffer readRecord(long id) throws IOException {
+        record.clear();
+        read(record, position(id));
+        return record;
+    }
+
+    private void writeRecord(long id, int state, long token, long nextFree, long highWaterMark) throws IOException {
+        long owner = state == STATE_USED ? pid : 0;
+        record.clear();
+        record.putInt(state).putInt(0).putLong(owner).putLong(token)
+                .putLong(System.currentTimeMillis()).putLong(nextFree).putLong(highWaterMark).flip();
+        write(record, position(id));
+    }
+
+    private long position(long id) {
+        return HEADER_SIZE + (id - 1) * RECORD_SIZE;
+    }
+
+    /**
+     * Read fully, zeros beyond the end of file
+     */
+    private void read(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        while (buffer.hasRemaining()) {
+            buffer.put((byte) 0);
+        }
+        buffer.flip();
+    }
+
+    private void write(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    @FunctionalInterface
+    private interface IOSupplier<T> {
+        T get() throws IOException;
+    }
+
+}
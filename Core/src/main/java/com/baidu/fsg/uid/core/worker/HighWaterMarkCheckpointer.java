@@ -0,0 +1,127 @@
+package com.baidu.fsg.uid.core.worker;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.baidu.fsg.uid.core.exception.UidGenerateException;
+import com.baidu.fsg.uid.core.utils.NamingThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Represents a checkpointer of the high-water mark of a worker, saved by
+ * {@link WorkerIdAssigner#saveHighWaterMark(long, long)} only if it has advanced<p>
+ *
+ * With an interval the mark is reserved ahead: the saved mark is the current second plus the interval, and the
+ * generator must not issue a second above it, see {@link #reserve(long)}. The reservation is moved forward in a
+ * schedule of half the interval, so it stays ahead of the clock and off the path of generating UIDs. A restart
+ * resumes above the reserved mark, which is never behind the seconds issued, at the cost of waiting up to the
+ * interval for the clock.<p>
+ *
+ * Without an interval nothing is reserved, the highest issued second is only checkpointed on demand and on close.
+ */
+@Slf4j
+public class HighWaterMarkCheckpointer implements AutoCloseable {
+    private static final String CHECKPOINT_NAME = "UidGenerator-Checkpoint";
+
+    private final WorkerIdAssigner workerIdAssigner;
+    private final long workerId;
+    private final LongSupplier highWaterMark;
+    /** Seconds reserved ahead, null if not reserving */
+    private final Long interval;
+    /** Null if without an interval */
+    private final ScheduledExecutorService checkpointSchedule;
+
+    /** Last saved second */
+    private volatile long savedSecond;
+
+    public HighWaterMarkCheckpointer(WorkerIdAssigner workerIdAssigner, long workerId, long savedSecond,
+                                     LongSupplier highWaterMark, Long interval) {
+        this.workerIdAssigner = workerIdAssigner;
+        this.workerId = workerId;
+        this.savedSecond = savedSecond;
+        this.highWaterMark = highWaterMark;
+        this.interval = interval;
+        if (interval != null) {
+            long period = Math.max(TimeUnit.SECONDS.toMillis(interval) / 2, 1L);
+            this.checkpointSchedule = Executors.newSingleThreadScheduledExecutor(new NamingThreadFactory(CHECKPOINT_NAME, true));
+            checkpointSchedule.scheduleWithFixedDelay(this::checkpoint, period, period, TimeUnit.MILLISECONDS);
+            // reserve before the first UID
+            checkpoint();
+        } else {
+            this.checkpointSchedule = null;
+        }
+    }
+
+    /**
+     * Highest second which may be issued
+     *
+     * @return {@link Long#MAX_VALUE} if not reserving
+     */
+    public long getReservedSecond() {
+        return interval != null ? savedSecond : Long.MAX_VALUE;
+    }
+
+    /**
+     * Make sure the second is reserved before it is issued, the reservation is saved right away if behind
+     *
+     * @param second
+     * @throws UidGenerateException if the reservation is behind and fails to save
+     */
+    public void reserve(long second) {
+        if (second <= getReservedSecond()) {
+            return;
+        }
+
+        synchronized (this) {
+            if (second <= savedSecond) {
+                return;
+            }
+            try {
+                save(second + interval);
+            } catch (Exception e) {
+                throw new UidGenerateException(String.format(
+                        "High-water mark of worker:%d is not reserved up to second %d, refusing UID generate", workerId, second), e);
+            }
+        }
+    }
+
+    /**
+     * Save the high-water mark if advanced, ahead of the clock if reserving
+     */
+    public synchronized void checkpoint() {
+        long second = highWaterMark.getAsLong();
+        if (interval != null) {
+            second = Math.max(second, TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis())) + interval;
+        }
+        if (second <= savedSecond) {
+            return;
+        }
+
+        try {
+            save(second);
+        } catch (Exception e) {
+            log.error("Checkpoint high-water mark:{} of worker:{} exception", second, workerId, e);
+        }
+    }
+
+    /**
+     * Stop the schedule, with a final checkpoint if not reserving. The reserved mark covers the issued seconds
+     * already, it is not moved further ahead
+     */
+    @Override
+    public void close() {
+        if (checkpointSchedule != null) {
+            checkpointSchedule.shutdownNow();
+        } else {
+            checkpoint();
+        }
+    }
+
+    private void save(long second) {
+        workerIdAssigner.saveHighWaterMark(workerId, second);
+        savedSecond = second;
+    }
+
+}
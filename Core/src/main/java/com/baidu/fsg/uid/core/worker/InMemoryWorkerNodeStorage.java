@@ -0,0 +1,51 @@
+package com.baidu.fsg.uid.core.worker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Represents an implementation of {@link WorkerNodeStorage} in memory<p>
+ *
+ * Worker ids are only unique within the JVM, and the high-water marks are lost on restart. So it only fits a
+ * single node deployment whose clock never moves backwards across restarts, tests and benchmarks.
+ */
+public class InMemoryWorkerNodeStorage implements WorkerNodeStorage {
+
+    private final AtomicLong lastId = new AtomicLong();
+    /** host:port -> worker node */
+    private final Map<String, WorkerNode> workerNodes = new ConcurrentHashMap<>();
+    private final Map<Long, Long> highWaterMarks = new ConcurrentHashMap<>();
+
+    @Override
+    public WorkerNode getWorkerNodeByHostPort(String host, String port) {
+        return workerNodes.get(key(host, port));
+    }
+
+    @Override
+    public void addWorkerNode(WorkerNode workerNode) {
+        workerNode.setId(lastId.incrementAndGet());
+        workerNodes.put(key(workerNode.getHostName(), workerNode.getPort()), workerNode);
+    }
+
+    @Override
+    public WorkerNode registerWorkerNode(WorkerNode workerNode) {
+        return workerNodes.computeIfAbsent(key(workerNode.getHostName(), workerNode.getPort()),
+                key -> workerNode.setId(lastId.incrementAndGet()));
+    }
+
+    @Override
+    public long getHighWaterMark(long workerId) {
+        return highWaterMarks.getOrDefault(workerId, -1L);
+    }
+
+    @Override
+    public void saveHighWaterMark(long workerId, long second) {
+        highWaterMarks.merge(workerId, second, Math::max);
+    }
+
+    private static String key(String host, String port) {
+        return host + ":" + port;
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.baidu.fsg.uid.core.worker;
+
+import java.net.InetAddress;
+
+import com.baidu.fsg.uid.core.utils.NetUtils;
+import org.springframework.util.Assert;
+
+/**
+ * Represents a {@link WorkerIdAssigner} by the lowest bits of the local IPv4 or IPv6 address from
+ * {@link NetUtils}<p>
+ *
+ * Such as 16 bits of a pod in a /16 network, every pod gets the distinct host part of its address. The bits must
+ * not exceed the worker bits, otherwise two addresses may be truncated into the same worker id.
+ */
+public class IpWorkerIdAssigner extends AbstractLocalWorkerIdAssigner {
+
+    private final InetAddress address;
+    private final int bits;
+
+    public IpWorkerIdAssigner(int bits, long maxWorkerId) {
+        this(NetUtils.getCachedLocalInetAddress(), bits, maxWorkerId);
+    }
+
+    public IpWorkerIdAssigner(InetAddress address, int bits, long maxWorkerId) {
+        super(maxWorkerId);
+        Assert.isTrue(bits > 0 && bits <= Long.SIZE - Long.numberOfLeadingZeros(maxWorkerId),
+                "bits must be positive and fit in the max worker id " + maxWorkerId);
+        this.address = address;
+        this.bits = bits;
+    }
+
+    @Override
+    protected long resolveWorkerId() {
+        byte[] bytes = address.getAddress();
+        long workerId = 0;
+        for (int i = Math.max(0, bytes.length - Long.BYTES); i < bytes.length; i++) {
+            workerId = (workerId << Byte.SIZE) | (bytes[i] & 0xFF);
+        }
+        return workerId & ~(-1L << bits);
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.baidu.fsg.uid.core.worker;
+
+/**
+ * Listener of the lease of a worker id, see {@link WorkerNodeStorage#watchLease(long, LeaseListener)}
+ */
+@FunctionalInterface
+public interface LeaseListener {
+
+    /**
+     * Called in the heartbeat thread as the lease changes
+     *
+     * @param workerId
+     * @param held false once the lease may be lost: reclaimed by another worker or not renewed in time;
+     *             true when it is renewed again
+     */
+    void onLease(long workerId, boolean held);
+
+}
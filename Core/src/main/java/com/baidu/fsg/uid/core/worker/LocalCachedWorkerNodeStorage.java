@@ -0,0 +1,354 @@
+package com.baidu.fsg.uid.core.worker;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.baidu.fsg.uid.core.utils.NamingThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.Assert;
+
+/**
+ * Represents a decorator of {@link WorkerNodeStorage}, which keeps the registered worker node and its high-water
+ * mark in a local file<p>
+ *
+ * {@link #registerWorkerNode(WorkerNode)} reuses the node in the file without touching the delegate, as long as
+ * it is of the same host & port and its validity has not passed, and {@link #getHighWaterMark(long)} resumes from
+ * the mark in the file. The node is then revalidated against the delegate in the background, retried until done,
+ * which renews the validity. So a restart within the validity doesn't depend on the delegate, such as a database
+ * blip during a deploy.<p>
+ *
+ * Until revalidated, the lease of the reused node is watched here: it is lost once the validity passes, and for
+ * good if the delegate registers another id for the host & port, so the generator is fenced instead of issuing
+ * with an id which may be taken by another worker. After revalidation the lease is watched by the delegate.<p>
+ *
+ * The file is locked by {@link FileChannel#lock()} while read or written. The validity must be shorter than the
+ * lease of the delegate if it leases worker nodes, otherwise the node may have been reclaimed.
+ */
+@Slf4j
+public class LocalCachedWorkerNodeStorage implements WorkerNodeStorage, AutoCloseable {
+    private static final String REVALIDATE_NAME = "WorkerNode-Revalidate";
+
+    /** Keys of the file */
+    private static final String KEY_ID = "id";
+    private static final String KEY_HOST_NAME = "hostName";
+    private static final String KEY_PORT = "port";
+    private static final String KEY_TYPE = "type";
+    private static final String KEY_VALID_UNTIL = "validUntil";
+    private static final String KEY_HIGH_WATER_MARK = "highWaterMark";
+
+    private final WorkerNodeStorage delegate;
+    private final Path file;
+    private final Duration validity;
+    private final ScheduledExecutorService revalidateExecutor;
+
+    /** Record in the file of the registered node, null before registered */
+    private Record record;
+    /** Reused node which is not revalidated yet, its lease is watched here */
+    private WorkerNode unvalidated;
+    /** Whether the lease of the unvalidated node is lost */
+    private boolean leaseLost;
+    private final List<LeaseListener> leaseListeners = new ArrayList<>();
+
+    public LocalCachedWorkerNodeStorage(WorkerNodeStorage delegate, Path file, Duration validity) {
+        Assert.notNull(delegate, "delegate can not be null");
+        Assert.isTrue(!validity.isNegative() && !validity.isZero(), "validity must be positive");
+        this.delegate = delegate;
+        this.file = file;
+        this.validity = validity;
+        this.revalidateExecutor = Executors.newSingleThreadScheduledExecutor(new NamingThreadFactory(REVALIDATE_NAME, true));
+    }
+
+    @Override
+    public WorkerNode getWorkerNodeByHostPort(String host, String port) {
+        return delegate.getWorkerNodeByHostPort(host, port);
+    }
+
+    @Override
+    public void addWorkerNode(WorkerNode workerNode) {
+        delegate.addWorkerNode(workerNode);
+    }
+
+    @Override
+    public boolean renewWorkerNode(WorkerNode workerNode) {
+        return delegate.renewWorkerNode(workerNode);
+    }
+
+    /**
+     * Watch the lease here while the reused node is not revalidated, otherwise by the delegate
+     */
+    @Override
+    public void watchLease(long workerId, LeaseListener listener) {
+        synchronized (this) {
+            if (unvalidated != null && unvalidated.getId() == workerId) {
+                leaseListeners.add(listener);
+                if (leaseLost) {
+                    listener.onLease(workerId, false);
+                }
+                return;
+            }
+        }
+        delegate.watchLease(workerId, listener);
+    }
+
+    /**
+     * The mark in the file for the reused node not revalidated yet, otherwise the higher of the file and the delegate
+     */
+    @Override
+    public long getHighWaterMark(long workerId) {
+        long local;
+        synchronized (this) {
+            local = record != null && record.node.getId() == workerId ? record.highWaterMark : -1L;
+            if (unvalidated != null && unvalidated.getId() == workerId) {
+                return local;
+            }
+        }
+        return Math.max(local, delegate.getHighWaterMark(workerId));
+    }
+
+    /**
+     * Save the mark to the file first, so it is kept even if the delegate fails
+     */
+    @Override
+    public void saveHighWaterMark(long workerId, long second) {
+        synchronized (this) {
+            if (record != null && record.node.getId() == workerId && second > record.highWaterMark) {
+                record.highWaterMark = second;
+                write(record);
+            }
+        }
+        delegate.saveHighWaterMark(workerId, second);
+    }
+
+    /**
+     * Reuse the valid node in the file, revalidate it in the background. Otherwise register by the delegate
+     *
+     * @param workerNode
+     * @return registered node
+     */
+    @Override
+    public WorkerNode registerWorkerNode(WorkerNode workerNode) {
+        Record cached = read(workerNode);
+        if (cached != null && cached.validUntil > System.currentTimeMillis()) {
+            log.info("Reuse worker node in local file:{}. {}", file, cached.node);
+            synchronized (this) {
+                record = cached;
+                unvalidated = cached.node;
+                leaseLost = false;
+            }
+            revalidateExecutor.execute(() -> revalidate(cached.node));
+            revalidateExecutor.schedule(() -> expire(cached.node),
+                    cached.validUntil - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+            return cached.node;
+        }
+        if (cached != null) {
+            log.info("Worker node in local file:{} is expired at {}", file, Instant.ofEpochMilli(cached.validUntil));
+        }
+
+        WorkerNode registered = delegate.registerWorkerNode(workerNode);
+        // the mark is kept if the same id is registered again
+        long highWaterMark = cached != null && Objects.equals(cached.node.getId(), registered.getId())
+                ? cached.highWaterMark : -1L;
+        synchronized (this) {
+            record = new Record(registered, System.currentTimeMillis() + validity.toMillis(), highWaterMark);
+            write(record);
+        }
+        return registered;
+    }
+
+    @Override
+    public void close() throws Exception {
+        revalidateExecutor.shutdownNow();
+        if (delegate instanceof AutoCloseable) {
+            ((AutoCloseable) delegate).close();
+        }
+    }
+
+    /**
+     * Register the cached node again by the delegate, retried until done. Renew the validity if it's still the
+     * same id, otherwise the lease of the node in use is lost for good
+     */
+    private void revalidate(WorkerNode cached) {
+        WorkerNode registered;
+        try {
+            registered = delegate.registerWorkerNode(new WorkerNode()
+                    .setHostName(cached.getHostName())
+                    .setPort(cached.getPort())
+                    .setType(cached.getType()));
+        } catch (Exception e) {
+            long delay = Math.max(validity.toMillis() / 10, 1L);
+            log.warn("Revalidate worker node exception, keep the local file:{}, retry in {}ms", file, delay, e);
+            if (!revalidateExecutor.isShutdown()) {
+                revalidateExecutor.schedule(() -> revalidate(cached), delay, TimeUnit.MILLISECONDS);
+            }
+            return;
+        }
+
+        List<LeaseListener> listeners;
+        long highWaterMark;
+        synchronized (this) {
+            if (!Objects.equals(registered.getId(), cached.getId())) {
+                // the node in use is not the registered one, don't reuse it any more
+                log.error("Worker node in local file:{} is stale, in use:{}, registered:{}", file, cached, registered);
+                leaseLost = true;
+                record = null;
+                delete();
+                listeners = List.copyOf(leaseListeners);
+                listeners.forEach(listener -> listener.onLease(cached.getId(), false));
+                return;
+            }
+
+            record = new Record(registered, System.currentTimeMillis() + validity.toMillis(), record.highWaterMark);
+            write(record);
+            highWaterMark = record.highWaterMark;
+            unvalidated = null;
+            listeners = List.copyOf(leaseListeners);
+            leaseListeners.clear();
+        }
+        log.info("Revalidated worker node in local file:{}. {}", file, registered);
+
+        // marks saved while the delegate was away are caught up
+        if (highWaterMark >= 0) {
+            try {
+                delegate.saveHighWaterMark(registered.getId(), highWaterMark);
+            } catch (Exception e) {
+                log.warn("Save high-water mark:{} of revalidated worker node exception", highWaterMark, e);
+            }
+        }
+        // renewed if lost by the validity, then watched by the delegate which may tell it's lost again
+        for (LeaseListener listener : listeners) {
+            listener.onLease(registered.getId(), true);
+            delegate.watchLease(registered.getId(), listener);
+        }
+    }
+
+    /**
+     * The validity of the cached node passes before revalidated, it may be reclaimed by now
+     */
+    private synchronized void expire(WorkerNode cached) {
+        if (unvalidated != cached || leaseLost) {
+            return;
+        }
+        log.error("Worker node in local file:{} is not revalidated within validity:{}. {}", file, validity, cached);
+        leaseLost = true;
+        leaseListeners.forEach(listener -> listener.onLease(cached.getId(), false));
+    }
+
+    /**
+     * Read the record of the same host & port in the file
+     *
+     * @return null if absent, or of another host & port
+     */
+    private Record read(WorkerNode workerNode) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        Properties properties = new Properties();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read the whole file
+            }
+            properties.load(new ByteArrayInputStream(buffer.array(), 0, buffer.position()));
+        } catch (IOException e) {
+            log.warn("Read worker node from local file:{} exception", file, e);
+            return null;
+        }
+
+        String id = properties.getProperty(KEY_ID);
+        String validUntil = properties.getProperty(KEY_VALID_UNTIL);
+        if (id == null || validUntil == null
+                || !Objects.equals(workerNode.getHostName(), properties.getProperty(KEY_HOST_NAME))
+                || !Objects.equals(workerNode.getPort(), properties.getProperty(KEY_PORT))) {
+            return null;
+        }
+
+        String type = properties.getProperty(KEY_TYPE);
+        WorkerNode node = new WorkerNode()
+                .setId(Long.parseLong(id))
+                .setHostName(workerNode.getHostName())
+                .setPort(workerNode.getPort())
+                .setType(type == null ? workerNode.getType() : Integer.valueOf(type));
+        return new Record(node, Long.parseLong(validUntil),
+                Long.parseLong(properties.getProperty(KEY_HIGH_WATER_MARK, "-1")));
+    }
+
+    /**
+     * Write the record, callers hold the monitor
+     */
+    private void write(Record record) {
+        WorkerNode workerNode = record.node;
+        Properties properties = new Properties();
+        properties.setProperty(KEY_ID, String.valueOf(workerNode.getId()));
+        properties.setProperty(KEY_HOST_NAME, workerNode.getHostName());
+        properties.setProperty(KEY_PORT, workerNode.getPort());
+        if (workerNode.getType() != null) {
+            properties.setProperty(KEY_TYPE, String.valueOf(workerNode.getType()));
+        }
+        properties.setProperty(KEY_VALID_UNTIL, String.valueOf(record.validUntil));
+        properties.setProperty(KEY_HIGH_WATER_MARK, String.valueOf(record.highWaterMark));
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            properties.store(bytes, "Worker node of UID generator");
+
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                channel.truncate(0);
+                ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            // the file is only a cache, the registration is done anyway
+            log.warn("Write worker node to local file:{} exception", file, e);
+        }
+    }
+
+    private void delete() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Delete local file:{} exception", file, e);
+        }
+    }
+
+    /**
+     * Worker node in the file, with its validity in epoch millis and its high-water mark
+     */
+    private static class Record {
+        private final WorkerNode node;
+        private final long validUntil;
+        private long highWaterMark;
+
+        private Record(WorkerNode node, long validUntil, long highWaterMark) {
+            this.node = node;
+            this.validUntil = validUntil;
+            this.highWaterMark = highWaterMark;
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.baidu.fsg.uid.core.worker;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Represents a {@link WorkerIdAssigner} by the ordinal of a Kubernetes StatefulSet pod, which is the suffix of
+ * its host name such as <code>uid-service-3</code><p>
+ *
+ * Pods of one StatefulSet get distinct ordinals, an offset keeps several StatefulSets apart.
+ */
+public class OrdinalWorkerIdAssigner extends AbstractLocalWorkerIdAssigner {
+    private static final String ENV_KEY_HOSTNAME = "HOSTNAME";
+
+    private final String hostName;
+    private final long offset;
+
+    public OrdinalWorkerIdAssigner(long maxWorkerId) {
+        this(getHostName(), 0, maxWorkerId);
+    }
+
+    public OrdinalWorkerIdAssigner(String hostName, long offset, long maxWorkerId) {
+        super(maxWorkerId);
+        this.hostName = hostName;
+        this.offset = offset;
+    }
+
+    @Override
+    protected long resolveWorkerId() {
+        int separator = hostName.lastIndexOf('-');
+        String ordinal = hostName.substring(separator + 1);
+        if (separator < 0 || !StringUtils.isNumeric(ordinal)) {
+            throw new RuntimeException("No ordinal in host name:" + hostName);
+        }
+        return offset + Long.parseLong(ordinal);
+    }
+
+    /**
+     * Host name from the environment, which Kubernetes sets to the pod name
+     *
+     * @return host name
+     */
+    public static String getHostName() {
+        String hostName = System.getenv(ENV_KEY_HOSTNAME);
+        if (StringUtils.isNotBlank(hostName)) {
+            return hostName;
+        }
+
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new RuntimeException("fail to get host name.", e);
+        }
+    }
+
+}
@@ -31,4 +31,32 @@ public interface WorkerIdAssigner {
      */
     long assignWorkerId();
 
+    /**
+     * Watch the lease of the assigned worker id, see {@link WorkerNodeStorage#watchLease(long, LeaseListener)}
+     *
+     * @param workerId
+     * @param listener
+     */
+    default void watchLease(long workerId, LeaseListener listener) {
+    }
+
+    /**
+     * Get the highest second of the UIDs issued by the worker, UIDs resume strictly above it
+     *
+     * @param workerId
+     * @return -1 if unknown
+     */
+    default long getHighWaterMark(long workerId) {
+        return -1L;
+    }
+
+    /**
+     * Checkpoint the highest second of the UIDs issued by the worker
+     *
+     * @param workerId
+     * @param second
+     */
+    default void saveHighWaterMark(long workerId, long second) {
+    }
+
 }
@@ -38,4 +38,62 @@ public interface WorkerNodeStorage {
      */
     void addWorkerNode(WorkerNode workerNode);
 
+    /**
+     * Register {@link WorkerNode}: reuse the one of the same host & port, or add it if absent.<br>
+     * Default looks up by {@link #getWorkerNodeByHostPort(String, String)} then {@link #addWorkerNode(WorkerNode)},
+     * storages may do it in one round-trip
+     *
+     * @param workerNode
+     * @return registered node, whose id is assigned
+     */
+    default WorkerNode registerWorkerNode(WorkerNode workerNode) {
+        WorkerNode history = getWorkerNodeByHostPort(workerNode.getHostName(), workerNode.getPort());
+        if (history != null && renewWorkerNode(history)) {
+            return history;
+        }
+
+        addWorkerNode(workerNode);
+        return workerNode;
+    }
+
+    /**
+     * Renew {@link WorkerNode} found by host & port before reusing it, for storages which lease worker nodes
+     *
+     * @param workerNode
+     * @return false if the node has been taken over by another worker, it can't be reused
+     */
+    default boolean renewWorkerNode(WorkerNode workerNode) {
+        return true;
+    }
+
+    /**
+     * Watch the lease of {@link WorkerNode}, for storages which lease worker nodes. The listener is told as soon as
+     * the lease may be lost, so the worker stops issuing before another one can reclaim the id. Storages without
+     * leases never call it
+     *
+     * @param workerId
+     * @param listener
+     */
+    default void watchLease(long workerId, LeaseListener listener) {
+    }
+
+    /**
+     * Get the high-water mark of {@link WorkerNode}: the highest second of the UIDs it has issued
+     *
+     * @param workerId
+     * @return -1 if unknown, or the storage doesn't keep it
+     */
+    default long getHighWaterMark(long workerId) {
+        return -1L;
+    }
+
+    /**
+     * Save the high-water mark of {@link WorkerNode}, only if it is higher than the saved one
+     *
+     * @param workerId
+     * @param second
+     */
+    default void saveHighWaterMark(long workerId, long second) {
+    }
+
 }
@@ -0,0 +1,75 @@
+package com.baidu.fsg.uid.core;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class UidCodecTest {
+
+    private static final long[] EDGES = {0L, 1L, 61L, 62L, Long.MAX_VALUE, Long.MIN_VALUE, -1L};
+
+    @Test
+    public void roundTripsAllForms() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 10000; i++) {
+            long uid = i < EDGES.length ? EDGES[i] : random.nextLong();
+
+            String base32 = UidCodec.toBase32(uid);
+            String base62 = UidCodec.toBase62(uid);
+            Assertions.assertEquals(UidCodec.BASE32_LENGTH, base32.length());
+            Assertions.assertEquals(UidCodec.BASE62_LENGTH, base62.length());
+            Assertions.assertEquals(uid, UidCodec.parseBase32(base32));
+            Assertions.assertEquals(uid, UidCodec.parseBase62(base62));
+
+            char[] chars = new char[UidCodec.BASE32_LENGTH + 1];
+            Assertions.assertEquals(chars.length, UidCodec.encodeBase32(uid, chars, 1));
+            Assertions.assertEquals(uid, UidCodec.decodeBase32(chars, 1));
+            Assertions.assertEquals(UidCodec.BASE62_LENGTH + 1, UidCodec.encodeBase62(uid, chars, 1));
+            Assertions.assertEquals(uid, UidCodec.decodeBase62(chars, 1));
+
+            ByteBuffer buffer = ByteBuffer.allocate(UidCodec.BASE32_LENGTH + UidCodec.BASE62_LENGTH);
+            UidCodec.encodeBase32(uid, buffer);
+            UidCodec.encodeBase62(uid, buffer);
+            buffer.flip();
+            Assertions.assertEquals(uid, UidCodec.decodeBase32(buffer));
+            Assertions.assertEquals(uid, UidCodec.decodeBase62(buffer));
+            Assertions.assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    public void sortsLikeUnsignedLongs() {
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 10000; i++) {
+            long a = random.nextLong();
+            long b = i % 2 == 0 ? random.nextLong() : a + 1;
+            int expected = Integer.signum(Long.compareUnsigned(a, b));
+            Assertions.assertEquals(expected, Integer.signum(UidCodec.toBase32(a).compareTo(UidCodec.toBase32(b))));
+            Assertions.assertEquals(expected, Integer.signum(UidCodec.toBase62(a).compareTo(UidCodec.toBase62(b))));
+        }
+    }
+
+    @Test
+    public void decodesCrockfordAliasesCaseInsensitive() {
+        long uid = 0x0123456789ABCDEFL;
+        String base32 = UidCodec.toBase32(uid);
+        Assertions.assertEquals(uid, UidCodec.parseBase32(base32.toLowerCase()));
+        Assertions.assertEquals(1L, UidCodec.parseBase32("000000000000I"));
+        Assertions.assertEquals(1L, UidCodec.parseBase32("000000000000l"));
+        Assertions.assertEquals(0L, UidCodec.parseBase32("OOOOOOOOOOOOO"));
+    }
+
+    @Test
+    public void rejectsInvalidInput() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> UidCodec.parseBase32("000000000000U"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> UidCodec.parseBase32("G000000000000"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> UidCodec.parseBase32("0000"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> UidCodec.parseBase62("0000000000-"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> UidCodec.parseBase62("zzzzzzzzzzz"));
+        Assertions.assertThrows(IndexOutOfBoundsException.class,
+                () -> UidCodec.encodeBase62(1L, new byte[UidCodec.BASE62_LENGTH], 1));
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.baidu.fsg.uid.core;
+
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.baidu.fsg.uid.core.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.core.impl.DefaultUidGenerator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class UidSpliteratorTest {
+
+    private static GeneratorProperties properties() {
+        return new GeneratorProperties().setWorkerBits(12).setSeqBits(20);
+    }
+
+    @Test
+    public void parallelStreamIsDistinctAndSized() {
+        try (DefaultUidGenerator generator = new DefaultUidGenerator(() -> 1L, properties())) {
+            long count = 100_000L;
+            Assertions.assertEquals(count, generator.uids(count).parallel().distinct().count());
+            Assertions.assertEquals(0L, generator.uids(0L).count());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> generator.uids(-1L));
+        }
+    }
+
+    @Test
+    public void takesBlocksAndSplitsOnlyWhatIsNotTaken() {
+        AtomicInteger calls = new AtomicInteger();
+        UidGenerator generator = new UidGenerator() {
+            private long next;
+
+            @Override
+            public long getUID() {
+                return next++;
+            }
+
+            @Override
+            public void getUIDs(long[] dst, int offset, int length) {
+                calls.incrementAndGet();
+                UidGenerator.super.getUIDs(dst, offset, length);
+            }
+
+            @Override
+            public String parseUID(long uid) {
+                return String.valueOf(uid);
+            }
+        };
+
+        UidSpliterator spliterator = new UidSpliterator(generator, UidSpliterator.BLOCK_SIZE * 4L);
+        Assertions.assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.DISTINCT));
+        Assertions.assertTrue(spliterator.tryAdvance((long uid) -> Assertions.assertEquals(0L, uid)));
+        Assertions.assertEquals(1, calls.get());
+        Assertions.assertEquals(UidSpliterator.BLOCK_SIZE * 4L - 1, spliterator.estimateSize());
+
+        // the block in hand stays with this spliterator, the rest is divided
+        Spliterator.OfLong split = spliterator.trySplit();
+        Assertions.assertNotNull(split);
+        Assertions.assertEquals(UidSpliterator.BLOCK_SIZE * 3L / 2, split.estimateSize());
+        Assertions.assertEquals(UidSpliterator.BLOCK_SIZE * 3L / 2 + UidSpliterator.BLOCK_SIZE - 1, spliterator.estimateSize());
+        Assertions.assertNull(new UidSpliterator(generator, UidSpliterator.BLOCK_SIZE).trySplit());
+    }
+
+    @Test
+    public void cachedBlocksComeFromOneRun() {
+        CacheGeneratorProperties properties = new CacheGeneratorProperties();
+        properties.setScheduleInterval(null);
+        try (CachedUidGenerator generator = new CachedUidGenerator(() -> 1L, properties)) {
+            long[] block = new long[100];
+            generator.getUIDs(block, 0, block.length);
+            for (int i = 1; i < block.length; i++) {
+                Assertions.assertEquals(block[i - 1] + 1, block[i]);
+            }
+            Assertions.assertEquals(block.length, generator.getRingBuffer().getTakenCount());
+            Assertions.assertEquals(block[block.length - 1] + 1, generator.asLongSupplier().getAsLong());
+        }
+    }
+
+}
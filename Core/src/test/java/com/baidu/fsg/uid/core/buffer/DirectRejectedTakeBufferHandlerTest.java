@@ -0,0 +1,84 @@
+package com.baidu.fsg.uid.core.buffer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DirectRejectedTakeBufferHandlerTest {
+
+    private static final long MAX_SEQUENCE = 3L;
+    private static final int THREADS = 8;
+    private static final int TAKES = 2000;
+
+    private RingBuffer ringBuffer;
+    private BufferPaddingExecutor paddingExecutor;
+
+    @BeforeEach
+    public void setUp() {
+        ringBuffer = new RingBuffer(4);
+        paddingExecutor = new BufferPaddingExecutor(ringBuffer, second -> Collections.emptyList(), false);
+        ringBuffer.setBufferPaddingExecutor(paddingExecutor);
+        // the buffer stays empty, every take is rejected
+        paddingExecutor.stop(Duration.ZERO);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        paddingExecutor.close();
+    }
+
+    @Test
+    public void borrowsOneSecondPerExhaustedBlockUnderContention() throws Exception {
+        DirectRejectedTakeBufferHandler handler = new DirectRejectedTakeBufferHandler(second -> second << 2, MAX_SEQUENCE);
+        long firstSecond = paddingExecutor.getLastSecond();
+
+        Set<Long> uids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(threads.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < TAKES; i++) {
+                        Assertions.assertTrue(uids.add(handler.takeOnRejected(ringBuffer)), "Duplicate UID");
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        long total = (long) THREADS * TAKES;
+        Assertions.assertEquals(total, uids.size());
+        Assertions.assertEquals(total / (MAX_SEQUENCE + 1), paddingExecutor.getLastSecond() - firstSecond,
+                "Seconds borrowed beyond the UIDs taken");
+    }
+
+    @Test
+    public void ringBufferFallsBackToTheHandler() {
+        ringBuffer.setRejectedTakeHandler(new DirectRejectedTakeBufferHandler(second -> second << 2, MAX_SEQUENCE));
+        long first = ringBuffer.take();
+        Assertions.assertEquals(paddingExecutor.getLastSecond() << 2, first);
+        Assertions.assertEquals(first + 1, ringBuffer.take());
+        Assertions.assertEquals(2L, ringBuffer.getMetrics().getRejectedTakeCount());
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.baidu.fsg.uid.core.buffer;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RingBufferTest {
+
+    /**
+     * Ring without padding, the puts are made by the tests
+     */
+    private static RingBuffer ringBuffer(int bufferSize) {
+        RingBuffer ringBuffer = new RingBuffer(bufferSize);
+        BufferPaddingExecutor paddingExecutor = new BufferPaddingExecutor(ringBuffer, second -> Collections.emptyList(), false);
+        ringBuffer.setBufferPaddingExecutor(paddingExecutor);
+        paddingExecutor.stop(Duration.ZERO);
+        return ringBuffer;
+    }
+
+    private static long allocatedFlags(RingBuffer ringBuffer) throws Exception {
+        Field flags = RingBuffer.class.getDeclaredField("flags");
+        flags.setAccessible(true);
+        return Arrays.stream((Object[]) flags.get(ringBuffer)).filter(Objects::nonNull).count();
+    }
+
+    @Test
+    public void flagsAreAllocatedOnFirstPut() throws Exception {
+        RingBuffer ringBuffer = ringBuffer(8);
+        Assertions.assertEquals(0L, allocatedFlags(ringBuffer));
+
+        for (long uid = 0; uid < 3; uid++) {
+            Assertions.assertTrue(ringBuffer.put(uid));
+        }
+        Assertions.assertEquals(3L, allocatedFlags(ringBuffer));
+        Assertions.assertEquals(0L, ringBuffer.take());
+    }
+
+    @Test
+    public void fullBufferRejectsPutsAcrossTheWrap() throws Exception {
+        AtomicInteger rejectedPuts = new AtomicInteger();
+        RingBuffer ringBuffer = ringBuffer(8);
+        ringBuffer.setRejectedPutHandler((buffer, uid) -> rejectedPuts.incrementAndGet());
+
+        for (long uid = 0; uid < 8; uid++) {
+            Assertions.assertTrue(ringBuffer.put(uid));
+        }
+        Assertions.assertFalse(ringBuffer.put(8L));
+        Assertions.assertEquals(1, rejectedPuts.get());
+
+        // slots taken are put again with their flags reused, one slot is kept between tail and cursor
+        Assertions.assertEquals(0L, ringBuffer.take());
+        Assertions.assertEquals(1L, ringBuffer.take());
+        Assertions.assertTrue(ringBuffer.put(8L));
+        Assertions.assertFalse(ringBuffer.put(9L));
+        Assertions.assertEquals(2, rejectedPuts.get());
+        Assertions.assertEquals(8L, allocatedFlags(ringBuffer));
+
+        long[] uids = new long[7];
+        Assertions.assertEquals(7, ringBuffer.take(uids, 0, 7));
+        Assertions.assertArrayEquals(new long[]{2, 3, 4, 5, 6, 7, 8}, uids);
+    }
+
+    @Test
+    public void takesSeeFlagsPutByAnotherThread() throws Exception {
+        RingBuffer ringBuffer = ringBuffer(1 << 10);
+        int total = 1 << 16;
+        Thread producer = new Thread(() -> {
+            for (long uid = 0; uid < total; ) {
+                if (ringBuffer.put(uid)) {
+                    uid++;
+                } else {
+                    Thread.onSpinWait();
+                }
+            }
+        });
+        ringBuffer.setRejectedPutHandler((buffer, uid) -> {
+        });
+        producer.start();
+
+        long[] uids = new long[64];
+        long expected = 0;
+        while (expected < total) {
+            int taken = ringBuffer.poll(uids, 0, uids.length);
+            for (int i = 0; i < taken; i++) {
+                Assertions.assertEquals(expected++, uids[i]);
+            }
+        }
+        producer.join();
+    }
+
+}
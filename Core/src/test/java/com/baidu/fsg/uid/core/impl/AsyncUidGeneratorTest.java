@@ -0,0 +1,83 @@
+package com.baidu.fsg.uid.core.impl;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.baidu.fsg.uid.core.GeneratorProperties;
+import com.baidu.fsg.uid.core.exception.UidGenerateException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AsyncUidGeneratorTest {
+
+    @Test
+    public void failsFastUntilReady() throws Exception {
+        CountDownLatch assigned = new CountDownLatch(1);
+        AsyncUidGenerator generator = new AsyncUidGenerator(() -> new DefaultUidGenerator(() -> {
+            try {
+                assigned.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 1L;
+        }, new GeneratorProperties()), Duration.ofMillis(50));
+        try {
+            Assertions.assertFalse(generator.isReady());
+            Assertions.assertFalse(generator.awaitReady(Duration.ofMillis(10)));
+            Assertions.assertThrows(UidGenerateException.class, generator::getUID);
+
+            assigned.countDown();
+            Assertions.assertTrue(generator.awaitReady(Duration.ofSeconds(10)));
+            Assertions.assertTrue(generator.isReady());
+            long uid = generator.getUID();
+            Assertions.assertTrue(generator.parseUID(uid).contains("\"workerId\":\"1\""));
+        } finally {
+            generator.close();
+        }
+    }
+
+    @Test
+    public void failedBuildIsReported() {
+        AsyncUidGenerator generator = new AsyncUidGenerator(() -> {
+            throw new IllegalStateException("No worker id");
+        }, Duration.ofSeconds(10));
+        Assertions.assertFalse(generator.awaitReady(Duration.ofSeconds(10)));
+        Assertions.assertFalse(generator.isReady());
+        Assertions.assertTrue(generator.readiness().isCompletedExceptionally());
+        UidGenerateException e = Assertions.assertThrows(UidGenerateException.class, generator::getUID);
+        Assertions.assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    public void closesDelegateBuiltAfterClose() throws Exception {
+        CountDownLatch building = new CountDownLatch(1);
+        AtomicBoolean closed = new AtomicBoolean();
+        AsyncUidGenerator generator = new AsyncUidGenerator(() -> {
+            try {
+                building.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new DefaultUidGenerator(() -> 1L, new GeneratorProperties()) {
+                @Override
+                public void close() {
+                    closed.set(true);
+                    super.close();
+                }
+            };
+        }, Duration.ofSeconds(10));
+
+        generator.close();
+        Assertions.assertFalse(closed.get());
+        building.countDown();
+        generator.awaitReady(Duration.ofSeconds(10));
+        generator.readiness().join();
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!closed.get() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertTrue(closed.get());
+    }
+
+}
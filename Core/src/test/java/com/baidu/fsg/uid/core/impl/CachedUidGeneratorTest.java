@@ -0,0 +1,56 @@
+package com.baidu.fsg.uid.core.impl;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.baidu.fsg.uid.core.CacheGeneratorProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CachedUidGeneratorTest {
+
+    private static CacheGeneratorProperties properties(boolean lazyFill) {
+        CacheGeneratorProperties properties = new CacheGeneratorProperties();
+        properties.setBoostPower(8).setLazyFill(lazyFill).setScheduleInterval(null);
+        return properties;
+    }
+
+    @Test
+    public void eagerFillPadsAllSlots() {
+        try (CachedUidGenerator generator = new CachedUidGenerator(() -> 1L, properties(false))) {
+            Assertions.assertEquals(100, generator.getFillPercent());
+        }
+    }
+
+    @Test
+    public void lazyFillPadsOneSecondThenTheRestInBackground() {
+        try (CachedUidGenerator generator = new CachedUidGenerator(() -> 1L, properties(true))) {
+            // one second of 8192 UIDs in 2M slots at first
+            long firstTail = generator.getRingBuffer().getTail();
+            Assertions.assertTrue(firstTail + 1 < generator.getRingBuffer().getBufferSize());
+
+            Set<Long> uids = new HashSet<>();
+            for (int i = 0; i < 10_000; i++) {
+                Assertions.assertTrue(uids.add(generator.getUID()));
+            }
+            Assertions.assertTrue(generator.awaitFill(100, Duration.ofSeconds(30)));
+        }
+    }
+
+    @Test
+    public void fillPercentIsRoundedUp() {
+        try (CachedUidGenerator generator = new CachedUidGenerator(() -> 1L, properties(false))) {
+            generator.stopPadding(Duration.ofSeconds(10));
+            int bufferSize = generator.getRingBuffer().getBufferSize();
+            for (int i = 0; i < bufferSize - 1; i++) {
+                generator.getUID();
+            }
+            // a single UID left
+            Assertions.assertEquals(1, generator.getFillPercent());
+            generator.getUID();
+            Assertions.assertEquals(0, generator.getFillPercent());
+        }
+    }
+
+}
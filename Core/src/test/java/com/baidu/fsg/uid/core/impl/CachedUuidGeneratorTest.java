@@ -0,0 +1,70 @@
+package com.baidu.fsg.uid.core.impl;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import com.baidu.fsg.uid.core.CacheGeneratorProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CachedUuidGeneratorTest {
+
+    private static CacheGeneratorProperties properties() {
+        CacheGeneratorProperties properties = new CacheGeneratorProperties();
+        properties.setWorkerBits(16).setSeqBits(10);
+        properties.setBoostPower(1);
+        return properties;
+    }
+
+    @Test
+    public void issuesMonotonicVersion7Uuids() {
+        try (CachedUuidGenerator generator = new CachedUuidGenerator(() -> 5L, properties())) {
+            Set<UUID> uuids = new HashSet<>();
+            UUID last = null;
+            for (int i = 0; i < 10000; i++) {
+                UUID uuid = generator.getUUID();
+                Assertions.assertEquals(7, uuid.version());
+                Assertions.assertEquals(2, uuid.variant());
+                if (last != null) {
+                    Assertions.assertTrue(Long.compareUnsigned(uuid.getMostSignificantBits(), last.getMostSignificantBits()) > 0,
+                            "UUIDs of one worker must be monotonic");
+                }
+                Assertions.assertTrue(uuids.add(uuid));
+                last = uuid;
+            }
+            Assertions.assertTrue(generator.parseUUID(last).contains("\"workerId\":\"5\""));
+        }
+    }
+
+    @Test
+    public void writesBothHalvesWithoutAllocation() {
+        try (CachedUuidGenerator generator = new CachedUuidGenerator(() -> 5L, properties())) {
+            long[] dst = new long[4];
+            generator.getUUID(dst, 1);
+            UUID next = generator.getUUID();
+            Assertions.assertEquals(next.getLeastSignificantBits(), dst[2]);
+            Assertions.assertTrue(Long.compareUnsigned(next.getMostSignificantBits(), dst[1]) > 0);
+        }
+    }
+
+    @Test
+    public void keepsWorkersAndInstancesApart() {
+        try (CachedUuidGenerator first = new CachedUuidGenerator(() -> 5L, properties());
+             CachedUuidGenerator restarted = new CachedUuidGenerator(() -> 5L, properties());
+             CachedUuidGenerator other = new CachedUuidGenerator(() -> 6L, properties())) {
+            long least = first.getUUID().getLeastSignificantBits();
+            Assertions.assertNotEquals(least, restarted.getUUID().getLeastSignificantBits());
+            Assertions.assertNotEquals(least, other.getUUID().getLeastSignificantBits());
+        }
+    }
+
+    @Test
+    public void rejectsTooManyBits() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new CachedUuidGenerator(() -> 1L, (CacheGeneratorProperties) properties().setSeqBits(22)));
+        Assertions.assertThrows(RuntimeException.class,
+                () -> new CachedUuidGenerator(() -> 1L << 16, properties()));
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.baidu.fsg.uid.core.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.baidu.fsg.uid.core.CacheGeneratorProperties;
+import com.baidu.fsg.uid.core.GeneratorProperties;
+import com.baidu.fsg.uid.core.exception.UidGenerateException;
+import com.baidu.fsg.uid.core.worker.WorkerIdAssigner;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class HighWaterMarkTest {
+
+    /**
+     * Assigner keeping the mark in memory, whose saves can be failed
+     */
+    private static class MarkAssigner implements WorkerIdAssigner {
+        private final AtomicLong saved;
+        private volatile boolean failing;
+
+        private MarkAssigner(long saved) {
+            this.saved = new AtomicLong(saved);
+        }
+
+        @Override
+        public long assignWorkerId() {
+            return 1L;
+        }
+
+        @Override
+        public long getHighWaterMark(long workerId) {
+            return saved.get();
+        }
+
+        @Override
+        public void saveHighWaterMark(long workerId, long second) {
+            if (failing) {
+                throw new IllegalStateException("Storage is down");
+            }
+            saved.accumulateAndGet(second, Math::max);
+        }
+    }
+
+    /**
+     * Generator on a clock of the test
+     */
+    private static class ClockedUidGenerator extends DefaultUidGenerator {
+        private static final AtomicLong CLOCK = new AtomicLong();
+
+        private ClockedUidGenerator(WorkerIdAssigner workerIdAssigner, GeneratorProperties properties) {
+            super(workerIdAssigner, properties);
+        }
+
+        @Override
+        protected long getCurrentSecond() {
+            return CLOCK.get();
+        }
+    }
+
+    private static long now() {
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    }
+
+    private static long secondOf(DefaultUidGenerator generator, long uid) {
+        return (uid >>> (generator.getBitsAllocator().getWorkerIdBits() + generator.getBitsAllocator().getSequenceBits()))
+                + generator.getEpochSeconds();
+    }
+
+    @Test
+    public void reservesAheadAndRefusesPastTheReservation() {
+        long start = now();
+        ClockedUidGenerator.CLOCK.set(start);
+        MarkAssigner assigner = new MarkAssigner(-1L);
+        try (DefaultUidGenerator generator = new ClockedUidGenerator(assigner, new GeneratorProperties().setCheckpointInterval(10L))) {
+            // reserved before the first UID
+            Assertions.assertTrue(assigner.saved.get() >= start + 10);
+            Assertions.assertEquals(start, secondOf(generator, generator.getUID()));
+
+            // the clock passes the reservation while the storage is down
+            assigner.failing = true;
+            ClockedUidGenerator.CLOCK.set(assigner.saved.get() + 1);
+            Assertions.assertThrows(UidGenerateException.class, generator::getUID);
+            Assertions.assertEquals(0L, generator.getClockBackwardsCount());
+
+            assigner.failing = false;
+            long uid = generator.getUID();
+            Assertions.assertEquals(ClockedUidGenerator.CLOCK.get(), secondOf(generator, uid));
+            Assertions.assertTrue(assigner.saved.get() >= ClockedUidGenerator.CLOCK.get() + 10);
+        }
+    }
+
+    @Test
+    public void resumeWaitsForTheClockWithoutCountingBackwards() {
+        long mark = now() + 1;
+        try (DefaultUidGenerator generator = new DefaultUidGenerator(new MarkAssigner(mark), new GeneratorProperties())) {
+            long uid = generator.getUID();
+            Assertions.assertTrue(secondOf(generator, uid) > mark);
+            Assertions.assertEquals(0L, generator.getClockBackwardsCount());
+        }
+    }
+
+    @Test
+    public void clockBackwardsAfterResumeIsStillRefused() {
+        long start = now();
+        ClockedUidGenerator.CLOCK.set(start);
+        try (DefaultUidGenerator generator = new ClockedUidGenerator(new MarkAssigner(start - 10), new GeneratorProperties())) {
+            generator.getUID();
+            ClockedUidGenerator.CLOCK.set(start - 1);
+            Assertions.assertThrows(UidGenerateException.class, generator::getUID);
+            Assertions.assertEquals(1L, generator.getClockBackwardsCount());
+        }
+    }
+
+    @Test
+    public void paddingNeverBorrowsPastTheReservation() {
+        MarkAssigner assigner = new MarkAssigner(-1L);
+        CacheGeneratorProperties properties = new CacheGeneratorProperties();
+        properties.setScheduleInterval(null).setBoostPower(1);
+        properties.setCheckpointInterval(1L);
+        try (CachedUidGenerator generator = new CachedUidGenerator(assigner, properties)) {
+            // the initial fill borrows ahead of the clock, each borrowed second is reserved
+            Assertions.assertTrue(generator.getHighWaterSecond() <= assigner.saved.get());
+
+            assigner.failing = true;
+            long reserved = assigner.saved.get();
+            Assertions.assertThrows(UidGenerateException.class, () -> {
+                while (true) {
+                    generator.getUID();
+                }
+            });
+            Assertions.assertTrue(generator.getHighWaterSecond() <= reserved);
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.baidu.fsg.uid.core.impl;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.baidu.fsg.uid.core.CacheGeneratorProperties;
+import com.baidu.fsg.uid.core.GeneratorProperties;
+import com.baidu.fsg.uid.core.exception.UidGenerateException;
+import com.baidu.fsg.uid.core.worker.LeaseListener;
+import com.baidu.fsg.uid.core.worker.WorkerIdAssigner;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LeaseFencingTest {
+
+    private final AtomicReference<LeaseListener> listener = new AtomicReference<>();
+
+    private final WorkerIdAssigner assigner = new WorkerIdAssigner() {
+        @Override
+        public long assignWorkerId() {
+            return 1L;
+        }
+
+        @Override
+        public void watchLease(long workerId, LeaseListener leaseListener) {
+            listener.set(leaseListener);
+        }
+    };
+
+    @Test
+    public void defaultGeneratorRefusesWhileLeaseIsLost() {
+        try (DefaultUidGenerator generator = new DefaultUidGenerator(assigner, new GeneratorProperties())) {
+            generator.getUID();
+
+            listener.get().onLease(1L, false);
+            Assertions.assertTrue(generator.isFenced());
+            Assertions.assertThrows(UidGenerateException.class, generator::getUID);
+
+            listener.get().onLease(1L, true);
+            Assertions.assertFalse(generator.isFenced());
+            generator.getUID();
+        }
+    }
+
+    @Test
+    public void cachedGeneratorRefusesBufferedUids() {
+        CacheGeneratorProperties properties = new CacheGeneratorProperties();
+        properties.setScheduleInterval(null);
+        try (CachedUidGenerator generator = new CachedUidGenerator(assigner, properties)) {
+            long uid = generator.getUID();
+
+            listener.get().onLease(1L, false);
+            Assertions.assertThrows(UidGenerateException.class, generator::getUID);
+            Assertions.assertThrows(UidGenerateException.class, generator::getCriticalUID);
+            Assertions.assertThrows(UidGenerateException.class, () -> generator.getUIDs(new long[8], 0, 8));
+
+            // nothing was taken while fenced
+            listener.get().onLease(1L, true);
+            Assertions.assertEquals(uid + 1, generator.getUID());
+        }
+    }
+
+    @Test
+    public void fencedFromTheStartWhenLeaseIsAlreadyLost() {
+        WorkerIdAssigner lost = new WorkerIdAssigner() {
+            @Override
+            public long assignWorkerId() {
+                return 1L;
+            }
+
+            @Override
+            public void watchLease(long workerId, LeaseListener leaseListener) {
+                leaseListener.onLease(workerId, false);
+            }
+        };
+        CacheGeneratorProperties properties = new CacheGeneratorProperties();
+        properties.setScheduleInterval(null);
+        try (CachedUidGenerator generator = new CachedUidGenerator(lost, properties)) {
+            Assertions.assertTrue(generator.isFenced());
+            Assertions.assertThrows(UidGenerateException.class, generator::getUID);
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.baidu.fsg.uid.core.impl;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.baidu.fsg.uid.core.CacheGeneratorProperties;
+import com.baidu.fsg.uid.core.buffer.RejectedTakePolicy;
+import com.baidu.fsg.uid.core.exception.UidGenerateException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RejectedTakePolicyTest {
+
+    private static CacheGeneratorProperties properties(RejectedTakePolicy policy, int reservedPoolSize) {
+        CacheGeneratorProperties properties = new CacheGeneratorProperties();
+        properties.setBoostPower(1).setScheduleInterval(null);
+        properties.setRejectedTakePolicy(policy).setReservedPoolSize(reservedPoolSize);
+        return properties;
+    }
+
+    /**
+     * Stop padding, then take all UIDs of the RingBuffer, so every next take is rejected
+     */
+    private static void starve(CachedUidGenerator generator, Set<Long> uids) {
+        generator.stopPadding(Duration.ofSeconds(10));
+        while (generator.getFillPercent() > 0) {
+            Assertions.assertTrue(uids.add(generator.getUID()), "Duplicate UID");
+        }
+    }
+
+    @Test
+    public void exceptionPolicyFailsOnceStarved() {
+        try (CachedUidGenerator generator = new CachedUidGenerator(() -> 1L, properties(RejectedTakePolicy.EXCEPTION, 0))) {
+            starve(generator, new HashSet<>());
+
+            Assertions.assertThrows(UidGenerateException.class, generator::getUID);
+            Assertions.assertThrows(UidGenerateException.class, generator::getCriticalUID);
+            Assertions.assertEquals(2L, generator.getRingBuffer().getMetrics().getRejectedTakeCount());
+        }
+    }
+
+    @Test
+    public void callerRunsPolicyPadsInTheCaller() {
+        try (CachedUidGenerator generator = new CachedUidGenerator(() -> 1L, properties(RejectedTakePolicy.CALLER_RUNS, 0))) {
+            Set<Long> uids = new HashSet<>();
+            starve(generator, uids);
+
+            // more than the seconds of the buffer, padded one second at a time by the caller
+            int bufferSize = generator.getRingBuffer().getBufferSize();
+            for (int i = 0; i < bufferSize * 2; i++) {
+                Assertions.assertTrue(uids.add(generator.getUID()), "Duplicate UID");
+            }
+            Assertions.assertTrue(generator.getRingBuffer().getMetrics().getRejectedTakeCount() >= 4);
+        }
+    }
+
+    @Test
+    public void directPolicyIssuesOutOfTheBuffer() {
+        try (CachedUidGenerator generator = new CachedUidGenerator(() -> 1L, properties(RejectedTakePolicy.DIRECT, 0))) {
+            Set<Long> uids = new HashSet<>();
+            starve(generator, uids);
+
+            int bufferSize = generator.getRingBuffer().getBufferSize();
+            for (int i = 0; i < bufferSize * 2; i++) {
+                Assertions.assertTrue(uids.add(generator.getUID()), "Duplicate UID");
+            }
+            Assertions.assertEquals(0, generator.getFillPercent());
+        }
+    }
+
+    @Test
+    public void criticalUidsAreServedByTheReservedPoolBeyondItsSize() {
+        try (CachedUidGenerator generator = new CachedUidGenerator(() -> 1L, properties(RejectedTakePolicy.EXCEPTION, 16))) {
+            Set<Long> uids = new HashSet<>();
+            starve(generator, uids);
+            Assertions.assertThrows(UidGenerateException.class, generator::getUID);
+
+            // the pool serves its whole second, then the caller borrows the next ones
+            int secondSize = generator.getRingBuffer().getBufferSize() / 2;
+            for (int i = 0; i < secondSize * 3; i++) {
+                Assertions.assertTrue(uids.add(generator.getCriticalUID()), "Duplicate UID");
+            }
+            Assertions.assertThrows(UidGenerateException.class, generator::getUID);
+        }
+    }
+
+    @Test
+    public void criticalUidsAreTakenFromTheBufferFirst() {
+        try (CachedUidGenerator generator = new CachedUidGenerator(() -> 1L, properties(RejectedTakePolicy.EXCEPTION, 16))) {
+            long cursor = generator.getRingBuffer().getCursor();
+            generator.getCriticalUID();
+            Assertions.assertEquals(cursor + 1, generator.getRingBuffer().getCursor());
+            Assertions.assertEquals(0L, generator.getRingBuffer().getMetrics().getRejectedTakeCount());
+        }
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.baidu.fsg.uid.core.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.baidu.fsg.uid.core.GeneratorProperties;
+import com.baidu.fsg.uid.core.exception.UidGenerateException;
+import com.baidu.fsg.uid.core.worker.LeaseListener;
+import com.baidu.fsg.uid.core.worker.WorkerIdAssigner;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class StripedUidGeneratorTest {
+
+    /**
+     * Assigner keeping the mark in memory, whose saves can be failed, and whose lease can be lost
+     */
+    private static class MarkAssigner implements WorkerIdAssigner {
+        private final AtomicLong saved;
+        private final AtomicReference<LeaseListener> listener = new AtomicReference<>();
+        private volatile boolean failing;
+
+        private MarkAssigner(long saved) {
+            this.saved = new AtomicLong(saved);
+        }
+
+        @Override
+        public long assignWorkerId() {
+            return 1L;
+        }
+
+        @Override
+        public void watchLease(long workerId, LeaseListener leaseListener) {
+            listener.set(leaseListener);
+        }
+
+        @Override
+        public long getHighWaterMark(long workerId) {
+            return saved.get();
+        }
+
+        @Override
+        public void saveHighWaterMark(long workerId, long second) {
+            if (failing) {
+                throw new IllegalStateException("Storage is down");
+            }
+            saved.accumulateAndGet(second, Math::max);
+        }
+    }
+
+    /**
+     * Generator on a clock of the test
+     */
+    private static class ClockedUidGenerator extends StripedUidGenerator {
+        private static final AtomicLong CLOCK = new AtomicLong();
+
+        private ClockedUidGenerator(WorkerIdAssigner workerIdAssigner, GeneratorProperties properties) {
+            super(workerIdAssigner, properties, 4);
+        }
+
+        @Override
+        protected long getCurrentSecond() {
+            return CLOCK.get();
+        }
+    }
+
+    private static long now() {
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    }
+
+    private static long secondOf(DefaultUidGenerator generator, long uid) {
+        return (uid >>> (generator.getBitsAllocator().getWorkerIdBits() + generator.getBitsAllocator().getSequenceBits()))
+                + generator.getEpochSeconds();
+    }
+
+    @Test
+    public void stripesNeverShareUids() throws Exception {
+        Set<Long> uids = ConcurrentHashMap.newKeySet();
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        GeneratorProperties properties = new GeneratorProperties().setTimeBits(31).setWorkerBits(10).setSeqBits(22);
+        try (StripedUidGenerator generator = new StripedUidGenerator(() -> 1L, properties, 4)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(threads.submit((Callable<Void>) () -> {
+                    long[] block = new long[100];
+                    for (int i = 0; i < 100; i++) {
+                        generator.getUIDs(block, 0, block.length);
+                        for (long uid : block) {
+                            Assertions.assertTrue(uids.add(uid), "Duplicate UID");
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+        Assertions.assertEquals(80_000, uids.size());
+    }
+
+    @Test
+    public void refusesWhileLeaseIsLost() {
+        MarkAssigner assigner = new MarkAssigner(-1L);
+        try (StripedUidGenerator generator = new StripedUidGenerator(assigner, new GeneratorProperties(), 4)) {
+            generator.getUID();
+
+            assigner.listener.get().onLease(1L, false);
+            Assertions.assertThrows(UidGenerateException.class, generator::getUID);
+            Assertions.assertThrows(UidGenerateException.class, () -> generator.getUIDs(new long[8], 0, 8));
+
+            assigner.listener.get().onLease(1L, true);
+            generator.getUID();
+        }
+    }
+
+    @Test
+    public void refusesPastTheReservation() {
+        long start = now();
+        ClockedUidGenerator.CLOCK.set(start);
+        MarkAssigner assigner = new MarkAssigner(-1L);
+        try (StripedUidGenerator generator = new ClockedUidGenerator(assigner, new GeneratorProperties().setCheckpointInterval(10L))) {
+            Assertions.assertTrue(assigner.saved.get() >= start + 10);
+            Assertions.assertEquals(start, secondOf(generator, generator.getUID()));
+
+            // the clock passes the reservation while the storage is down
+            assigner.failing = true;
+            ClockedUidGenerator.CLOCK.set(assigner.saved.get() + 1);
+            Assertions.assertThrows(UidGenerateException.class, generator::getUID);
+            Assertions.assertEquals(0L, generator.getClockBackwardsCount());
+
+            assigner.failing = false;
+            Assertions.assertEquals(ClockedUidGenerator.CLOCK.get(), secondOf(generator, generator.getUID()));
+            Assertions.assertTrue(assigner.saved.get() >= ClockedUidGenerator.CLOCK.get() + 10);
+        }
+    }
+
+    @Test
+    public void resumeWaitsForTheClockWithoutCountingBackwards() {
+        long mark = now() + 1;
+        try (StripedUidGenerator generator = new StripedUidGenerator(new MarkAssigner(mark), new GeneratorProperties(), 4)) {
+            long uid = generator.getUID();
+            Assertions.assertTrue(secondOf(generator, uid) > mark);
+            Assertions.assertEquals(0L, generator.getClockBackwardsCount());
+        }
+    }
+
+}
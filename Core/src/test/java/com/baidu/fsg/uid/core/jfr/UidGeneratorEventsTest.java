@@ -0,0 +1,144 @@
+package com.baidu.fsg.uid.core.jfr;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.baidu.fsg.uid.core.CacheGeneratorProperties;
+import com.baidu.fsg.uid.core.GeneratorProperties;
+import com.baidu.fsg.uid.core.buffer.BufferPaddingExecutor;
+import com.baidu.fsg.uid.core.buffer.RingBuffer;
+import com.baidu.fsg.uid.core.exception.UidGenerateException;
+import com.baidu.fsg.uid.core.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.core.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.core.worker.WorkerIdAssigner;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class UidGeneratorEventsTest {
+
+    @TempDir
+    private Path dir;
+
+    /**
+     * Generator on a clock of the test
+     */
+    private static class ClockedUidGenerator extends DefaultUidGenerator {
+        private final AtomicLong clock;
+
+        private ClockedUidGenerator(WorkerIdAssigner workerIdAssigner, AtomicLong clock) {
+            super(workerIdAssigner, new GeneratorProperties());
+            this.clock = clock;
+        }
+
+        @Override
+        protected long getCurrentSecond() {
+            return clock != null ? clock.get() : super.getCurrentSecond();
+        }
+    }
+
+    /**
+     * Record the events of the UID generator while running the action
+     */
+    private List<RecordedEvent> record(Runnable action) throws Exception {
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("ClockBackwards", "NextSecondWait", "Padding", "PaddingThreshold",
+                    "RejectedPut", "RejectedTake")) {
+                recording.enable("com.baidu.fsg.uid." + name).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+
+            Path file = dir.resolve("uid.jfr");
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        }
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals("com.baidu.fsg.uid." + name)).toList();
+    }
+
+    @Test
+    public void recordsClockBackwards() throws Exception {
+        long now = System.currentTimeMillis() / 1000;
+        AtomicLong clock = new AtomicLong(now);
+        List<RecordedEvent> events = record(() -> {
+            try (DefaultUidGenerator generator = new ClockedUidGenerator(() -> 1L, clock)) {
+                generator.getUID();
+                clock.set(now - 2);
+                Assertions.assertThrows(UidGenerateException.class, generator::getUID);
+            }
+        });
+
+        List<RecordedEvent> backwards = named(events, "ClockBackwards");
+        Assertions.assertEquals(1, backwards.size());
+        Assertions.assertEquals(now, backwards.get(0).getLong("lastSecond"));
+        Assertions.assertEquals(now - 2, backwards.get(0).getLong("currentSecond"));
+    }
+
+    @Test
+    public void recordsNextSecondWait() throws Exception {
+        // 16 UIDs a second, the 17th waits for the next second
+        GeneratorProperties properties = new GeneratorProperties().setWorkerBits(28).setSeqBits(4);
+        List<RecordedEvent> events = record(() -> {
+            try (DefaultUidGenerator generator = new DefaultUidGenerator(() -> 1L, properties)) {
+                for (int i = 0; i < 17; i++) {
+                    generator.getUID();
+                }
+            }
+        });
+
+        List<RecordedEvent> waits = named(events, "NextSecondWait");
+        Assertions.assertFalse(waits.isEmpty());
+        RecordedEvent wait = waits.get(0);
+        Assertions.assertTrue(wait.getLong("nextSecond") > wait.getLong("lastSecond"));
+    }
+
+    @Test
+    public void recordsPaddingUntilTheBufferIsFull() throws Exception {
+        CacheGeneratorProperties properties = new CacheGeneratorProperties();
+        properties.setScheduleInterval(null).setBoostPower(1);
+        List<RecordedEvent> events = record(() -> {
+            try (CachedUidGenerator generator = new CachedUidGenerator(() -> 1L, properties)) {
+                generator.getUID();
+            }
+        });
+
+        List<RecordedEvent> paddings = named(events, "Padding");
+        Assertions.assertFalse(paddings.isEmpty());
+        Assertions.assertTrue(paddings.get(0).getLong("uidsAdded") > 0);
+        Assertions.assertTrue(paddings.get(0).getLong("secondsConsumed") > 0);
+        // each padding ends with a rejected put
+        Assertions.assertFalse(named(events, "RejectedPut").isEmpty());
+    }
+
+    @Test
+    public void recordsThresholdAndRejectedTake() throws Exception {
+        RingBuffer ringBuffer = new RingBuffer(8);
+        BufferPaddingExecutor paddingExecutor = new BufferPaddingExecutor(ringBuffer, second -> Collections.emptyList(), false);
+        ringBuffer.setBufferPaddingExecutor(paddingExecutor);
+        ringBuffer.setRejectedTakeHandler(buffer -> {
+            throw new UidGenerateException("Rejected take");
+        });
+        paddingExecutor.stop(Duration.ZERO);
+
+        List<RecordedEvent> events = record(() -> {
+            ringBuffer.put(1L);
+            Assertions.assertEquals(1L, ringBuffer.take());
+            Assertions.assertThrows(UidGenerateException.class, ringBuffer::take);
+        });
+
+        RecordedEvent threshold = named(events, "PaddingThreshold").get(0);
+        Assertions.assertEquals(ringBuffer.getPaddingThreshold(), threshold.getLong("threshold"));
+        Assertions.assertEquals(1, named(events, "RejectedTake").size());
+    }
+
+}
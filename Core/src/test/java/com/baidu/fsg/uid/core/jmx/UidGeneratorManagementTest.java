@@ -0,0 +1,59 @@
+package com.baidu.fsg.uid.core.jmx;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.baidu.fsg.uid.core.CacheGeneratorProperties;
+import com.baidu.fsg.uid.core.GeneratorProperties;
+import com.baidu.fsg.uid.core.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.core.impl.DefaultUidGenerator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class UidGeneratorManagementTest {
+
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+    private static ObjectName objectName(String type, long workerId, String name) throws Exception {
+        return new ObjectName(UidGeneratorManagement.DOMAIN + ":type=" + type + ",worker=" + workerId + ",name=" + name);
+    }
+
+    @Test
+    public void generatorsOfOneWorkerAreRegisteredByName() throws Exception {
+        try (DefaultUidGenerator orders = new DefaultUidGenerator(() -> 1L, new GeneratorProperties().setJmxEnabled(true).setName("orders"));
+             DefaultUidGenerator payments = new DefaultUidGenerator(() -> 1L, new GeneratorProperties().setJmxEnabled(true).setName("payments"))) {
+            ObjectName ordersName = objectName("DefaultUidGenerator", 1L, "orders");
+            Assertions.assertTrue(server.isRegistered(ordersName));
+            Assertions.assertTrue(server.isRegistered(objectName("DefaultUidGenerator", 1L, "payments")));
+            Assertions.assertEquals("orders", server.getAttribute(ordersName, "Name"));
+            Assertions.assertEquals(1L, server.getAttribute(ordersName, "WorkerId"));
+
+            orders.close();
+            Assertions.assertFalse(server.isRegistered(ordersName));
+        }
+    }
+
+    @Test
+    public void unnamedGeneratorsAreNumbered() throws Exception {
+        CacheGeneratorProperties properties = new CacheGeneratorProperties();
+        properties.setScheduleInterval(null);
+        properties.setJmxEnabled(true);
+        try (CachedUidGenerator first = new CachedUidGenerator(() -> 2L, properties);
+             CachedUidGenerator second = new CachedUidGenerator(() -> 2L, properties)) {
+            Assertions.assertNotEquals(first.getName(), second.getName());
+            Assertions.assertTrue(server.isRegistered(objectName("CachedUidGenerator", 2L, first.getName())));
+            Assertions.assertTrue(server.isRegistered(objectName("CachedUidGenerator", 2L, second.getName())));
+        }
+    }
+
+    @Test
+    public void reservedCharactersAreQuoted() throws Exception {
+        try (DefaultUidGenerator generator = new DefaultUidGenerator(() -> 3L,
+                new GeneratorProperties().setJmxEnabled(true).setName("a,b=c"))) {
+            Assertions.assertTrue(server.isRegistered(objectName("DefaultUidGenerator", 3L, ObjectName.quote("a,b=c"))));
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.baidu.fsg.uid.core.worker;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+import com.baidu.fsg.uid.core.GeneratorProperties;
+import com.baidu.fsg.uid.core.exception.UidGenerateException;
+import com.baidu.fsg.uid.core.impl.DefaultUidGenerator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileWorkerNodeStorageTest {
+
+    @TempDir
+    private Path dir;
+
+    private static long lease(FileWorkerNodeStorage storage) {
+        WorkerNode workerNode = new WorkerNode();
+        storage.addWorkerNode(workerNode);
+        return workerNode.getId();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    public void leasesDistinctIdsUnderTheFileLock() throws Exception {
+        Path file = dir.resolve("worker-nodes");
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try (FileWorkerNodeStorage first = new FileWorkerNodeStorage(file, 1000);
+             FileWorkerNodeStorage second = new FileWorkerNodeStorage(file, 1000)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                FileWorkerNodeStorage storage = t % 2 == 0 ? first : second;
+                futures.add(threads.submit((Callable<Void>) () -> {
+                    start.await();
+                    for (int i = 0; i < 50; i++) {
+                        Assertions.assertTrue(ids.add(lease(storage)), "Duplicate worker id");
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+        Assertions.assertEquals(400, ids.size());
+    }
+
+    @Test
+    public void freedIdResumesAboveItsHighWaterMark() {
+        Path file = dir.resolve("worker-nodes");
+        long id;
+        try (FileWorkerNodeStorage storage = new FileWorkerNodeStorage(file, 8)) {
+            id = lease(storage);
+            Assertions.assertEquals(-1L, storage.getHighWaterMark(id));
+            storage.saveHighWaterMark(id, 100L);
+            storage.saveHighWaterMark(id, 90L);
+        }
+
+        try (FileWorkerNodeStorage storage = new FileWorkerNodeStorage(file, 8)) {
+            Assertions.assertEquals(id, lease(storage));
+            Assertions.assertEquals(100L, storage.getHighWaterMark(id));
+        }
+    }
+
+    @Test
+    public void reclaimedLeaseFencesTheGenerator() throws Exception {
+        Path file = dir.resolve("worker-nodes");
+        try (FileWorkerNodeStorage slow = new FileWorkerNodeStorage(file, 1, Duration.ofMillis(300), Duration.ofMinutes(1));
+             DefaultUidGenerator generator = new DefaultUidGenerator(new DefaultWorkerIdAssigner(slow), new GeneratorProperties())) {
+            long id = generator.getWorkerId();
+            slow.saveHighWaterMark(id, 100L);
+            generator.getUID();
+
+            // the only id is taken as stale by a process with a shorter stale timeout
+            try (FileWorkerNodeStorage eager = new FileWorkerNodeStorage(file, 1, Duration.ofMillis(50), Duration.ofMillis(100))) {
+                long reclaimed = -1L;
+                while (reclaimed < 0) {
+                    try {
+                        reclaimed = lease(eager);
+                    } catch (IllegalStateException e) {
+                        Thread.sleep(20);
+                    }
+                }
+                Assertions.assertEquals(id, reclaimed);
+                Assertions.assertEquals(100L, eager.getHighWaterMark(id));
+
+                await(generator::isFenced);
+                Assertions.assertThrows(UidGenerateException.class, generator::getUID);
+
+                // the lost lease can't move the mark
+                slow.saveHighWaterMark(id, 200L);
+                Assertions.assertEquals(100L, eager.getHighWaterMark(id));
+            }
+        }
+    }
+
+    @Test
+    public void rejectsFileOfAnotherVersion() throws Exception {
+        Path file = dir.resolve("worker-nodes");
+        byte[] header = new byte[24];
+        header[0] = 0x55;
+        header[1] = 0x49;
+        header[2] = 0x44;
+        header[3] = 0x57;
+        header[7] = 1;
+        Files.write(file, header);
+        try (FileWorkerNodeStorage storage = new FileWorkerNodeStorage(file, 8)) {
+            Assertions.assertThrows(IllegalStateException.class, () -> lease(storage));
+        }
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.baidu.fsg.uid.core.worker;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import com.baidu.fsg.uid.core.GeneratorProperties;
+import com.baidu.fsg.uid.core.exception.UidGenerateException;
+import com.baidu.fsg.uid.core.impl.DefaultUidGenerator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LocalCachedWorkerNodeStorageTest {
+
+    @TempDir
+    private Path dir;
+
+    /**
+     * Storage in memory which can be taken down, and counts the calls
+     */
+    private static class FlakyStorage extends InMemoryWorkerNodeStorage {
+        private volatile boolean down;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private void check() {
+            calls.incrementAndGet();
+            if (down) {
+                throw new IllegalStateException("Storage is down");
+            }
+        }
+
+        @Override
+        public WorkerNode registerWorkerNode(WorkerNode workerNode) {
+            check();
+            return super.registerWorkerNode(workerNode);
+        }
+
+        @Override
+        public long getHighWaterMark(long workerId) {
+            check();
+            return super.getHighWaterMark(workerId);
+        }
+
+        @Override
+        public void saveHighWaterMark(long workerId, long second) {
+            check();
+            super.saveHighWaterMark(workerId, second);
+        }
+    }
+
+    private static WorkerNode node() {
+        return new WorkerNode().setHostName("127.0.0.1").setPort("8080").setType(WorkerNodeType.ACTUAL.value());
+    }
+
+    private static WorkerIdAssigner assigner(WorkerNodeStorage storage) {
+        return new WorkerIdAssigner() {
+            @Override
+            public long assignWorkerId() {
+                return storage.registerWorkerNode(node()).getId();
+            }
+
+            @Override
+            public void watchLease(long workerId, LeaseListener listener) {
+                storage.watchLease(workerId, listener);
+            }
+
+            @Override
+            public long getHighWaterMark(long workerId) {
+                return storage.getHighWaterMark(workerId);
+            }
+        };
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    public void warmStartResumesFromLocalMarkWithoutDelegate() throws Exception {
+        Path file = dir.resolve("worker-node.properties");
+        FlakyStorage delegate = new FlakyStorage();
+        long id;
+        try (LocalCachedWorkerNodeStorage storage = new LocalCachedWorkerNodeStorage(delegate, file, Duration.ofSeconds(2))) {
+            id = storage.registerWorkerNode(node()).getId();
+            storage.saveHighWaterMark(id, 100L);
+        }
+
+        delegate.down = true;
+        int calls = delegate.calls.get();
+        try (LocalCachedWorkerNodeStorage storage = new LocalCachedWorkerNodeStorage(delegate, file, Duration.ofSeconds(2))) {
+            Assertions.assertEquals(id, storage.registerWorkerNode(node()).getId());
+            Assertions.assertEquals(100L, storage.getHighWaterMark(id));
+            // only the revalidation in the background touches the delegate
+            Assertions.assertTrue(delegate.calls.get() - calls <= 1);
+
+            // saved locally even if the delegate is down
+            Assertions.assertThrows(IllegalStateException.class, () -> storage.saveHighWaterMark(id, 120L));
+            Assertions.assertEquals(120L, storage.getHighWaterMark(id));
+
+            // caught up once revalidated
+            delegate.down = false;
+            await(() -> delegate.getHighWaterMark(id) == 120L);
+        }
+    }
+
+    @Test
+    public void markIsKeptWhenExpiredNodeIsRegisteredAgain() throws Exception {
+        Path file = dir.resolve("worker-node.properties");
+        FlakyStorage delegate = new FlakyStorage();
+        long id;
+        try (LocalCachedWorkerNodeStorage storage = new LocalCachedWorkerNodeStorage(delegate, file, Duration.ofMillis(1))) {
+            id = storage.registerWorkerNode(node()).getId();
+            delegate.down = true;
+            Assertions.assertThrows(IllegalStateException.class, () -> storage.saveHighWaterMark(id, 100L));
+        }
+
+        delegate.down = false;
+        Thread.sleep(5);
+        try (LocalCachedWorkerNodeStorage storage = new LocalCachedWorkerNodeStorage(delegate, file, Duration.ofMillis(1))) {
+            Assertions.assertEquals(id, storage.registerWorkerNode(node()).getId());
+            Assertions.assertEquals(100L, storage.getHighWaterMark(id));
+        }
+    }
+
+    @Test
+    public void staleNodeFencesTheGenerator() throws Exception {
+        Path file = dir.resolve("worker-node.properties");
+        try (LocalCachedWorkerNodeStorage storage = new LocalCachedWorkerNodeStorage(new FlakyStorage(), file, Duration.ofMinutes(1))) {
+            storage.registerWorkerNode(node());
+        }
+
+        // the delegate registers another id for the host & port, such as reclaimed by another worker
+        FlakyStorage delegate = new FlakyStorage();
+        delegate.registerWorkerNode(new WorkerNode().setHostName("10.0.0.1").setPort("8080"));
+        try (LocalCachedWorkerNodeStorage storage = new LocalCachedWorkerNodeStorage(delegate, file, Duration.ofMinutes(1));
+             DefaultUidGenerator generator = new DefaultUidGenerator(assigner(storage), new GeneratorProperties())) {
+            await(generator::isFenced);
+            Assertions.assertThrows(UidGenerateException.class, generator::getUID);
+            Assertions.assertFalse(file.toFile().exists());
+        }
+    }
+
+    @Test
+    public void fencedOnceValidityPassesUntilRevalidated() throws Exception {
+        Path file = dir.resolve("worker-node.properties");
+        FlakyStorage delegate = new FlakyStorage();
+        try (LocalCachedWorkerNodeStorage storage = new LocalCachedWorkerNodeStorage(delegate, file, Duration.ofSeconds(1))) {
+            storage.registerWorkerNode(node());
+        }
+
+        delegate.down = true;
+        try (LocalCachedWorkerNodeStorage storage = new LocalCachedWorkerNodeStorage(delegate, file, Duration.ofSeconds(1));
+             DefaultUidGenerator generator = new DefaultUidGenerator(assigner(storage), new GeneratorProperties())) {
+            generator.getUID();
+            await(generator::isFenced);
+            Assertions.assertThrows(UidGenerateException.class, generator::getUID);
+
+            delegate.down = false;
+            await(() -> !generator.isFenced());
+            generator.getUID();
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.baidu.fsg.uid.core.worker;
+
+import java.net.InetAddress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LocalWorkerIdAssignerTest {
+
+    @Test
+    public void maxWorkerIdOfBits() {
+        Assertions.assertEquals(1L, AbstractLocalWorkerIdAssigner.maxWorkerId(1));
+        Assertions.assertEquals(4095L, AbstractLocalWorkerIdAssigner.maxWorkerId(12));
+    }
+
+    @Test
+    public void ordinalOfStatefulSetPod() {
+        Assertions.assertEquals(3L, new OrdinalWorkerIdAssigner("uid-service-3", 0, 4095).assignWorkerId());
+        Assertions.assertEquals(103L, new OrdinalWorkerIdAssigner("uid-service-3", 100, 4095).assignWorkerId());
+        Assertions.assertThrows(RuntimeException.class, () -> new OrdinalWorkerIdAssigner("uid-service", 0, 4095).assignWorkerId());
+        Assertions.assertThrows(RuntimeException.class, () -> new OrdinalWorkerIdAssigner("uid-service-a", 0, 4095).assignWorkerId());
+        // collides with other workers if truncated
+        Assertions.assertThrows(RuntimeException.class, () -> new OrdinalWorkerIdAssigner("uid-service-4096", 0, 4095).assignWorkerId());
+    }
+
+    @Test
+    public void lowestBitsOfAddress() throws Exception {
+        InetAddress ipv4 = InetAddress.getByName("10.1.2.3");
+        Assertions.assertEquals(0x0203L, new IpWorkerIdAssigner(ipv4, 16, 65535).assignWorkerId());
+        Assertions.assertEquals(0x0203L & 0xFFF, new IpWorkerIdAssigner(ipv4, 12, 4095).assignWorkerId());
+
+        InetAddress ipv6 = InetAddress.getByName("fd00::1:abcd");
+        Assertions.assertEquals(0x1ABCDL, new IpWorkerIdAssigner(ipv6, 20, AbstractLocalWorkerIdAssigner.maxWorkerId(20)).assignWorkerId());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new IpWorkerIdAssigner(ipv4, 16, 4095));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new IpWorkerIdAssigner(ipv4, 0, 4095));
+    }
+
+    @Test
+    public void envMissingOrInvalid() {
+        Assertions.assertThrows(RuntimeException.class,
+                () -> new EnvWorkerIdAssigner("UID_WORKER_ID_ABSENT_IN_TESTS", 4095).assignWorkerId());
+        Assertions.assertThrows(RuntimeException.class,
+                () -> new EnvWorkerIdAssigner("PATH", 4095).assignWorkerId());
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.baidu.fsg.uid.hibernate;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection of Hibernate for a native image, registered by <code>META-INF/spring/aot.factories</code>:
+ * {@link UidIdentifierGenerator} is instantiated by its constructor for {@link UidGenerated}
+ */
+public class HibernateRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection().registerType(UidIdentifierGenerator.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+    }
+
+}
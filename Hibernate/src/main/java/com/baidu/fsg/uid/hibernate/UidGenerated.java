@@ -0,0 +1,37 @@
+package com.baidu.fsg.uid.hibernate;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Generate the identifier of the entity by a {@link com.baidu.fsg.uid.core.UidGenerator}, see
+ * {@link UidIdentifierGenerator}. The identifier is of <code>long</code>, {@link Long} or {@link String}<p>
+ *
+ * <pre>
+ * &#64;Id
+ * &#64;UidGenerated("orders")
+ * private Long id;
+ * </pre>
+ */
+@IdGeneratorType(UidIdentifierGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface UidGenerated {
+
+    /**
+     * Bean name of the {@link com.baidu.fsg.uid.core.UidGenerator}, such as a named generator of the starter.
+     * Empty for the primary one
+     */
+    String value() default "";
+
+    /**
+     * UIDs taken by each thread at once. Negative for <code>hibernate.jdbc.batch_size</code>, so each batch of
+     * inserts costs one access to the generator, 0 or 1 for no prefetch
+     */
+    int prefetch() default -1;
+
+}
@@ -0,0 +1,153 @@
+package com.baidu.fsg.uid.hibernate;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.baidu.fsg.uid.core.UidGenerator;
+import com.baidu.fsg.uid.core.impl.ThreadLocalUidGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.MappingException;
+import org.hibernate.SessionFactory;
+import org.hibernate.SessionFactoryObserver;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerationException;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.resource.beans.container.spi.BeanContainer;
+import org.hibernate.resource.beans.spi.BeanInstanceProducer;
+import org.hibernate.resource.beans.spi.ManagedBeanRegistry;
+import org.hibernate.service.ServiceRegistry;
+
+/**
+ * Represents an {@link IdentifierGenerator} of {@link UidGenerated}, which assigns the identifier before the
+ * insert. Unlike <code>IDENTITY</code> or a database sequence, inserts are batched by JDBC and no round trip is
+ * made for the identifier<p>
+ *
+ * The {@link UidGenerator} is the bean of the Hibernate {@link BeanContainer}, which Spring Boot backs with the
+ * application context. It is looked up on the first identifier, as it may depend on the session factory. Without
+ * a bean container, such as plain Hibernate, one must be set by <code>hibernate.resource.beans.container</code>.<p>
+ *
+ * With a prefetch, each thread takes a block of UIDs at once by {@link ThreadLocalUidGenerator}, sized to
+ * <code>hibernate.jdbc.batch_size</code> by default, so each flushed batch costs one access to the generator.
+ * The block is shared by all the identifiers of the same bean and prefetch in a session factory, and UIDs left in
+ * the block of a thread are taken by its next session. The blocks are dropped once the session factory is closed.
+ */
+@Slf4j
+public class UidIdentifierGenerator implements IdentifierGenerator {
+
+    /** The bean is shared with the application, not created for Hibernate */
+    private static final BeanContainer.LifecycleOptions SHARED_BEAN = new BeanContainer.LifecycleOptions() {
+        @Override
+        public boolean canUseCachedReferences() {
+            return true;
+        }
+
+        @Override
+        public boolean useJpaCompliantCreation() {
+            return false;
+        }
+    };
+
+    /**
+     * Prefetching generators of each session factory by the bean name & prefetch, removed once the session factory
+     * is closed, so nothing of a closed context is held
+     */
+    static final Map<SessionFactoryImplementor, Map<String, UidGenerator>> PREFETCHING = new ConcurrentHashMap<>();
+
+    private final String beanName;
+    private final int prefetch;
+    private final boolean stringIdentifier;
+    private final ServiceRegistry serviceRegistry;
+    private volatile UidGenerator uidGenerator;
+
+    public UidIdentifierGenerator(UidGenerated config, Member member, CustomIdGeneratorCreationContext context) {
+        Class<?> identifierType = member instanceof Field field ? field.getType() : ((Method) member).getReturnType();
+        if (identifierType != long.class && identifierType != Long.class && identifierType != String.class) {
+            throw new MappingException("Identifier generated by UidGenerator must be of long, Long or String, but "
+                    + member.getDeclaringClass().getName() + "." + member.getName() + " is of " + identifierType.getName());
+        }
+
+        this.beanName = config.value();
+        this.stringIdentifier = identifierType == String.class;
+        this.serviceRegistry = context.getServiceRegistry();
+        this.prefetch = config.prefetch() < 0
+                ? serviceRegistry.getService(ConfigurationService.class)
+                        .getSetting(AvailableSettings.STATEMENT_BATCH_SIZE, StandardConverters.INTEGER, 0)
+                : config.prefetch();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        long uid = getUidGenerator(session.getFactory()).getUID();
+        return stringIdentifier ? String.valueOf(uid) : uid;
+    }
+
+    private UidGenerator getUidGenerator(SessionFactoryImplementor sessionFactory) {
+        UidGenerator generator = uidGenerator;
+        if (generator == null) {
+            synchronized (this) {
+                generator = uidGenerator;
+                if (generator == null) {
+                    generator = resolveUidGenerator();
+                    if (prefetch > 1) {
+                        generator = getPrefetching(sessionFactory, generator);
+                    }
+                    log.info("Resolved UidGenerator:{} of {}, prefetch:{}", beanName.isEmpty() ? "primary" : beanName,
+                            generator.getClass().getSimpleName(), prefetch);
+                    uidGenerator = generator;
+                }
+            }
+        }
+        return generator;
+    }
+
+    private UidGenerator getPrefetching(SessionFactoryImplementor sessionFactory, UidGenerator bean) {
+        Map<String, UidGenerator> generators = PREFETCHING.computeIfAbsent(sessionFactory, key -> {
+            key.addObserver(new SessionFactoryObserver() {
+                @Override
+                public void sessionFactoryClosed(SessionFactory factory) {
+                    PREFETCHING.remove(key);
+                }
+            });
+            return new ConcurrentHashMap<>();
+        });
+        return generators.computeIfAbsent(beanName + ":" + prefetch, key -> new ThreadLocalUidGenerator(bean, prefetch));
+    }
+
+    private UidGenerator resolveUidGenerator() {
+        BeanContainer beanContainer = serviceRegistry.getService(ManagedBeanRegistry.class).getBeanContainer();
+        if (beanContainer == null) {
+            throw new IdentifierGenerationException("No bean container to resolve UidGenerator, "
+                    + "set one by " + AvailableSettings.BEAN_CONTAINER);
+        }
+
+        return beanName.isEmpty()
+                ? beanContainer.getBean(UidGenerator.class, SHARED_BEAN, NoBeanProducer.INSTANCE).getBeanInstance()
+                : beanContainer.getBean(beanName, UidGenerator.class, SHARED_BEAN, NoBeanProducer.INSTANCE).getBeanInstance();
+    }
+
+    /**
+     * A UidGenerator can't be created by Hibernate, it must be a bean
+     */
+    private enum NoBeanProducer implements BeanInstanceProducer {
+        INSTANCE;
+
+        @Override
+        public <B> B produceBeanInstance(Class<B> beanType) {
+            throw new IdentifierGenerationException("No bean of " + beanType.getName());
+        }
+
+        @Override
+        public <B> B produceBeanInstance(String name, Class<B> beanType) {
+            throw new IdentifierGenerationException("No bean named " + name + " of " + beanType.getName());
+        }
+    }
+
+}
@@ -0,0 +1,251 @@
+package com.baidu.fsg.uid.hibernate;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.baidu.fsg.uid.core.UidGenerator;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import org.hibernate.MappingException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.id.IdentifierGenerationException;
+import org.hibernate.resource.beans.container.spi.BeanContainer;
+import org.hibernate.resource.beans.container.spi.ContainedBean;
+import org.hibernate.resource.beans.spi.BeanInstanceProducer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class UidIdentifierGeneratorTest {
+
+    private final Map<String, UidGenerator> beans = new HashMap<>();
+    private SessionFactory sessionFactory;
+
+    @AfterEach
+    public void tearDown() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @Entity(name = "PrimitiveEntity")
+    public static class PrimitiveEntity {
+        @Id
+        @UidGenerated
+        private long id;
+    }
+
+    @Entity(name = "BoxedEntity")
+    public static class BoxedEntity {
+        @Id
+        @UidGenerated("orders")
+        private Long id;
+    }
+
+    @Entity(name = "StringEntity")
+    public static class StringEntity {
+        @Id
+        @UidGenerated
+        private String id;
+    }
+
+    @Entity(name = "UnprefetchedEntity")
+    public static class UnprefetchedEntity {
+        @Id
+        @UidGenerated(prefetch = 0)
+        private Long id;
+    }
+
+    @Entity(name = "IntEntity")
+    public static class IntEntity {
+        @Id
+        @UidGenerated
+        private int id;
+    }
+
+    /**
+     * Generator of a sequence, counting the accesses
+     */
+    private static class CountingUidGenerator implements UidGenerator {
+        private final AtomicLong sequence;
+        private final AtomicInteger accesses = new AtomicInteger();
+
+        private CountingUidGenerator(long start) {
+            this.sequence = new AtomicLong(start);
+        }
+
+        @Override
+        public long getUID() {
+            accesses.incrementAndGet();
+            return sequence.incrementAndGet();
+        }
+
+        @Override
+        public void getUIDs(long[] dst, int offset, int length) {
+            accesses.incrementAndGet();
+            for (int i = offset; i < offset + length; i++) {
+                dst[i] = sequence.incrementAndGet();
+            }
+        }
+
+        @Override
+        public String parseUID(long uid) {
+            return String.valueOf(uid);
+        }
+    }
+
+    /**
+     * Container of the beans of the test, the primary one is of an empty name
+     */
+    private class MapBeanContainer implements BeanContainer {
+
+        @Override
+        public <B> ContainedBean<B> getBean(Class<B> beanType, LifecycleOptions lifecycleOptions,
+                                            BeanInstanceProducer fallbackProducer) {
+            return getBean("", beanType, lifecycleOptions, fallbackProducer);
+        }
+
+        @Override
+        public <B> ContainedBean<B> getBean(String name, Class<B> beanType, LifecycleOptions lifecycleOptions,
+                                            BeanInstanceProducer fallbackProducer) {
+            Object bean = beans.get(name);
+            B instance = bean != null ? beanType.cast(bean) : fallbackProducer.produceBeanInstance(name, beanType);
+            return () -> instance;
+        }
+
+        @Override
+        public void stop() {
+        }
+    }
+
+    private SessionFactory buildSessionFactory(int batchSize, Class<?>... entities) {
+        Configuration configuration = new Configuration()
+                .setProperty(AvailableSettings.URL, "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(batchSize));
+        configuration.getProperties().put(AvailableSettings.BEAN_CONTAINER, new MapBeanContainer());
+        for (Class<?> entity : entities) {
+            configuration.addAnnotatedClass(entity);
+        }
+        return configuration.buildSessionFactory();
+    }
+
+    private void persist(Object... entities) {
+        sessionFactory.inTransaction(session -> {
+            for (Object entity : entities) {
+                session.persist(entity);
+            }
+        });
+    }
+
+    @Test
+    public void generatesLongLongAndStringIdentifiers() {
+        CountingUidGenerator primary = new CountingUidGenerator(0L);
+        CountingUidGenerator orders = new CountingUidGenerator(1000L);
+        beans.put("", primary);
+        beans.put("orders", orders);
+        sessionFactory = buildSessionFactory(0, PrimitiveEntity.class, BoxedEntity.class, StringEntity.class);
+
+        PrimitiveEntity primitive = new PrimitiveEntity();
+        BoxedEntity boxed = new BoxedEntity();
+        StringEntity string = new StringEntity();
+        persist(primitive, boxed, string);
+
+        Assertions.assertEquals(1L, primitive.id);
+        Assertions.assertEquals(1001L, boxed.id);
+        Assertions.assertEquals("2", string.id);
+        try (Session session = sessionFactory.openSession()) {
+            Assertions.assertNotNull(session.find(PrimitiveEntity.class, 1L));
+            Assertions.assertNotNull(session.find(BoxedEntity.class, 1001L));
+            Assertions.assertNotNull(session.find(StringEntity.class, "2"));
+        }
+    }
+
+    @Test
+    public void failsWithoutTheNamedBean() {
+        beans.put("", new CountingUidGenerator(0L));
+        sessionFactory = buildSessionFactory(0, BoxedEntity.class);
+
+        IdentifierGenerationException e = Assertions.assertThrows(IdentifierGenerationException.class,
+                () -> persist(new BoxedEntity()));
+        Assertions.assertTrue(e.getMessage().contains("No bean named orders"));
+    }
+
+    @Test
+    public void prefetchesBlocksOfTheBatchSize() {
+        CountingUidGenerator primary = new CountingUidGenerator(0L);
+        beans.put("", primary);
+        sessionFactory = buildSessionFactory(10, PrimitiveEntity.class);
+
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 25; i++) {
+            PrimitiveEntity entity = new PrimitiveEntity();
+            persist(entity);
+            ids.add(entity.id);
+        }
+        Assertions.assertEquals(25, ids.size());
+        Assertions.assertEquals(3, primary.accesses.get());
+    }
+
+    @Test
+    public void sharesThePrefetchOfTheBean() {
+        CountingUidGenerator primary = new CountingUidGenerator(0L);
+        beans.put("", primary);
+        sessionFactory = buildSessionFactory(10, PrimitiveEntity.class, StringEntity.class);
+
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            PrimitiveEntity primitive = new PrimitiveEntity();
+            StringEntity string = new StringEntity();
+            persist(primitive, string);
+            ids.add(String.valueOf(primitive.id));
+            ids.add(string.id);
+        }
+        // both identifiers are served from one block of the thread
+        Assertions.assertEquals(10, ids.size());
+        Assertions.assertEquals(1, primary.accesses.get());
+    }
+
+    @Test
+    public void dropsThePrefetchOnceTheSessionFactoryIsClosed() {
+        beans.put("", new CountingUidGenerator(0L));
+        sessionFactory = buildSessionFactory(10, PrimitiveEntity.class);
+        persist(new PrimitiveEntity());
+        Assertions.assertTrue(UidIdentifierGenerator.PREFETCHING.containsKey(sessionFactory));
+
+        sessionFactory.close();
+        Assertions.assertFalse(UidIdentifierGenerator.PREFETCHING.containsKey(sessionFactory));
+    }
+
+    @Test
+    public void disablesThePrefetchByTheAnnotation() {
+        CountingUidGenerator primary = new CountingUidGenerator(0L);
+        beans.put("", primary);
+        sessionFactory = buildSessionFactory(10, UnprefetchedEntity.class);
+
+        for (int i = 0; i < 3; i++) {
+            persist(new UnprefetchedEntity());
+        }
+        Assertions.assertEquals(3, primary.accesses.get());
+    }
+
+    @Test
+    public void rejectsIdentifiersOfOtherTypes() {
+        Exception e = Assertions.assertThrows(Exception.class, () -> buildSessionFactory(0, IntEntity.class));
+        Throwable cause = e;
+        while (cause != null && !(cause instanceof MappingException)) {
+            cause = cause.getCause();
+        }
+        Assertions.assertNotNull(cause, "No MappingException in " + e);
+        Assertions.assertTrue(cause.getMessage().endsWith("IntEntity.id is of int"));
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.baidu.fsg.uid.jdbc;
+
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * Dialects which register a worker node in one statement: insert it, or refresh it if the host & port exists,
+ * and return its id either way
+ */
+public enum JdbcDialect {
+
+    /**
+     * MySQL & MariaDB, LAST_INSERT_ID(id) makes the generated key the existing id on duplicate
+     */
+    MYSQL(false, """
+            INSERT INTO %s(host_name,port,type,launch_at,created_at,updated_at)
+            values(:host_name,:port,:type,:launch_at,:created_at,:updated_at)
+            ON DUPLICATE KEY UPDATE id=LAST_INSERT_ID(id),updated_at=VALUES(updated_at)
+            """),
+
+    POSTGRESQL(true, """
+            INSERT INTO %s(host_name,port,type,launch_at,created_at,updated_at)
+            values(:host_name,:port,:type,:launch_at,:created_at,:updated_at)
+            ON CONFLICT (host_name,port) DO UPDATE SET updated_at=EXCLUDED.updated_at
+            RETURNING id
+            """),
+
+    H2(true, """
+            SELECT id FROM FINAL TABLE (
+                MERGE INTO %s t
+                USING (VALUES (CAST(:host_name AS VARCHAR(64)),CAST(:port AS VARCHAR(64)),CAST(:type AS INT),
+                        CAST(:launch_at AS DATE),CAST(:created_at AS TIMESTAMP(6)),CAST(:updated_at AS TIMESTAMP(6))))
+                    s(host_name,port,type,launch_at,created_at,updated_at)
+                ON t.host_name=s.host_name AND t.port=s.port
+                WHEN MATCHED THEN UPDATE SET updated_at=s.updated_at
+                WHEN NOT MATCHED THEN INSERT(host_name,port,type,launch_at,created_at,updated_at)
+                    VALUES(s.host_name,s.port,s.type,s.launch_at,s.created_at,s.updated_at)
+            )
+            """),
+
+    /**
+     * No single statement, look up then insert
+     */
+    GENERIC(false, null);
+
+    /**
+     * Whether the statement returns the id as a result set, otherwise as the generated key
+     */
+    private final boolean returning;
+    private final String upsertSql;
+
+    JdbcDialect(boolean returning, String upsertSql) {
+        this.returning = returning;
+        this.upsertSql = upsertSql;
+    }
+
+    public boolean isReturning() {
+        return returning;
+    }
+
+    public boolean supportsUpsert() {
+        return upsertSql != null;
+    }
+
+    public String getUpsertSql(String table) {
+        return upsertSql.formatted(table);
+    }
+
+    /**
+     * Detect dialect by database product name
+     *
+     * @param productName {@link java.sql.DatabaseMetaData#getDatabaseProductName()}
+     * @return {@link #GENERIC} if unknown
+     */
+    public static JdbcDialect detect(String productName) {
+        String name = JdbcUtils.commonDatabaseName(productName);
+        if (name == null) {
+            return GENERIC;
+        }
+        return switch (name) {
+            case "MySQL", "MariaDB" -> MYSQL;
+            case "PostgreSQL" -> POSTGRESQL;
+            case "H2" -> H2;
+            default -> GENERIC;
+        };
+    }
+}
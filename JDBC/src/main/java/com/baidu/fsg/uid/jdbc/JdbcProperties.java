@@ -4,6 +4,8 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 import lombok.experimental.Accessors;
 
+import java.time.Duration;
+
 @Data
 @Accessors(chain = true)
 public class JdbcProperties {
@@ -14,5 +16,19 @@ public class JdbcProperties {
     private String table="t_worker_node";
     private String schema;
 
+    /**
+     * worker id 租约时长, 超过该时长未续约的 worker id 会被回收复用; 为空则不启用租约, 每次启动都新增一个 worker id.
+     * 启用时 CachedUidGenerator 须设置 checkpointInterval 预留其预借的未来秒数, 否则其崩溃后回收该 worker id 的节点可能重复发号,
+     * starter 会拒绝未设置的配置
+     */
+    private Duration leaseTimeout;
+    /**
+     * 续约心跳间隔, 默认为租约时长的 1/3
+     */
+    private Duration heartbeatInterval;
+    /**
+     * 单语句注册 worker node 所用的方言, 为空则根据数据库自动识别
+     */
+    private JdbcDialect dialect;
 
 }
@@ -0,0 +1,18 @@
+package com.baidu.fsg.uid.jdbc;
+
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Resources of JDBC for a native image, registered by <code>META-INF/spring/aot.factories</code>: the schema
+ * scripts, such as <code>spring.sql.init.schema-locations=classpath:init-h2.sql</code>
+ */
+public class JdbcRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.resources().registerPattern("init.sql");
+        hints.resources().registerPattern("init-h2.sql");
+    }
+
+}
@@ -1,24 +1,82 @@
 package com.baidu.fsg.uid.jdbc;
 
+import com.baidu.fsg.uid.core.utils.NamingThreadFactory;
+import com.baidu.fsg.uid.core.worker.LeaseListener;
 import com.baidu.fsg.uid.core.worker.WorkerNode;
 import com.baidu.fsg.uid.core.worker.WorkerNodeStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
-public class JdbcWorkerNodeStorage implements WorkerNodeStorage {
+/**
+ * Worker node storage on a JDBC table.<p>
+ * If {@link JdbcProperties#getLeaseTimeout()} is set, worker ids are leased: the storage heartbeats
+ * <code>updated_at</code> of the nodes it hands out, and a new worker reclaims the lowest expired id by a conditional
+ * update before inserting a new row. So the table stays as small as the number of live workers. Leases are stamped
+ * and expired by the clock of the database, so clock skew between workers doesn't reclaim a live lease.<p>
+ * A worker whose lease is not renewed for the lease timeout less one heartbeat interval, or is reclaimed by
+ * another worker, is told by {@link #watchLease(long, LeaseListener)} so that it stops issuing before the id can
+ * be reclaimed.<p>
+ * {@link #registerWorkerNode(WorkerNode)} takes a single upsert statement of the {@link JdbcDialect}, unless leased
+ * or the dialect is {@link JdbcDialect#GENERIC}, and retries on conflicts of workers registering at once.
+ */
+@Slf4j
+public class JdbcWorkerNodeStorage implements WorkerNodeStorage, AutoCloseable {
+    private static final String HEARTBEAT_NAME = "WorkerNode-Heartbeat";
+    private static final int MAX_RECLAIM_ATTEMPTS = 3;
+    private static final int MAX_REGISTER_ATTEMPTS = 3;
 
+    private final DataSource dataSource;
     private final JdbcClient jdbcClient;
     private final String table;
+    /**
+     * Configured or detected at the first registration
+     */
+    private volatile JdbcDialect dialect;
+
+    /**
+     * Lease of worker nodes, null if not leased
+     */
+    private final Duration leaseTimeout;
+    private final Duration heartbeatInterval;
+    private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+    private final Map<Long, List<LeaseListener>> leaseListeners = new ConcurrentHashMap<>();
+    private ScheduledExecutorService heartbeatSchedule;
 
 
     public JdbcWorkerNodeStorage(DataSource dataSource,JdbcProperties properties) {
+        this.dataSource = dataSource;
         this.jdbcClient = JdbcClient.create(dataSource);
         this.table = getTable(properties);
+        this.dialect = properties.getDialect();
+        this.leaseTimeout = properties.getLeaseTimeout();
+        this.heartbeatInterval = properties.getHeartbeatInterval() != null
+                ? properties.getHeartbeatInterval()
+                : leaseTimeout == null ? null : leaseTimeout.dividedBy(3);
+        Assert.isTrue(leaseTimeout == null || heartbeatInterval.compareTo(leaseTimeout) < 0,
+                "heartbeatInterval must be shorter than leaseTimeout");
     }
 
     private String getTable(JdbcProperties properties){
@@ -50,25 +108,323 @@ public class JdbcWorkerNodeStorage implements WorkerNodeStorage {
     }
 
     /**
-     * Add {@link WorkerNode}
+     * Add {@link WorkerNode}, reclaim the lowest expired one first if leased
      *
      * @param workerNode
      */
     @Override
     public void addWorkerNode(WorkerNode workerNode) {
+        long leasedAt = System.nanoTime();
+        if (leaseTimeout != null && reclaimWorkerNode(workerNode)) {
+            log.info("Reclaimed expired worker node:{}", workerNode);
+            keepAlive(workerNode).renewedAt = leasedAt;
+            return;
+        }
+
+        // the lease starts by the clock of the database, which expires it
         KeyHolder keyHolder = new GeneratedKeyHolder();
         jdbcClient.sql("""
                         INSERT INTO %s(host_name,port,type,launch_at,created_at,updated_at)
-                        values(:host_name,:port,:type,:launch_at,:created_at,:updated_at)
+                        values(:host_name,:port,:type,:launch_at,:created_at,CURRENT_TIMESTAMP)
                         """.formatted(table)
                 ).param("host_name", workerNode.getHostName())
                 .param("port", workerNode.getPort())
                 .param("type", workerNode.getType())
                 .param("launch_at", workerNode.getLaunchAt())
                 .param("created_at", workerNode.getCreatedAt())
-                .param("updated_at", workerNode.getUpdatedAt())
                 .update(keyHolder);
 
         workerNode.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
+        if (leaseTimeout != null) {
+            keepAlive(workerNode).renewedAt = leasedAt;
+        }
+    }
+
+    /**
+     * Register {@link WorkerNode} in one round-trip by the upsert of {@link JdbcDialect}. Leased worker nodes
+     * need the look up to reclaim expired ones, so they take the default way of look up then add
+     *
+     * @param workerNode
+     * @return registered node
+     */
+    @Override
+    public WorkerNode registerWorkerNode(WorkerNode workerNode) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                JdbcDialect dialect = getDialect();
+                if (leaseTimeout == null && dialect.supportsUpsert()) {
+                    workerNode.setId(upsertWorkerNode(workerNode, dialect));
+                    return workerNode;
+                }
+                return WorkerNodeStorage.super.registerWorkerNode(workerNode);
+            } catch (DuplicateKeyException | ConcurrencyFailureException e) {
+                // another worker registers the same host & port at the same time
+                if (attempt >= MAX_REGISTER_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Register worker node conflicted, retry:{}. {}", attempt, workerNode);
+            }
+        }
+    }
+
+    /**
+     * Renew the lease of {@link WorkerNode}, only if it is still held by the same host & port
+     *
+     * @param workerNode
+     * @return false if it has been reclaimed by another worker
+     */
+    @Override
+    public boolean renewWorkerNode(WorkerNode workerNode) {
+        if (leaseTimeout == null) {
+            return true;
+        }
+        long renewedAt = System.nanoTime();
+        if (!heartbeat(workerNode)) {
+            return false;
+        }
+        Lease lease = keepAlive(workerNode);
+        lease.renewedAt = renewedAt;
+        lease.changed(true);
+        return true;
+    }
+
+    /**
+     * Tell the listener once the lease may be lost, and at once if the worker node is not leased by this storage
+     * yet, such as reused from a local cache before it is renewed
+     *
+     * @param workerId
+     * @param listener
+     */
+    @Override
+    public void watchLease(long workerId, LeaseListener listener) {
+        if (leaseTimeout == null) {
+            return;
+        }
+        leaseListeners.computeIfAbsent(workerId, id -> new CopyOnWriteArrayList<>()).add(listener);
+        Lease lease = leases.get(workerId);
+        if (lease == null || !lease.held) {
+            listener.onLease(workerId, false);
+        }
+    }
+
+    /**
+     * Get the high-water mark, queried apart from the node so that tables without the column work as before
+     *
+     * @param workerId
+     * @return -1 if never checkpointed
+     */
+    @Override
+    public long getHighWaterMark(long workerId) {
+        return jdbcClient.sql("""
+                        SELECT high_water_mark FROM %s WHERE id=:id
+                        """.formatted(table))
+                .param("id", workerId)
+                .query(Long.class)
+                .optional().orElse(-1L);
+    }
+
+    /**
+     * Save the high-water mark only if higher, it never moves backwards with late checkpoints
+     *
+     * @param workerId
+     * @param second
+     */
+    @Override
+    public void saveHighWaterMark(long workerId, long second) {
+        jdbcClient.sql("""
+                        UPDATE %s SET high_water_mark=:second
+                        WHERE id=:id AND (high_water_mark IS NULL OR high_water_mark < :second)
+                        """.formatted(table))
+                .param("second", second)
+                .param("id", workerId)
+                .update();
+    }
+
+    /**
+     * Stop heartbeats, the leases then expire
+     */
+    @Override
+    public synchronized void close() {
+        if (heartbeatSchedule != null) {
+            heartbeatSchedule.shutdownNow();
+        }
+        leases.clear();
+        leaseListeners.clear();
+    }
+
+    private long upsertWorkerNode(WorkerNode workerNode, JdbcDialect dialect) {
+        JdbcClient.StatementSpec statement = jdbcClient.sql(dialect.getUpsertSql(table))
+                .param("host_name", workerNode.getHostName())
+                .param("port", workerNode.getPort())
+                .param("type", workerNode.getType())
+                .param("launch_at", workerNode.getLaunchAt())
+                .param("created_at", workerNode.getCreatedAt())
+                .param("updated_at", workerNode.getUpdatedAt());
+        if (dialect.isReturning()) {
+            return statement.query(Long.class).single();
+        }
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        statement.update(keyHolder);
+        return Objects.requireNonNull(keyHolder.getKey()).longValue();
+    }
+
+    private JdbcDialect getDialect() {
+        if (dialect == null) {
+            try {
+                String productName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+                dialect = JdbcDialect.detect(productName);
+            } catch (Exception e) {
+                log.warn("Detect database dialect exception, use {}", JdbcDialect.GENERIC, e);
+                dialect = JdbcDialect.GENERIC;
+            }
+            log.info("Worker node storage dialect:{}", dialect);
+        }
+        return dialect;
+    }
+
+    /**
+     * Take over the lowest expired worker node by a conditional update, retry if another worker wins it. Expiry is
+     * judged by the clock of the database, the same clock stamping the heartbeats
+     *
+     * @return false if there is no expired worker node
+     */
+    private boolean reclaimWorkerNode(WorkerNode workerNode) {
+        for (int i = 0; i < MAX_RECLAIM_ATTEMPTS; i++) {
+            // an aggregate over the table is the portable way to select without FROM, empty table is null
+            Optional<Timestamp> databaseNow = jdbcClient.sql("""
+                            SELECT MAX(CURRENT_TIMESTAMP) FROM %s
+                            """.formatted(table))
+                    .query(Timestamp.class)
+                    .optional();
+            if (databaseNow.isEmpty()) {
+                return false;
+            }
+            Timestamp expiredBefore = Timestamp.from(databaseNow.get().toInstant().minus(leaseTimeout));
+
+            Optional<Long> expiredId = jdbcClient.sql("""
+                            SELECT MIN(id) FROM %s WHERE updated_at < :expired_before
+                            """.formatted(table))
+                    .param("expired_before", expiredBefore)
+                    .query(Long.class)
+                    .optional();
+            if (expiredId.isEmpty()) {
+                return false;
+            }
+
+            int updated = jdbcClient.sql("""
+                            UPDATE %s
+                            SET host_name=:host_name,port=:port,type=:type,launch_at=:launch_at,
+                                created_at=CURRENT_TIMESTAMP,updated_at=CURRENT_TIMESTAMP
+                            WHERE id=:id AND updated_at < :expired_before
+                            """.formatted(table))
+                    .param("host_name", workerNode.getHostName())
+                    .param("port", workerNode.getPort())
+                    .param("type", workerNode.getType())
+                    .param("launch_at", LocalDate.now())
+                    .param("id", expiredId.get())
+                    .param("expired_before", expiredBefore)
+                    .update();
+            if (updated == 1) {
+                Instant now = Instant.now();
+                workerNode.setId(expiredId.get()).setCreatedAt(now).setUpdatedAt(now);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Heartbeat the node until closed
+     */
+    private synchronized Lease keepAlive(WorkerNode workerNode) {
+        Lease lease = leases.get(workerNode.getId());
+        if (lease == null) {
+            lease = new Lease(workerNode);
+            leases.put(workerNode.getId(), lease);
+            notifyListeners(workerNode.getId(), true);
+        }
+        if (heartbeatSchedule == null) {
+            long interval = heartbeatInterval.toMillis();
+            heartbeatSchedule = Executors.newSingleThreadScheduledExecutor(new NamingThreadFactory(HEARTBEAT_NAME, true));
+            heartbeatSchedule.scheduleWithFixedDelay(this::heartbeatLeasedNodes, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        return lease;
+    }
+
+    private void heartbeatLeasedNodes() {
+        for (Lease lease : leases.values()) {
+            WorkerNode workerNode = lease.workerNode;
+            long renewedAt = System.nanoTime();
+            try {
+                if (heartbeat(workerNode)) {
+                    lease.renewedAt = renewedAt;
+                    lease.changed(true);
+                    continue;
+                }
+                log.error("Lease of worker node is lost, it has been reclaimed by another worker. {}", workerNode);
+                leases.remove(workerNode.getId());
+                lease.changed(false);
+                continue;
+            } catch (Exception e) {
+                log.error("Heartbeat worker node exception. {}", workerNode, e);
+            }
+
+            // another worker may reclaim it once the lease times out, the next heartbeat may be too late
+            if (System.nanoTime() - lease.renewedAt >= leaseTimeout.minus(heartbeatInterval).toNanos()) {
+                log.error("Lease of worker node is not renewed in time, it may be reclaimed. {}", workerNode);
+                lease.changed(false);
+            }
+        }
+    }
+
+    private boolean heartbeat(WorkerNode workerNode) {
+        int updated = jdbcClient.sql("""
+                        UPDATE %s SET updated_at=CURRENT_TIMESTAMP
+                        WHERE id=:id AND host_name=:host_name AND port=:port
+                        """.formatted(table))
+                .param("id", workerNode.getId())
+                .param("host_name", workerNode.getHostName())
+                .param("port", workerNode.getPort())
+                .update();
+        if (updated == 1) {
+            workerNode.setUpdatedAt(Instant.now());
+        }
+        return updated == 1;
+    }
+
+    private void notifyListeners(long workerId, boolean held) {
+        for (LeaseListener listener : leaseListeners.getOrDefault(workerId, List.of())) {
+            try {
+                listener.onLease(workerId, held);
+            } catch (Exception e) {
+                log.error("Lease listener exception. workerId:{}", workerId, e);
+            }
+        }
+    }
+
+    /**
+     * Lease of a worker node handed out by this storage
+     */
+    private class Lease {
+        private final WorkerNode workerNode;
+        /** {@link System#nanoTime()} before the last successful heartbeat */
+        private volatile long renewedAt = System.nanoTime();
+        private volatile boolean held = true;
+
+        private Lease(WorkerNode workerNode) {
+            this.workerNode = workerNode;
+        }
+
+        /**
+         * Tell the listeners if changed
+         */
+        private void changed(boolean held) {
+            if (this.held == held) {
+                return;
+            }
+            this.held = held;
+            notifyListeners(workerNode.getId(), held);
+        }
     }
 }
@@ -0,0 +1,14 @@
+-- Portable DDL of t_worker_node, runs on H2 (also in MySQL mode) and PostgreSQL
+CREATE TABLE IF NOT EXISTS t_worker_node
+(
+    id              BIGINT       GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    host_name       VARCHAR(64)  NOT NULL,
+    port            VARCHAR(64)  NOT NULL,
+    type            INT          NOT NULL,
+    launch_at       DATE         NOT NULL,
+    updated_at      TIMESTAMP(6) NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    high_water_mark BIGINT,
+    CONSTRAINT host_name_port UNIQUE (host_name, port)
+);
+CREATE INDEX IF NOT EXISTS idx_worker_node_updated_at ON t_worker_node (updated_at);
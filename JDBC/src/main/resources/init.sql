@@ -7,8 +7,10 @@ CREATE TABLE `t_worker_node`
     `launch_at`  DATE                NOT NULL COMMENT 'launch date',
     `updated_at` TIMESTAMP(6)        NOT NULL COMMENT 'modified time',
     `created_at` TIMESTAMP(6)        NOT NULL COMMENT 'created time',
+    `high_water_mark` BIGINT(20)     NULL COMMENT 'highest second of issued UIDs',
     PRIMARY KEY (`id`) USING BTREE,
-    UNIQUE INDEX `host_name_port` (`host_name`, `port`) USING BTREE
+    UNIQUE INDEX `host_name_port` (`host_name`, `port`) USING BTREE,
+    INDEX `updated_at` (`updated_at`) USING BTREE
 )
     COMMENT ='DB WorkerID Assigner for UID Generator'
     COLLATE = 'utf8mb4_bin'
@@ -0,0 +1,25 @@
+package com.baidu.fsg.uid.jdbc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class JdbcDialectTest {
+
+    @Test
+    public void detectsByProductName() {
+        Assertions.assertEquals(JdbcDialect.MYSQL, JdbcDialect.detect("MySQL"));
+        Assertions.assertEquals(JdbcDialect.MYSQL, JdbcDialect.detect("MariaDB"));
+        Assertions.assertEquals(JdbcDialect.POSTGRESQL, JdbcDialect.detect("PostgreSQL"));
+        Assertions.assertEquals(JdbcDialect.H2, JdbcDialect.detect("H2"));
+        Assertions.assertEquals(JdbcDialect.GENERIC, JdbcDialect.detect("Oracle"));
+        Assertions.assertEquals(JdbcDialect.GENERIC, JdbcDialect.detect(null));
+    }
+
+    @Test
+    public void genericHasNoUpsert() {
+        Assertions.assertFalse(JdbcDialect.GENERIC.supportsUpsert());
+        Assertions.assertTrue(JdbcDialect.POSTGRESQL.getUpsertSql("t_node").contains("INSERT INTO t_node("));
+        Assertions.assertFalse(JdbcDialect.MYSQL.isReturning());
+    }
+
+}
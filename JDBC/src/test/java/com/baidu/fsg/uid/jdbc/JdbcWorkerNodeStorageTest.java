@@ -0,0 +1,191 @@
+package com.baidu.fsg.uid.jdbc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+import com.baidu.fsg.uid.core.GeneratorProperties;
+import com.baidu.fsg.uid.core.exception.UidGenerateException;
+import com.baidu.fsg.uid.core.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.core.worker.DefaultWorkerIdAssigner;
+import com.baidu.fsg.uid.core.worker.WorkerNode;
+import com.baidu.fsg.uid.core.worker.WorkerNodeType;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+public class JdbcWorkerNodeStorageTest {
+
+    private JdbcDataSource dataSource;
+    private JdbcClient jdbcClient;
+    private JdbcWorkerNodeStorage storage;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("init-h2.sql")).execute(dataSource);
+        jdbcClient = JdbcClient.create(dataSource);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (storage != null) {
+            storage.close();
+        }
+        jdbcClient.sql("DROP ALL OBJECTS").update();
+    }
+
+    private JdbcWorkerNodeStorage storage(Duration leaseTimeout, Duration heartbeatInterval) {
+        return new JdbcWorkerNodeStorage(dataSource, new JdbcProperties()
+                .setLeaseTimeout(leaseTimeout).setHeartbeatInterval(heartbeatInterval));
+    }
+
+    private static WorkerNode node(String port) {
+        return new WorkerNode().setHostName("127.0.0.1").setPort(port).setType(WorkerNodeType.ACTUAL.value());
+    }
+
+    private void insert(String port, int updatedSecondsAgo) {
+        jdbcClient.sql("""
+                        INSERT INTO t_worker_node(host_name,port,type,launch_at,created_at,updated_at)
+                        VALUES('10.0.0.1',:port,1,CURRENT_DATE,CURRENT_TIMESTAMP,DATEADD('SECOND',:ago,CURRENT_TIMESTAMP))
+                        """)
+                .param("port", port)
+                .param("ago", -updatedSecondsAgo)
+                .update();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    public void registersAndReusesByHostPort() {
+        storage = new JdbcWorkerNodeStorage(dataSource, new JdbcProperties());
+        long id = storage.registerWorkerNode(node("a")).getId();
+        Assertions.assertEquals(id, storage.registerWorkerNode(node("a")).getId());
+        Assertions.assertNotEquals(id, storage.registerWorkerNode(node("b")).getId());
+        Assertions.assertEquals(id, storage.getWorkerNodeByHostPort("127.0.0.1", "a").getId());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = JdbcDialect.class, names = {"H2", "GENERIC"})
+    public void registersOnceWhenRacing(JdbcDialect dialect) throws Exception {
+        storage = new JdbcWorkerNodeStorage(dataSource, new JdbcProperties().setDialect(dialect));
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(threads.submit((Callable<Void>) () -> {
+                    start.await();
+                    ids.add(storage.registerWorkerNode(node("a")).getId());
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        Assertions.assertEquals(1, ids.size());
+        Assertions.assertEquals(1L, jdbcClient.sql("SELECT COUNT(*) FROM t_worker_node").query(Long.class).single());
+    }
+
+    @Test
+    public void savesHighWaterMarkOnlyForward() {
+        storage = new JdbcWorkerNodeStorage(dataSource, new JdbcProperties());
+        long id = storage.registerWorkerNode(node("a")).getId();
+        Assertions.assertEquals(-1L, storage.getHighWaterMark(id));
+        storage.saveHighWaterMark(id, 100L);
+        storage.saveHighWaterMark(id, 90L);
+        Assertions.assertEquals(100L, storage.getHighWaterMark(id));
+    }
+
+    @Test
+    public void reclaimsLowestExpiredLeaseByDatabaseClock() {
+        insert("live", 0);
+        insert("expired-1", 120);
+        insert("expired-2", 120);
+        long expired = jdbcClient.sql("SELECT id FROM t_worker_node WHERE port='expired-1'").query(Long.class).single();
+
+        storage = storage(Duration.ofMinutes(1), null);
+        WorkerNode workerNode = node("a");
+        storage.addWorkerNode(workerNode);
+        Assertions.assertEquals(expired, workerNode.getId());
+        Assertions.assertEquals(3L, jdbcClient.sql("SELECT COUNT(*) FROM t_worker_node").query(Long.class).single());
+
+        // the lease is stamped by the database, it is live at once
+        WorkerNode other = node("b");
+        storage.addWorkerNode(other);
+        Assertions.assertNotEquals(expired, other.getId());
+        Assertions.assertNotEquals(
+                jdbcClient.sql("SELECT id FROM t_worker_node WHERE port='live'").query(Long.class).single(), other.getId());
+    }
+
+    @Test
+    public void fencesGeneratorWhenReclaimed() throws Exception {
+        storage = storage(Duration.ofSeconds(3), Duration.ofMillis(100));
+        try (DefaultUidGenerator generator = new DefaultUidGenerator(new DefaultWorkerIdAssigner(storage), new GeneratorProperties())) {
+            generator.getUID();
+            Assertions.assertFalse(generator.isFenced());
+
+            jdbcClient.sql("UPDATE t_worker_node SET host_name='10.0.0.2' WHERE id=:id")
+                    .param("id", generator.getWorkerId())
+                    .update();
+            await(generator::isFenced);
+            Assertions.assertThrows(UidGenerateException.class, generator::getUID);
+        }
+    }
+
+    @Test
+    public void fencesGeneratorUntilRenewedInTime() throws Exception {
+        storage = storage(Duration.ofMillis(900), Duration.ofMillis(100));
+        try (DefaultUidGenerator generator = new DefaultUidGenerator(new DefaultWorkerIdAssigner(storage), new GeneratorProperties())) {
+            generator.getUID();
+
+            // heartbeats fail while the table is away, fenced before the lease times out
+            jdbcClient.sql("ALTER TABLE t_worker_node RENAME TO t_worker_node_away").update();
+            long outage = System.nanoTime();
+            await(generator::isFenced);
+            Assertions.assertTrue(System.nanoTime() - outage < Duration.ofMillis(900).toNanos());
+            Assertions.assertThrows(UidGenerateException.class, generator::getUID);
+
+            // renewed as nobody reclaimed it
+            jdbcClient.sql("ALTER TABLE t_worker_node_away RENAME TO t_worker_node").update();
+            await(() -> !generator.isFenced());
+            generator.getUID();
+        }
+    }
+
+    @Test
+    public void rejectsHeartbeatNotShorterThanLease() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> storage(Duration.ofSeconds(1), Duration.ofSeconds(1)));
+    }
+
+}
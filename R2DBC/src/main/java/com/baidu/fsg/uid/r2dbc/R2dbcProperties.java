@@ -0,0 +1,24 @@
+package com.baidu.fsg.uid.r2dbc;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.time.Duration;
+
+@Data
+@Accessors(chain = true)
+public class R2dbcProperties {
+    /**
+     * 表名
+     */
+    @NotBlank
+    private String table="t_worker_node";
+    private String schema;
+
+    /**
+     * 阻塞调用 (WorkerNodeStorage 接口) 等待数据库的最长时间
+     */
+    private Duration blockTimeout = Duration.ofSeconds(10);
+
+}
@@ -0,0 +1,187 @@
+package com.baidu.fsg.uid.r2dbc;
+
+import com.baidu.fsg.uid.core.worker.WorkerNode;
+import com.baidu.fsg.uid.core.worker.WorkerNodeStorage;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+
+/**
+ * Worker node storage on a table over R2DBC, the same table as the JDBC storage.<p>
+ * The reactive methods never block, such as {@link #registerWorkerNodeAsync(WorkerNode)} as a startup hook of
+ * reactive applications. The methods of {@link WorkerNodeStorage} block on them with
+ * {@link R2dbcProperties#getBlockTimeout()}, they must not be called on an event loop thread: build the generator
+ * with {@link com.baidu.fsg.uid.core.impl.AsyncUidGenerator} or on a bounded elastic thread instead.
+ */
+@Slf4j
+public class R2dbcWorkerNodeStorage implements WorkerNodeStorage {
+
+    private final DatabaseClient databaseClient;
+    private final String table;
+    private final Duration blockTimeout;
+
+    public R2dbcWorkerNodeStorage(ConnectionFactory connectionFactory, R2dbcProperties properties) {
+        this.databaseClient = DatabaseClient.create(connectionFactory);
+        this.table = getTable(properties);
+        this.blockTimeout = properties.getBlockTimeout();
+    }
+
+    private String getTable(R2dbcProperties properties){
+        if (StringUtils.hasLength(properties.getSchema())){
+            return properties.getSchema()+"."+properties.getTable();
+        }
+        return properties.getTable();
+    }
+
+    @Override
+    public WorkerNode getWorkerNodeByHostPort(String host, String port) {
+        return getWorkerNodeByHostPortAsync(host, port).block(blockTimeout);
+    }
+
+    @Override
+    public void addWorkerNode(WorkerNode workerNode) {
+        addWorkerNodeAsync(workerNode).block(blockTimeout);
+    }
+
+    @Override
+    public WorkerNode registerWorkerNode(WorkerNode workerNode) {
+        return registerWorkerNodeAsync(workerNode).block(blockTimeout);
+    }
+
+    @Override
+    public long getHighWaterMark(long workerId) {
+        return getHighWaterMarkAsync(workerId).blockOptional(blockTimeout).orElse(-1L);
+    }
+
+    @Override
+    public void saveHighWaterMark(long workerId, long second) {
+        saveHighWaterMarkAsync(workerId, second).block(blockTimeout);
+    }
+
+    /**
+     * Get {@link WorkerNode} by node host
+     *
+     * @param host
+     * @param port
+     * @return empty if absent
+     */
+    public Mono<WorkerNode> getWorkerNodeByHostPortAsync(String host, String port) {
+        return databaseClient.sql("""
+                        SELECT id,host_name,port,type,launch_at,created_at,updated_at
+                        FROM %s
+                        WHERE host_name=:host and port=:port
+                        """
+                        .formatted(table))
+                .bind("host", host)
+                .bind("port", port)
+                .map(this::mapWorkerNode)
+                .one();
+    }
+
+    /**
+     * Add {@link WorkerNode}, the id is set by the generated key
+     *
+     * @param workerNode
+     * @return the added node
+     */
+    public Mono<WorkerNode> addWorkerNodeAsync(WorkerNode workerNode) {
+        return databaseClient.sql("""
+                        INSERT INTO %s(host_name,port,type,launch_at,created_at,updated_at)
+                        values(:host_name,:port,:type,:launch_at,:created_at,:updated_at)
+                        """.formatted(table))
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .bind("host_name", workerNode.getHostName())
+                .bind("port", workerNode.getPort())
+                .bind("type", workerNode.getType())
+                .bind("launch_at", workerNode.getLaunchAt())
+                .bind("created_at", toDateTime(workerNode.getCreatedAt()))
+                .bind("updated_at", toDateTime(workerNode.getUpdatedAt()))
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .map(workerNode::setId);
+    }
+
+    /**
+     * Register {@link WorkerNode}: reuse the one of the same host & port, or add it if absent. If another worker
+     * adds the same host & port at the same time, the added one is reused
+     *
+     * @param workerNode
+     * @return registered node
+     */
+    public Mono<WorkerNode> registerWorkerNodeAsync(WorkerNode workerNode) {
+        Mono<WorkerNode> history = getWorkerNodeByHostPortAsync(workerNode.getHostName(), workerNode.getPort());
+        return history
+                .switchIfEmpty(Mono.defer(() -> addWorkerNodeAsync(workerNode)))
+                .onErrorResume(DataIntegrityViolationException.class, e -> {
+                    log.warn("Register worker node conflicted, reuse the added one. {}", workerNode);
+                    return history;
+                });
+    }
+
+    /**
+     * Get the high-water mark
+     *
+     * @param workerId
+     * @return empty if never checkpointed
+     */
+    public Mono<Long> getHighWaterMarkAsync(long workerId) {
+        return databaseClient.sql("""
+                        SELECT high_water_mark FROM %s WHERE id=:id
+                        """.formatted(table))
+                .bind("id", workerId)
+                .map(row -> Optional.ofNullable(row.get("high_water_mark", Long.class)))
+                .one()
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    /**
+     * Save the high-water mark only if higher
+     *
+     * @param workerId
+     * @param second
+     * @return count of updated rows
+     */
+    public Mono<Long> saveHighWaterMarkAsync(long workerId, long second) {
+        return databaseClient.sql("""
+                        UPDATE %s SET high_water_mark=:second
+                        WHERE id=:id AND (high_water_mark IS NULL OR high_water_mark < :second)
+                        """.formatted(table))
+                .bind("second", second)
+                .bind("id", workerId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private WorkerNode mapWorkerNode(Readable row) {
+        return new WorkerNode()
+                .setId(row.get("id", Long.class))
+                .setHostName(row.get("host_name", String.class))
+                .setPort(row.get("port", String.class))
+                .setType(row.get("type", Integer.class))
+                .setLaunchAt(row.get("launch_at", LocalDate.class))
+                .setCreatedAt(toInstant(row.get("created_at", LocalDateTime.class)))
+                .setUpdatedAt(toInstant(row.get("updated_at", LocalDateTime.class)));
+    }
+
+    /**
+     * Timestamps are kept in the system zone, the same as JDBC drivers do with {@link Instant}
+     */
+    private static LocalDateTime toDateTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime == null ? null : dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -0,0 +1,124 @@
+package com.baidu.fsg.uid.r2dbc;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.baidu.fsg.uid.core.GeneratorProperties;
+import com.baidu.fsg.uid.core.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.core.worker.DefaultWorkerIdAssigner;
+import com.baidu.fsg.uid.core.worker.WorkerNode;
+import com.baidu.fsg.uid.core.worker.WorkerNodeType;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+public class R2dbcWorkerNodeStorageTest {
+
+    private ConnectionFactory connectionFactory;
+    private R2dbcWorkerNodeStorage storage;
+
+    @BeforeEach
+    public void setUp() {
+        connectionFactory = H2ConnectionFactory.inMemory(UUID.randomUUID().toString());
+        new ResourceDatabasePopulator(new ClassPathResource("init-h2.sql")).populate(connectionFactory).block();
+        storage = new R2dbcWorkerNodeStorage(connectionFactory, new R2dbcProperties());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        DatabaseClient.create(connectionFactory).sql("DROP ALL OBJECTS").then().block();
+    }
+
+    private static WorkerNode node(String host, String port) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        return new WorkerNode()
+                .setHostName(host)
+                .setPort(port)
+                .setType(WorkerNodeType.ACTUAL.value())
+                .setLaunchAt(LocalDate.now())
+                .setCreatedAt(now)
+                .setUpdatedAt(now);
+    }
+
+    @Test
+    public void registersAndReusesByHostPort() {
+        WorkerNode added = storage.registerWorkerNode(node("127.0.0.1", "8080"));
+        Assertions.assertNotNull(added.getId());
+
+        WorkerNode reused = storage.registerWorkerNode(node("127.0.0.1", "8080"));
+        Assertions.assertEquals(added.getId(), reused.getId());
+        Assertions.assertEquals(added.getCreatedAt(), reused.getCreatedAt());
+
+        WorkerNode other = storage.registerWorkerNode(node("127.0.0.1", "8081"));
+        Assertions.assertNotEquals(added.getId(), other.getId());
+        Assertions.assertNull(storage.getWorkerNodeByHostPort("127.0.0.1", "8082"));
+    }
+
+    @Test
+    public void registersOnceWhenRacing() {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        List<Mono<WorkerNode>> registrations = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            registrations.add(storage.registerWorkerNodeAsync(node("127.0.0.1", "8080"))
+                    .subscribeOn(Schedulers.parallel()));
+        }
+        Flux.merge(registrations).doOnNext(workerNode -> ids.add(workerNode.getId())).blockLast();
+
+        Assertions.assertEquals(1, ids.size());
+        Long rows = DatabaseClient.create(connectionFactory).sql("SELECT COUNT(*) AS c FROM t_worker_node")
+                .map(row -> row.get("c", Long.class))
+                .one()
+                .block();
+        Assertions.assertEquals(1L, rows);
+    }
+
+    @Test
+    public void savesHighWaterMarkOnlyForward() {
+        long id = storage.registerWorkerNode(node("127.0.0.1", "8080")).getId();
+        Assertions.assertEquals(-1L, storage.getHighWaterMark(id));
+
+        storage.saveHighWaterMark(id, 100L);
+        Assertions.assertEquals(0L, storage.saveHighWaterMarkAsync(id, 90L).block());
+        Assertions.assertEquals(100L, storage.getHighWaterMark(id));
+
+        // the mark survives the reuse of the node
+        Assertions.assertEquals(id, storage.registerWorkerNode(node("127.0.0.1", "8080")).getId());
+        Assertions.assertEquals(100L, storage.getHighWaterMark(id));
+        Assertions.assertEquals(-1L, storage.getHighWaterMark(id + 1));
+    }
+
+    @Test
+    public void nodesAreNotLeased() {
+        WorkerNode workerNode = storage.registerWorkerNode(node("127.0.0.1", "8080"));
+        Assertions.assertTrue(storage.renewWorkerNode(workerNode));
+        storage.watchLease(workerNode.getId(), (workerId, held) -> Assertions.fail("Lease is not kept by R2DBC"));
+    }
+
+    @Test
+    public void generatorIsNeverFencedWithoutLeases() {
+        try (DefaultUidGenerator generator = new DefaultUidGenerator(new DefaultWorkerIdAssigner(storage),
+                new GeneratorProperties().setCheckpointInterval(10L))) {
+            long id = generator.getWorkerId();
+            generator.getUID();
+            Assertions.assertFalse(generator.isFenced());
+            // reserved ahead through the storage
+            Assertions.assertTrue(storage.getHighWaterMark(id) >= generator.getEpochSeconds());
+        }
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.baidu.fsg.uid.boot;
+
+import org.springframework.context.annotation.Conditional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Matches if <code>com.baidu.fsg.uid.type</code> is the type, {@link TypedGeneratorProperties.GeneratorType#CACHED}
+ * if missing
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Documented
+@Conditional(OnGeneratorTypeCondition.class)
+public @interface ConditionalOnGeneratorType {
+
+    TypedGeneratorProperties.GeneratorType value();
+
+}
@@ -1,8 +1,11 @@
 package com.baidu.fsg.uid.boot;
 
 import com.baidu.fsg.uid.jdbc.JdbcProperties;
-import com.baidu.fsg.uid.core.CacheGeneratorProperties;
+import com.baidu.fsg.uid.core.worker.EnvWorkerIdAssigner;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.experimental.Accessors;
@@ -10,21 +13,71 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @EqualsAndHashCode(callSuper = true)
 @Data
 @Accessors(chain = true)
 @ConfigurationProperties(prefix = "com.baidu.fsg.uid")
 @Validated
-public class GeneratorProperties extends CacheGeneratorProperties implements InitializingBean {
+public class GeneratorProperties extends TypedGeneratorProperties implements InitializingBean {
+    /**
+     * Name of the default generator, the same as its bean
+     */
+    static final String DEFAULT_NAME = "uidGenerator";
+
+    /**
+     * Named generators besides the default one, injectable by the qualifier of the key. Their properties don't
+     * inherit from the default one. Each generator issues by a worker id of its own, see {@link UidGeneratorFactory}
+     */
+    @Valid
+    private Map<String, TypedGeneratorProperties> generators = new LinkedHashMap<>();
 
     @Valid
     private Jdbc jdbc;
 
+    @Valid
+    private LocalCache localCache;
+
+    @Valid
+    private Assigner assigner;
+
+    @Valid
+    private Async async;
+
+    @Valid
+    private Health health;
+
+    @Valid
+    private Lifecycle lifecycle;
+
     @Override
     public void afterPropertiesSet() {
+        if (getName()==null){
+            setName(DEFAULT_NAME);
+        }
         if (jdbc==null){
             setJdbc(new Jdbc());
         }
+        if (localCache==null){
+            setLocalCache(new LocalCache());
+        }
+        if (assigner==null){
+            setAssigner(new Assigner());
+        }
+        if (async==null){
+            setAsync(new Async());
+        }
+        if (health==null){
+            setHealth(new Health());
+        }
+        if (lifecycle==null){
+            setLifecycle(new Lifecycle());
+        }
     }
 
     @EqualsAndHashCode(callSuper = true)
@@ -34,4 +87,133 @@ public class GeneratorProperties extends CacheGeneratorProperties implements Ini
 
     }
 
+    /**
+     * Local file caching the registered worker node, disabled without a file
+     */
+    @Data
+    @Accessors(chain = true)
+    public static class LocalCache {
+
+        private Path file;
+
+        /**
+         * Validity of the cached worker node, must be shorter than the lease of the storage
+         */
+        private Duration validity = Duration.ofMinutes(10);
+    }
+
+    /**
+     * Way to assign the worker id
+     */
+    @Data
+    @Accessors(chain = true)
+    public static class Assigner {
+
+        @NotNull
+        private AssignerType type = AssignerType.STORAGE;
+
+        /**
+         * Offset of the StatefulSet ordinal, for {@link AssignerType#ORDINAL}
+         */
+        private long ordinalOffset;
+
+        /**
+         * Lowest bits of the IP address, for {@link AssignerType#IP}, default the worker bits
+         */
+        private Integer ipBits;
+
+        /**
+         * Environment variable of the worker id, for {@link AssignerType#ENV}
+         */
+        private String env = EnvWorkerIdAssigner.DEFAULT_ENV_KEY;
+
+        /**
+         * Whether {@link AssignerType#STORAGE} falls back to a storage in memory if there is neither DataSource nor
+         * R2DBC, worker ids are then unique within the JVM only
+         */
+        private boolean inMemoryFallback = true;
+    }
+
+    /**
+     * Build the generator in the background, see {@link com.baidu.fsg.uid.core.impl.AsyncUidGenerator}
+     */
+    @Data
+    @Accessors(chain = true)
+    public static class Async {
+
+        private boolean enabled;
+
+        /**
+         * Max wait of getting UID before ready
+         */
+        @NotNull
+        private Duration awaitTimeout = Duration.ofMillis(100);
+    }
+
+    /**
+     * Health check of the generators, see {@link UidGeneratorHealthIndicator}
+     */
+    @Data
+    @Accessors(chain = true)
+    public static class Health {
+
+        /**
+         * Warn when the timestamp bits are forecast to run out within any of the horizons at the current burn rate
+         */
+        @NotNull
+        private List<Duration> warnHorizons = List.of(Duration.ofDays(365), Duration.ofDays(30));
+
+        /**
+         * Down if takes keep being rejected as the ring buffer is empty for this long
+         */
+        @NotNull
+        private Duration starvationWindow = Duration.ofSeconds(10);
+    }
+
+    /**
+     * Warm-up and shutdown of the generators, see {@link UidGeneratorLifecycle}
+     */
+    @Data
+    @Accessors(chain = true)
+    public static class Lifecycle {
+
+        /**
+         * Percent of the ring buffer to be filled before accepting traffic, 0 means no wait
+         */
+        @Min(0)
+        @Max(100)
+        private int warmUpFill = 50;
+
+        /**
+         * Max wait of the warm-up, traffic is accepted anyway after it
+         */
+        @NotNull
+        private Duration warmUpTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Max wait of the padding in progress on shutdown
+         */
+        @NotNull
+        private Duration shutdownTimeout = Duration.ofSeconds(10);
+    }
+
+    public enum AssignerType {
+        /**
+         * Register worker node to the {@link com.baidu.fsg.uid.core.worker.WorkerNodeStorage}
+         */
+        STORAGE,
+        /**
+         * Ordinal of the StatefulSet pod
+         */
+        ORDINAL,
+        /**
+         * Lowest bits of the IP address
+         */
+        IP,
+        /**
+         * Environment variable
+         */
+        ENV
+    }
+
 }
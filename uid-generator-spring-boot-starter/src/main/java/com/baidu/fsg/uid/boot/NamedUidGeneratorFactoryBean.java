@@ -0,0 +1,62 @@
+package com.baidu.fsg.uid.boot;
+
+import com.baidu.fsg.uid.core.UidGenerator;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+
+/**
+ * Named generator of <code>com.baidu.fsg.uid.generators</code>, built by the {@link UidGeneratorFactory} bean
+ * resolved by type, whatever it is named. The generator is closed with the bean, before the factory
+ */
+class NamedUidGeneratorFactoryBean implements FactoryBean<UidGenerator>, BeanFactoryAware, BeanNameAware, DisposableBean {
+
+    private final String name;
+    private BeanFactory beanFactory;
+    private String beanName;
+    private UidGenerator uidGenerator;
+
+    NamedUidGeneratorFactoryBean(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public void setBeanName(String beanName) {
+        this.beanName = beanName;
+    }
+
+    @Override
+    public synchronized UidGenerator getObject() {
+        if (uidGenerator == null) {
+            uidGenerator = beanFactory.getBean(UidGeneratorFactory.class).create(name);
+            if (beanFactory instanceof ConfigurableListableBeanFactory listableBeanFactory) {
+                for (String factoryName : listableBeanFactory.getBeanNamesForType(UidGeneratorFactory.class)) {
+                    listableBeanFactory.registerDependentBean(factoryName, BeanFactory.FACTORY_BEAN_PREFIX + beanName);
+                }
+            }
+        }
+        return uidGenerator;
+    }
+
+    @Override
+    public Class<?> getObjectType() {
+        return UidGenerator.class;
+    }
+
+    @Override
+    public synchronized void destroy() throws Exception {
+        if (uidGenerator instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.baidu.fsg.uid.boot;
+
+import com.baidu.fsg.uid.core.UidGenerator;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AutowireCandidateQualifier;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+
+import java.util.Map;
+
+/**
+ * Registers a {@link UidGenerator} bean for each of <code>com.baidu.fsg.uid.generators</code>, named and
+ * qualified by its key, built by {@link UidGeneratorFactory} through {@link NamedUidGeneratorFactoryBean}
+ */
+class NamedUidGeneratorRegistrar implements ImportBeanDefinitionRegistrar, EnvironmentAware {
+    private static final String GENERATORS_PROPERTY = "com.baidu.fsg.uid.generators";
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void registerBeanDefinitions(AnnotationMetadata importingClassMetadata, BeanDefinitionRegistry registry) {
+        Map<String, Object> generators = Binder.get(environment)
+                .bind(GENERATORS_PROPERTY, Bindable.mapOf(String.class, Object.class))
+                .orElse(Map.of());
+        for (String name : generators.keySet()) {
+            if (registry.containsBeanDefinition(name)) {
+                continue;
+            }
+
+            AbstractBeanDefinition definition = BeanDefinitionBuilder.genericBeanDefinition(NamedUidGeneratorFactoryBean.class)
+                    .addConstructorArgValue(name)
+                    .getBeanDefinition();
+            definition.addQualifier(new AutowireCandidateQualifier(Qualifier.class, name));
+            registry.registerBeanDefinition(name, definition);
+        }
+    }
+
+}
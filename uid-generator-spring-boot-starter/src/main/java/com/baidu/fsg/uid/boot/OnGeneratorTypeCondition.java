@@ -0,0 +1,31 @@
+package com.baidu.fsg.uid.boot;
+
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+import java.util.Map;
+
+/**
+ * Condition of {@link ConditionalOnGeneratorType}, the type is bound in the relaxed way, such as
+ * <code>thread-local</code>
+ */
+class OnGeneratorTypeCondition extends SpringBootCondition {
+    private static final String TYPE_PROPERTY = "com.baidu.fsg.uid.type";
+
+    @Override
+    public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        Map<String, Object> attributes = metadata.getAnnotationAttributes(ConditionalOnGeneratorType.class.getName());
+        TypedGeneratorProperties.GeneratorType expected = (TypedGeneratorProperties.GeneratorType) attributes.get("value");
+        TypedGeneratorProperties.GeneratorType type = Binder.get(context.getEnvironment())
+                .bind(TYPE_PROPERTY, TypedGeneratorProperties.GeneratorType.class)
+                .orElse(TypedGeneratorProperties.GeneratorType.CACHED);
+        if (type == expected) {
+            return ConditionOutcome.match(TYPE_PROPERTY + " is " + type);
+        }
+        return ConditionOutcome.noMatch(TYPE_PROPERTY + " is " + type + ", not " + expected);
+    }
+
+}
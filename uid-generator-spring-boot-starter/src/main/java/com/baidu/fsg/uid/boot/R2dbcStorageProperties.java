@@ -0,0 +1,20 @@
+package com.baidu.fsg.uid.boot;
+
+import com.baidu.fsg.uid.r2dbc.R2dbcProperties;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Bound apart from {@link GeneratorProperties}, the R2DBC module is optional
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+@Accessors(chain = true)
+@ConfigurationProperties(prefix = "com.baidu.fsg.uid.r2dbc")
+@Validated
+public class R2dbcStorageProperties extends R2dbcProperties {
+
+}
@@ -0,0 +1,40 @@
+package com.baidu.fsg.uid.boot;
+
+import com.baidu.fsg.uid.core.worker.WorkerNode;
+import com.baidu.fsg.uid.r2dbc.R2dbcWorkerNodeStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationContext;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Worker id assigner on {@link R2dbcWorkerNodeStorage}, which starts registering the worker node by
+ * {@link R2dbcWorkerNodeStorage#registerWorkerNodeAsync(WorkerNode)} as soon as it is built, without blocking the
+ * startup thread. Assigning the worker id waits for the registration only then, on the thread building the generator
+ */
+@Slf4j
+public class R2dbcWorkerIdAssigner extends SpringWorkerIdAssigner {
+    private final CompletableFuture<WorkerNode> registration;
+
+    public R2dbcWorkerIdAssigner(ApplicationContext applicationContext, R2dbcWorkerNodeStorage workerNodeStorage,
+                                 Duration timeout) {
+        super(applicationContext, workerNodeStorage);
+        this.registration = workerNodeStorage.registerWorkerNodeAsync(buildWorkerNode())
+                .timeout(timeout)
+                .toFuture();
+    }
+
+    @Override
+    public long assignWorkerId() {
+        try {
+            WorkerNode workerNode = registration.join();
+            log.info("Register worker node:{}", workerNode);
+            return workerNode.getId();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Register worker node exception", e.getCause());
+        }
+    }
+
+}
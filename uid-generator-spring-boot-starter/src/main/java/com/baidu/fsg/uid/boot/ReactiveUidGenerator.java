@@ -0,0 +1,44 @@
+package com.baidu.fsg.uid.boot;
+
+import com.baidu.fsg.uid.core.impl.CachedUidGenerator;
+import reactor.adapter.JdkFlowAdapter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactor view of {@link CachedUidGenerator#publisher(java.util.concurrent.Executor)}, it never blocks the event
+ * loop: UIDs in the ring buffer are emitted in the requesting thread, and when the buffer is empty they are
+ * emitted on the scheduler after the next padding, never on the padding threads.
+ */
+public class ReactiveUidGenerator {
+    private final CachedUidGenerator uidGenerator;
+    private final Scheduler scheduler;
+
+    /**
+     * Constructor emitting the deferred UIDs on {@link Schedulers#parallel()}
+     */
+    public ReactiveUidGenerator(CachedUidGenerator uidGenerator) {
+        this(uidGenerator, Schedulers.parallel());
+    }
+
+    public ReactiveUidGenerator(CachedUidGenerator uidGenerator, Scheduler scheduler) {
+        this.uidGenerator = uidGenerator;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Endless UIDs as requested
+     */
+    public Flux<Long> uids() {
+        return JdkFlowAdapter.flowPublisherToFlux(uidGenerator.publisher(scheduler::schedule));
+    }
+
+    /**
+     * One UID, only one is requested from the ring buffer
+     */
+    public Mono<Long> uid() {
+        return uids().take(1, true).next();
+    }
+}
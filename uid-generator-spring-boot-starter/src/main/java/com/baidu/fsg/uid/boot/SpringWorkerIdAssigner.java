@@ -4,18 +4,40 @@ import com.baidu.fsg.uid.core.worker.DefaultWorkerIdAssigner;
 import com.baidu.fsg.uid.core.worker.WorkerIdAssigner;
 import com.baidu.fsg.uid.core.worker.WorkerNode;
 import com.baidu.fsg.uid.core.worker.WorkerNodeStorage;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationContext;
 import org.springframework.util.StringUtils;
 
 import java.net.URL;
-import java.util.Objects;
 
+@Slf4j
 public class SpringWorkerIdAssigner extends DefaultWorkerIdAssigner implements WorkerIdAssigner {
     private final ApplicationContext applicationContext;
+    /**
+     * Name of the generator whose worker node is registered apart, null for the default one
+     */
+    private final String generatorName;
 
     public SpringWorkerIdAssigner(ApplicationContext applicationContext, WorkerNodeStorage workerNodeStorage) {
+        this(applicationContext, workerNodeStorage, null);
+    }
+
+    protected SpringWorkerIdAssigner(ApplicationContext applicationContext, WorkerNodeStorage workerNodeStorage,
+                                     String generatorName) {
         super(workerNodeStorage);
         this.applicationContext = applicationContext;
+        this.generatorName = generatorName;
+    }
+
+    /**
+     * Assigner of a named generator, whose worker node is registered by the port suffixed with the name, so it
+     * gets a worker id of its own
+     *
+     * @param generatorName
+     * @return assigner of the generator
+     */
+    public SpringWorkerIdAssigner forGenerator(String generatorName) {
+        return new SpringWorkerIdAssigner(applicationContext, workerNodeStorage, generatorName);
     }
 
     /**
@@ -27,12 +49,9 @@ public class SpringWorkerIdAssigner extends DefaultWorkerIdAssigner implements W
      */
     @Override
     public long assignWorkerId() {
-        WorkerNode workerNode = buildWorkerNode();
-        WorkerNode history = workerNodeStorage.getWorkerNodeByHostPort(workerNode.getHostName(), workerNode.getPort());
-        if (history!=null){
-            return history.getId();
-        }
-        return super.assignWorkerId();
+        WorkerNode workerNode = workerNodeStorage.registerWorkerNode(buildWorkerNode());
+        log.info("Register worker node:{}", workerNode);
+        return workerNode.getId();
     }
 
     /**
@@ -40,7 +59,11 @@ public class SpringWorkerIdAssigner extends DefaultWorkerIdAssigner implements W
      */
     @Override
     protected WorkerNode buildWorkerNode() {
-        return super.buildWorkerNode();
+        WorkerNode workerNode = super.buildWorkerNode();
+        if (generatorName != null) {
+            workerNode.setPort(workerNode.getPort() + "-" + generatorName);
+        }
+        return workerNode;
     }
 
 
@@ -52,8 +75,20 @@ public class SpringWorkerIdAssigner extends DefaultWorkerIdAssigner implements W
             return applicationContext.getId()+"-"+serverPort;
         }
         //没有则直接使用唯一标识
+        return applicationContext.getId()+"-"+Math.abs(getDeploymentPath().hashCode());
+    }
+
+    /**
+     * Location of this class file, which tells the deployments on the same host apart. A native image has no
+     * class files, the path of the executable instead
+     */
+    private String getDeploymentPath() {
         URL resource = Thread.currentThread().getContextClassLoader().getResource(this.getClass().getName().replace(".", "/") + ".class");
-        return applicationContext.getId()+"-"+Math.abs(Objects.requireNonNull(resource).toString().hashCode());
+        if (resource != null) {
+            return resource.toString();
+        }
+        return ProcessHandle.current().info().command()
+                .orElseThrow(() -> new IllegalStateException("Neither class file nor executable of the application is found"));
     }
 
 
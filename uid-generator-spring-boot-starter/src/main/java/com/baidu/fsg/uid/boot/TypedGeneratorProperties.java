@@ -0,0 +1,64 @@
+package com.baidu.fsg.uid.boot;
+
+import com.baidu.fsg.uid.core.CacheGeneratorProperties;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+/**
+ * Properties of a generator of the chosen {@link GeneratorType}, the default one or a named one
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+@ToString(callSuper = true)
+@Accessors(chain = true)
+public class TypedGeneratorProperties extends CacheGeneratorProperties {
+
+    @NotNull
+    private GeneratorType type = GeneratorType.CACHED;
+
+    /**
+     * Stripes of a striped generator, power of 2
+     */
+    @Min(1)
+    @NotNull
+    private Integer stripes = 8;
+
+    /**
+     * UIDs taken by a thread at once of a thread-local generator
+     */
+    @Min(1)
+    @NotNull
+    private Integer chunkSize = 64;
+
+    /**
+     * Added to the worker id of the host for a named generator, required unless the worker id is assigned by a
+     * storage. It must be stable across deploys, and the offsets of the generators must be further apart than the
+     * worker ids of the hosts, see {@link UidGeneratorFactory}
+     */
+    @Min(1)
+    private Long workerIdOffset;
+
+    public enum GeneratorType {
+        /**
+         * {@link com.baidu.fsg.uid.core.impl.DefaultUidGenerator}, generates under a lock on demand, no buffer
+         */
+        DIRECT,
+        /**
+         * {@link com.baidu.fsg.uid.core.impl.CachedUidGenerator}, takes from a ring buffer padded in the background
+         */
+        CACHED,
+        /**
+         * {@link com.baidu.fsg.uid.core.impl.StripedUidGenerator}, generates under a lock per stripe of threads
+         */
+        STRIPED,
+        /**
+         * {@link com.baidu.fsg.uid.core.impl.ThreadLocalUidGenerator} over a cached one, takes chunks per thread
+         */
+        THREAD_LOCAL
+    }
+
+}
@@ -1,40 +1,255 @@
 package com.baidu.fsg.uid.boot;
 
+import com.baidu.fsg.uid.boot.TypedGeneratorProperties.GeneratorType;
+import com.baidu.fsg.uid.core.impl.AsyncUidGenerator;
 import com.baidu.fsg.uid.core.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.core.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.core.impl.StripedUidGenerator;
+import com.baidu.fsg.uid.core.impl.ThreadLocalUidGenerator;
+import com.baidu.fsg.uid.core.worker.AbstractLocalWorkerIdAssigner;
+import com.baidu.fsg.uid.core.worker.EnvWorkerIdAssigner;
+import com.baidu.fsg.uid.core.worker.InMemoryWorkerNodeStorage;
+import com.baidu.fsg.uid.core.worker.IpWorkerIdAssigner;
+import com.baidu.fsg.uid.core.worker.LocalCachedWorkerNodeStorage;
+import com.baidu.fsg.uid.core.worker.OrdinalWorkerIdAssigner;
 import com.baidu.fsg.uid.core.worker.WorkerIdAssigner;
 import com.baidu.fsg.uid.core.worker.WorkerNodeStorage;
 import com.baidu.fsg.uid.jdbc.JdbcWorkerNodeStorage;
+import com.baidu.fsg.uid.r2dbc.R2dbcWorkerNodeStorage;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.autoconfigure.health.ConditionalOnEnabledHealthIndicator;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.AllNestedConditions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.context.annotation.Primary;
+import reactor.core.publisher.Flux;
 
 import javax.sql.DataSource;
 
-@AutoConfiguration
+@AutoConfiguration(afterName = {
+        "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration",
+        "org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration"
+})
 @EnableConfigurationProperties({
         GeneratorProperties.class
 })
+@Import(NamedUidGeneratorRegistrar.class)
+@ImportRuntimeHints(UidGeneratorRuntimeHints.class)
+@Slf4j
 public class UIDGeneratorAutoConfiguration {
 
-
     @Bean
     @ConditionalOnMissingBean
+    @ConditionalOnBean(DataSource.class)
     public WorkerNodeStorage workerNodeStorage(DataSource dataSource, GeneratorProperties properties){
-        return new JdbcWorkerNodeStorage(dataSource,properties.getJdbc());
+        WorkerNodeStorage workerNodeStorage = new JdbcWorkerNodeStorage(dataSource,properties.getJdbc());
+        GeneratorProperties.LocalCache localCache = properties.getLocalCache();
+        if (localCache.getFile() != null){
+            return new LocalCachedWorkerNodeStorage(workerNodeStorage,localCache.getFile(),localCache.getValidity());
+        }
+        return workerNodeStorage;
+    }
+
+    /**
+     * Neither DataSource nor R2DBC storage for the storage assigner, worker ids are unique within the JVM only
+     */
+    @Bean
+    @ConditionalOnMissingBean({WorkerNodeStorage.class, DataSource.class})
+    @Conditional(InMemoryFallbackCondition.class)
+    public WorkerNodeStorage inMemoryWorkerNodeStorage(){
+        log.warn("Neither DataSource nor R2DBC storage is found, worker ids are kept in memory and unique within the JVM only. "
+                + "Set com.baidu.fsg.uid.assigner.in-memory-fallback=false to fail instead");
+        return new InMemoryWorkerNodeStorage();
+    }
+
+    /**
+     * The fallback is enabled, and the storage assigner is chosen, the local ones don't take a storage
+     */
+    static class InMemoryFallbackCondition extends AllNestedConditions {
+
+        InMemoryFallbackCondition() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(prefix = "com.baidu.fsg.uid.assigner", name = "in-memory-fallback", havingValue = "true", matchIfMissing = true)
+        static class FallbackEnabled {
+        }
+
+        @ConditionalOnProperty(prefix = "com.baidu.fsg.uid.assigner", name = "type", havingValue = "STORAGE", matchIfMissing = true)
+        static class StorageAssigner {
+        }
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public WorkerIdAssigner workerIdAssigner(ApplicationContext applicationContext,WorkerNodeStorage workerNodeStorage){
-        return new SpringWorkerIdAssigner(applicationContext,workerNodeStorage);
+    public WorkerIdAssigner workerIdAssigner(ApplicationContext applicationContext,
+                                             ObjectProvider<WorkerNodeStorage> workerNodeStorage,
+                                             GeneratorProperties properties){
+        GeneratorProperties.Assigner assigner = properties.getAssigner();
+        long maxWorkerId = AbstractLocalWorkerIdAssigner.maxWorkerId(properties.getWorkerBits());
+        return switch (assigner.getType()) {
+            case ORDINAL -> new OrdinalWorkerIdAssigner(OrdinalWorkerIdAssigner.getHostName(), assigner.getOrdinalOffset(), maxWorkerId);
+            case IP -> new IpWorkerIdAssigner(assigner.getIpBits() != null ? assigner.getIpBits() : properties.getWorkerBits(), maxWorkerId);
+            case ENV -> new EnvWorkerIdAssigner(assigner.getEnv(), maxWorkerId);
+            case STORAGE -> new SpringWorkerIdAssigner(applicationContext, workerNodeStorage.getIfAvailable(() -> {
+                throw new IllegalStateException("No WorkerNodeStorage for the storage assigner, "
+                        + "configure a DataSource or R2DBC, or another com.baidu.fsg.uid.assigner.type");
+            }));
+        };
     }
 
 
     @Bean
     @ConditionalOnMissingBean
-    public CachedUidGenerator uidGenerator(WorkerIdAssigner workerIdAssigner, GeneratorProperties properties){
-        return new CachedUidGenerator(workerIdAssigner,properties);
+    public UidGeneratorFactory uidGeneratorFactory(WorkerIdAssigner workerIdAssigner, GeneratorProperties properties){
+        return new UidGeneratorFactory(workerIdAssigner,properties);
+    }
+
+    /**
+     * The default generator of <code>com.baidu.fsg.uid.type</code>, primary among the named ones
+     */
+    @Bean
+    @Primary
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "com.baidu.fsg.uid.async", name = "enabled", havingValue = "false", matchIfMissing = true)
+    @ConditionalOnGeneratorType(GeneratorType.CACHED)
+    public CachedUidGenerator uidGenerator(UidGeneratorFactory uidGeneratorFactory, GeneratorProperties properties){
+        return (CachedUidGenerator) uidGeneratorFactory.create(properties);
+    }
+
+    @Bean("uidGenerator")
+    @Primary
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "com.baidu.fsg.uid.async", name = "enabled", havingValue = "false", matchIfMissing = true)
+    @ConditionalOnGeneratorType(GeneratorType.DIRECT)
+    public DefaultUidGenerator directUidGenerator(UidGeneratorFactory uidGeneratorFactory, GeneratorProperties properties){
+        return (DefaultUidGenerator) uidGeneratorFactory.create(properties);
+    }
+
+    @Bean("uidGenerator")
+    @Primary
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "com.baidu.fsg.uid.async", name = "enabled", havingValue = "false", matchIfMissing = true)
+    @ConditionalOnGeneratorType(GeneratorType.STRIPED)
+    public StripedUidGenerator stripedUidGenerator(UidGeneratorFactory uidGeneratorFactory, GeneratorProperties properties){
+        return (StripedUidGenerator) uidGeneratorFactory.create(properties);
+    }
+
+    @Bean("uidGenerator")
+    @Primary
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "com.baidu.fsg.uid.async", name = "enabled", havingValue = "false", matchIfMissing = true)
+    @ConditionalOnGeneratorType(GeneratorType.THREAD_LOCAL)
+    public ThreadLocalUidGenerator threadLocalUidGenerator(UidGeneratorFactory uidGeneratorFactory, GeneratorProperties properties){
+        return (ThreadLocalUidGenerator) uidGeneratorFactory.create(properties);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "com.baidu.fsg.uid.async", name = "enabled", havingValue = "true")
+    public AsyncUidGenerator asyncUidGenerator(UidGeneratorFactory uidGeneratorFactory, GeneratorProperties properties){
+        return new AsyncUidGenerator(() -> uidGeneratorFactory.create(properties),
+                properties.getAsync().getAwaitTimeout());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public UidGeneratorLifecycle uidGeneratorLifecycle(ListableBeanFactory beanFactory, GeneratorProperties properties){
+        return new UidGeneratorLifecycle(beanFactory, properties.getLifecycle());
+    }
+
+    /**
+     * Worker node storage of reactive applications without a DataSource
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass({ConnectionFactory.class, R2dbcWorkerNodeStorage.class})
+    @EnableConfigurationProperties(R2dbcStorageProperties.class)
+    static class R2dbcConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean({WorkerNodeStorage.class, DataSource.class})
+        @ConditionalOnBean(ConnectionFactory.class)
+        public R2dbcWorkerNodeStorage r2dbcWorkerNodeStorage(ConnectionFactory connectionFactory, R2dbcStorageProperties properties){
+            return new R2dbcWorkerNodeStorage(connectionFactory,properties);
+        }
+
+        /**
+         * Registers the worker node reactively from the start, ahead of building the generator
+         */
+        @Bean
+        @ConditionalOnMissingBean(WorkerIdAssigner.class)
+        @ConditionalOnBean(R2dbcWorkerNodeStorage.class)
+        @ConditionalOnProperty(prefix = "com.baidu.fsg.uid.assigner", name = "type", havingValue = "STORAGE", matchIfMissing = true)
+        public WorkerIdAssigner r2dbcWorkerIdAssigner(ApplicationContext applicationContext, R2dbcWorkerNodeStorage workerNodeStorage,
+                                                      R2dbcStorageProperties properties){
+            return new R2dbcWorkerIdAssigner(applicationContext, workerNodeStorage, properties.getBlockTimeout());
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterBinder.class)
+    static class MetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public UidGeneratorMeterBinder uidGeneratorMeterBinder(ListableBeanFactory beanFactory){
+            return new UidGeneratorMeterBinder(beanFactory);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass({Endpoint.class, ConditionalOnAvailableEndpoint.class})
+    static class EndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnAvailableEndpoint
+        public UidGeneratorEndpoint uidGeneratorEndpoint(ListableBeanFactory beanFactory){
+            return new UidGeneratorEndpoint(beanFactory);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass({HealthIndicator.class, ConditionalOnEnabledHealthIndicator.class})
+    static class HealthConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(name = "uidGeneratorHealthIndicator")
+        @ConditionalOnEnabledHealthIndicator("uid")
+        public UidGeneratorHealthIndicator uidGeneratorHealthIndicator(ListableBeanFactory beanFactory, GeneratorProperties properties){
+            GeneratorProperties.Health health = properties.getHealth();
+            return new UidGeneratorHealthIndicator(beanFactory, health.getWarnHorizons(), health.getStarvationWindow());
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(Flux.class)
+    @ConditionalOnProperty(prefix = "com.baidu.fsg.uid.async", name = "enabled", havingValue = "false", matchIfMissing = true)
+    @ConditionalOnGeneratorType(GeneratorType.CACHED)
+    static class ReactiveConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ReactiveUidGenerator reactiveUidGenerator(CachedUidGenerator uidGenerator){
+            return new ReactiveUidGenerator(uidGenerator);
+        }
     }
 }
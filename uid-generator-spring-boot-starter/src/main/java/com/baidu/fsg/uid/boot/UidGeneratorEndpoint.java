@@ -0,0 +1,144 @@
+package com.baidu.fsg.uid.boot;
+
+import com.baidu.fsg.uid.core.BitsAllocator;
+import com.baidu.fsg.uid.core.UidGenerator;
+import com.baidu.fsg.uid.core.buffer.BufferPaddingExecutor;
+import com.baidu.fsg.uid.core.buffer.RingBuffer;
+import com.baidu.fsg.uid.core.impl.AsyncUidGenerator;
+import com.baidu.fsg.uid.core.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.core.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.core.impl.ThreadLocalUidGenerator;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actuator endpoint <code>uid</code> of the UID generator beans: bit layout, worker id, ring buffer & padding
+ * state, and the headroom of timestamp bits<p>
+ *
+ * The write operation tunes a cached generator at runtime: <code>paddingFactor</code>,
+ * <code>scheduleInterval</code> of a scheduled one, and <code>pad</code> to pad the ring buffer at once.
+ */
+@Endpoint(id = "uid")
+public class UidGeneratorEndpoint {
+
+    private final ListableBeanFactory beanFactory;
+
+    public UidGeneratorEndpoint(ListableBeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @ReadOperation
+    public Map<String, Object> generators() {
+        Map<String, Object> generators = new LinkedHashMap<>();
+        beanFactory.getBeansOfType(UidGenerator.class).forEach((name, generator) -> generators.put(name, describe(generator)));
+        return generators;
+    }
+
+    @ReadOperation
+    public Map<String, Object> generator(@Selector String name) {
+        return describe(beanFactory.getBean(name, UidGenerator.class));
+    }
+
+    @WriteOperation
+    public Map<String, Object> tune(@Selector String name, @Nullable Integer paddingFactor,
+                                    @Nullable Long scheduleInterval, @Nullable Boolean pad) {
+        UidGenerator generator = unwrap(beanFactory.getBean(name, UidGenerator.class));
+        if (!(generator instanceof CachedUidGenerator cached)) {
+            throw new IllegalArgumentException("UidGenerator " + name + " is not a ready CachedUidGenerator");
+        }
+
+        RingBuffer ringBuffer = cached.getRingBuffer();
+        BufferPaddingExecutor bufferPaddingExecutor = ringBuffer.getBufferPaddingExecutor();
+        if (scheduleInterval != null && !bufferPaddingExecutor.isUsingSchedule()) {
+            throw new IllegalArgumentException("UidGenerator " + name + " pads without a schedule, scheduleInterval can't be tuned");
+        }
+        if (paddingFactor != null) {
+            ringBuffer.setPaddingFactor(paddingFactor);
+        }
+        if (scheduleInterval != null) {
+            bufferPaddingExecutor.setScheduleInterval(scheduleInterval);
+        }
+        if (Boolean.TRUE.equals(pad)) {
+            bufferPaddingExecutor.asyncPadding();
+        }
+        return describe(cached);
+    }
+
+    private Map<String, Object> describe(UidGenerator uidGenerator) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("type", uidGenerator.getClass().getSimpleName());
+        if (uidGenerator instanceof AsyncUidGenerator async) {
+            description.put("ready", async.isReady());
+        }
+
+        if (!(unwrap(uidGenerator) instanceof DefaultUidGenerator generator)) {
+            return description;
+        }
+        description.put("workerId", generator.getWorkerId());
+
+        BitsAllocator bitsAllocator = generator.getBitsAllocator();
+        Map<String, Object> bits = new LinkedHashMap<>();
+        bits.put("sign", bitsAllocator.getSignBits());
+        bits.put("timestamp", bitsAllocator.getTimestampBits());
+        bits.put("workerId", bitsAllocator.getWorkerIdBits());
+        bits.put("sequence", bitsAllocator.getSequenceBits());
+        description.put("bits", bits);
+
+        long epochSeconds = generator.getEpochSeconds();
+        long deltaSeconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) - epochSeconds;
+        // seconds borrowed ahead by the padding are spent already, the same as the health indicator counts
+        long highWaterDeltaSeconds = Math.max(generator.getHighWaterSecond() - epochSeconds, deltaSeconds);
+        Map<String, Object> timestamp = new LinkedHashMap<>();
+        timestamp.put("epoch", Instant.ofEpochSecond(epochSeconds));
+        timestamp.put("maxDeltaSeconds", bitsAllocator.getMaxDeltaSeconds());
+        timestamp.put("remainingSeconds", bitsAllocator.getMaxDeltaSeconds() - highWaterDeltaSeconds);
+        timestamp.put("exhaustedAt", Instant.ofEpochSecond(epochSeconds + bitsAllocator.getMaxDeltaSeconds()));
+        description.put("timestamp", timestamp);
+
+        if (generator instanceof CachedUidGenerator cached) {
+            RingBuffer ringBuffer = cached.getRingBuffer();
+            Map<String, Object> buffer = new LinkedHashMap<>();
+            buffer.put("bufferSize", ringBuffer.getBufferSize());
+            buffer.put("tail", ringBuffer.getTail());
+            buffer.put("cursor", ringBuffer.getCursor());
+            buffer.put("remaining", ringBuffer.getTail() - ringBuffer.getCursor());
+            buffer.put("paddingFactor", ringBuffer.getPaddingFactor());
+            buffer.put("paddingThreshold", ringBuffer.getPaddingThreshold());
+            description.put("ringBuffer", buffer);
+
+            BufferPaddingExecutor bufferPaddingExecutor = ringBuffer.getBufferPaddingExecutor();
+            Map<String, Object> padding = new LinkedHashMap<>();
+            padding.put("running", bufferPaddingExecutor.isRunning());
+            padding.put("lastSecond", bufferPaddingExecutor.getLastSecond());
+            padding.put("leadSeconds", bufferPaddingExecutor.getLastSecond() - epochSeconds - deltaSeconds);
+            padding.put("usingSchedule", bufferPaddingExecutor.isUsingSchedule());
+            padding.put("scheduleInterval", bufferPaddingExecutor.getScheduleInterval());
+            padding.put("count", ringBuffer.getMetrics().getPaddingCount());
+            description.put("padding", padding);
+        }
+        return description;
+    }
+
+    /**
+     * The delegate of an {@link AsyncUidGenerator} once ready, or of a {@link ThreadLocalUidGenerator}
+     */
+    private static UidGenerator unwrap(UidGenerator uidGenerator) {
+        if (uidGenerator instanceof AsyncUidGenerator async && async.isReady()) {
+            uidGenerator = async.readiness().join();
+        }
+        if (uidGenerator instanceof ThreadLocalUidGenerator threadLocal) {
+            return threadLocal.getDelegate();
+        }
+        return uidGenerator;
+    }
+
+}
@@ -0,0 +1,245 @@
+package com.baidu.fsg.uid.boot;
+
+import com.baidu.fsg.uid.core.UidGenerator;
+import com.baidu.fsg.uid.core.buffer.PaddingPools;
+import com.baidu.fsg.uid.core.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.core.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.core.impl.StripedUidGenerator;
+import com.baidu.fsg.uid.core.impl.ThreadLocalUidGenerator;
+import com.baidu.fsg.uid.core.worker.LeaseListener;
+import com.baidu.fsg.uid.core.worker.WorkerIdAssigner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the generators of the starter, the default one and the named ones of
+ * <code>com.baidu.fsg.uid.generators</code><p>
+ *
+ * Each of them issues by a worker id of its own, so UIDs are unique across them. On a storage each named
+ * generator registers a worker node of its own, see {@link SpringWorkerIdAssigner#forGenerator(String)}. Other
+ * assigners give one worker id per host, assigned once. The default generator issues by it as it is, and each named
+ * one by it plus the {@link TypedGeneratorProperties#getWorkerIdOffset() worker id offset} of its configuration,
+ * which is required then. The offsets are fixed by the configuration, so adding, removing or reordering the named
+ * generators never moves the worker id of another one. The worker id of the host must be below the smallest gap
+ * between the offsets, including 0 of the default one, or the generator fails to build instead of sharing a worker
+ * id with another host.<p>
+ *
+ * The cached ones share one {@link PaddingPools}, shut down once they are closed.
+ */
+@Slf4j
+public class UidGeneratorFactory implements AutoCloseable {
+
+    private final WorkerIdAssigner workerIdAssigner;
+    /** Null unless on a storage */
+    private final SpringWorkerIdAssigner storageWorkerIdAssigner;
+    private final GeneratorProperties properties;
+    /** Worker ids of a host are below it, so the ranges of the offsets never overlap. Null if not offset */
+    private final Long offsetGap;
+    private PaddingPools paddingPools;
+
+    public UidGeneratorFactory(WorkerIdAssigner workerIdAssigner, GeneratorProperties properties) {
+        this.workerIdAssigner = new SharedWorkerIdAssigner(workerIdAssigner);
+        this.storageWorkerIdAssigner = workerIdAssigner instanceof SpringWorkerIdAssigner spring ? spring : null;
+        this.properties = properties;
+        this.offsetGap = storageWorkerIdAssigner != null || properties.getGenerators().isEmpty() ? null
+                : getOffsetGap(properties);
+    }
+
+    /**
+     * Smallest gap between the worker id offsets of the named generators and 0 of the default one
+     *
+     * @throws IllegalStateException if a named generator has no offset, or two of them have the same one
+     */
+    private static long getOffsetGap(GeneratorProperties properties) {
+        List<Long> offsets = new ArrayList<>();
+        offsets.add(0L);
+        for (Map.Entry<String, TypedGeneratorProperties> entry : properties.getGenerators().entrySet()) {
+            Long offset = entry.getValue().getWorkerIdOffset();
+            if (offset == null) {
+                throw new IllegalStateException(String.format("UidGenerator:%s must have a worker id offset by "
+                        + "com.baidu.fsg.uid.generators.%s.worker-id-offset, as the worker id is not assigned by a "
+                        + "storage", entry.getKey(), entry.getKey()));
+            }
+            offsets.add(offset);
+        }
+
+        Collections.sort(offsets);
+        long gap = Long.MAX_VALUE;
+        for (int i = 1; i < offsets.size(); i++) {
+            gap = Math.min(gap, offsets.get(i) - offsets.get(i - 1));
+        }
+        if (gap == 0) {
+            throw new IllegalStateException("Worker id offsets of the named UidGenerators must be distinct: " + offsets);
+        }
+        return gap;
+    }
+
+    /**
+     * Build the named generator
+     *
+     * @param name key of <code>com.baidu.fsg.uid.generators</code>
+     * @return generator
+     */
+    public UidGenerator create(String name) {
+        TypedGeneratorProperties generatorProperties = properties.getGenerators().get(name);
+        Assert.notNull(generatorProperties, "No UidGenerator named " + name);
+        if (generatorProperties.getName() == null) {
+            generatorProperties.setName(name);
+        }
+        log.info("Build UidGenerator:{} of type:{}", name, generatorProperties.getType());
+        return create(generatorProperties);
+    }
+
+    /**
+     * Build the generator of the type
+     *
+     * @param generatorProperties
+     * @return generator
+     */
+    public UidGenerator create(TypedGeneratorProperties generatorProperties) {
+        checkLeasedCheckpoint(generatorProperties);
+        WorkerIdAssigner workerIdAssigner = getWorkerIdAssigner(generatorProperties.getName());
+        return switch (generatorProperties.getType()) {
+            case DIRECT -> new DefaultUidGenerator(workerIdAssigner, generatorProperties);
+            case CACHED -> new CachedUidGenerator(workerIdAssigner, generatorProperties, getPaddingPools());
+            case STRIPED -> new StripedUidGenerator(workerIdAssigner, generatorProperties, generatorProperties.getStripes());
+            case THREAD_LOCAL -> new ThreadLocalUidGenerator(
+                    new CachedUidGenerator(workerIdAssigner, generatorProperties, getPaddingPools()),
+                    generatorProperties.getChunkSize());
+        };
+    }
+
+    /**
+     * A cached generator borrows seconds ahead of the clock. If it crashes, a host reclaiming its expired worker id
+     * resumes above the saved high-water mark only, so the borrowed seconds must be reserved by a checkpoint interval
+     *
+     * @throws IllegalStateException if worker ids are leased, and a cached generator has no checkpoint interval
+     */
+    private void checkLeasedCheckpoint(TypedGeneratorProperties generatorProperties) {
+        boolean cached = generatorProperties.getType() == TypedGeneratorProperties.GeneratorType.CACHED
+                || generatorProperties.getType() == TypedGeneratorProperties.GeneratorType.THREAD_LOCAL;
+        boolean leased = storageWorkerIdAssigner != null && properties.getJdbc() != null
+                && properties.getJdbc().getLeaseTimeout() != null;
+        if (cached && leased && generatorProperties.getCheckpointInterval() == null) {
+            String name = generatorProperties.getName();
+            String prefix = name != null && properties.getGenerators().containsKey(name)
+                    ? "com.baidu.fsg.uid.generators." + name : "com.baidu.fsg.uid";
+            throw new IllegalStateException(String.format("UidGenerator:%s must have %s.checkpoint-interval as "
+                    + "com.baidu.fsg.uid.jdbc.lease-timeout is set, or the seconds it borrows ahead of the clock may be "
+                    + "issued again by a host reclaiming its worker id", name, prefix));
+        }
+    }
+
+    /**
+     * Shut down the shared padding pools
+     */
+    @Override
+    public synchronized void close() {
+        if (paddingPools != null) {
+            paddingPools.close();
+        }
+    }
+
+    /**
+     * Assigner of the generator of the name, the default one unless it is a key of the named ones
+     */
+    private WorkerIdAssigner getWorkerIdAssigner(String name) {
+        TypedGeneratorProperties named = name == null ? null : properties.getGenerators().get(name);
+        if (named != null && storageWorkerIdAssigner != null) {
+            return storageWorkerIdAssigner.forGenerator(name);
+        }
+        if (offsetGap == null) {
+            return workerIdAssigner;
+        }
+        return new OffsetWorkerIdAssigner(workerIdAssigner, named == null ? 0L : named.getWorkerIdOffset(), offsetGap);
+    }
+
+    private synchronized PaddingPools getPaddingPools() {
+        if (paddingPools == null) {
+            paddingPools = new PaddingPools();
+        }
+        return paddingPools;
+    }
+
+    /**
+     * Assign the worker id once for all generators
+     */
+    private static class SharedWorkerIdAssigner implements WorkerIdAssigner {
+        private final WorkerIdAssigner delegate;
+        private Long workerId;
+
+        private SharedWorkerIdAssigner(WorkerIdAssigner delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized long assignWorkerId() {
+            if (workerId == null) {
+                workerId = delegate.assignWorkerId();
+            }
+            return workerId;
+        }
+
+        @Override
+        public void watchLease(long workerId, LeaseListener listener) {
+            delegate.watchLease(workerId, listener);
+        }
+
+        @Override
+        public long getHighWaterMark(long workerId) {
+            return delegate.getHighWaterMark(workerId);
+        }
+
+        @Override
+        public void saveHighWaterMark(long workerId, long second) {
+            delegate.saveHighWaterMark(workerId, second);
+        }
+    }
+
+    /**
+     * Worker id of a host plus the offset of a generator. The lease & high-water mark are of the worker id of the
+     * host, so the generators resume above the highest second issued by any of them
+     */
+    private static class OffsetWorkerIdAssigner implements WorkerIdAssigner {
+        private final WorkerIdAssigner delegate;
+        private final long offset;
+        private final long offsetGap;
+
+        private OffsetWorkerIdAssigner(WorkerIdAssigner delegate, long offset, long offsetGap) {
+            this.delegate = delegate;
+            this.offset = offset;
+            this.offsetGap = offsetGap;
+        }
+
+        @Override
+        public long assignWorkerId() {
+            long workerId = delegate.assignWorkerId();
+            if (workerId >= offsetGap) {
+                throw new IllegalStateException(String.format("Worker id:%d of the host is not below the smallest gap:%d "
+                        + "between the worker id offsets, it would be shared with another host", workerId, offsetGap));
+            }
+            return workerId + offset;
+        }
+
+        @Override
+        public void watchLease(long workerId, LeaseListener listener) {
+            delegate.watchLease(workerId - offset, (hostWorkerId, held) -> listener.onLease(workerId, held));
+        }
+
+        @Override
+        public long getHighWaterMark(long workerId) {
+            return delegate.getHighWaterMark(workerId - offset);
+        }
+
+        @Override
+        public void saveHighWaterMark(long workerId, long second) {
+            delegate.saveHighWaterMark(workerId - offset, second);
+        }
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.baidu.fsg.uid.boot;
+
+import com.baidu.fsg.uid.core.BitsAllocator;
+import com.baidu.fsg.uid.core.UidGenerator;
+import com.baidu.fsg.uid.core.impl.AsyncUidGenerator;
+import com.baidu.fsg.uid.core.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.core.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.core.impl.ThreadLocalUidGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Health of the UID generator beans<p>
+ *
+ * The timestamp bits run out when the high-water second passes the max delta seconds of the epoch, then every
+ * UID is refused. A cached generator gets there early as the padding borrows future seconds, so the remaining
+ * seconds are divided by the burn rate: seconds of UIDs issued per second of wall clock, sampled between health
+ * checks and at least 1. A warning is put in the details and logged once the forecast falls within a warn
+ * horizon.<p>
+ *
+ * Down if the timestamp bits are exhausted, or the lease of the worker id may be lost, or takes keep being rejected by an empty ring buffer for the
+ * starvation window, or an {@link AsyncUidGenerator} failed to build. Out of service until it is built.
+ */
+@Slf4j
+public class UidGeneratorHealthIndicator extends AbstractHealthIndicator {
+    private static final List<Status> SEVERITY = List.of(Status.UP, Status.OUT_OF_SERVICE, Status.DOWN);
+
+    private final ListableBeanFactory beanFactory;
+    private final List<Duration> warnHorizons;
+    private final Duration starvationWindow;
+
+    /** Bean name -> last sample */
+    private final Map<String, Sample> samples = new ConcurrentHashMap<>();
+
+    public UidGeneratorHealthIndicator(ListableBeanFactory beanFactory, List<Duration> warnHorizons, Duration starvationWindow) {
+        super("UID generator health check failed");
+        this.beanFactory = beanFactory;
+        this.warnHorizons = warnHorizons.stream().sorted().toList();
+        this.starvationWindow = starvationWindow;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        Status status = Status.UP;
+        for (Map.Entry<String, UidGenerator> entry : beanFactory.getBeansOfType(UidGenerator.class).entrySet()) {
+            Map<String, Object> details = new LinkedHashMap<>();
+            Status generatorStatus = check(entry.getKey(), entry.getValue(), details);
+            details.put("status", generatorStatus.getCode());
+            builder.withDetail(entry.getKey(), details);
+            status = SEVERITY.indexOf(generatorStatus) > SEVERITY.indexOf(status) ? generatorStatus : status;
+        }
+        builder.status(status);
+    }
+
+    private Status check(String name, UidGenerator uidGenerator, Map<String, Object> details) {
+        details.put("type", uidGenerator.getClass().getSimpleName());
+        if (uidGenerator instanceof AsyncUidGenerator async) {
+            if (!async.isReady()) {
+                details.put("ready", false);
+                return async.readiness().isCompletedExceptionally() ? Status.DOWN : Status.OUT_OF_SERVICE;
+            }
+            uidGenerator = async.readiness().join();
+        }
+        if (uidGenerator instanceof ThreadLocalUidGenerator threadLocal) {
+            uidGenerator = threadLocal.getDelegate();
+        }
+        if (!(uidGenerator instanceof DefaultUidGenerator generator)) {
+            return Status.UP;
+        }
+
+        Sample sample = sample(name, generator);
+        BitsAllocator bitsAllocator = generator.getBitsAllocator();
+        long nowSecond = TimeUnit.MILLISECONDS.toSeconds(sample.millis);
+        long remainingSeconds = bitsAllocator.getMaxDeltaSeconds() - (sample.second - generator.getEpochSeconds());
+        long forecastSeconds = (long) (remainingSeconds / sample.burnRate);
+
+        details.put("workerId", generator.getWorkerId());
+        details.put("highWaterSecond", sample.second);
+        details.put("leadSeconds", sample.second - nowSecond);
+        details.put("burnRate", sample.burnRate);
+        details.put("remainingSeconds", remainingSeconds);
+        details.put("forecastExhaustion", Instant.ofEpochSecond(nowSecond + Math.max(forecastSeconds, 0)));
+        if (generator instanceof CachedUidGenerator) {
+            details.put("rejectedTakes", sample.rejectedTakes);
+        }
+
+        if (remainingSeconds <= 0) {
+            details.put("error", "Timestamp bits are exhausted");
+            return Status.DOWN;
+        }
+        if (generator.isFenced()) {
+            details.put("error", "Lease of the worker id may be lost");
+            return Status.DOWN;
+        }
+
+        Duration forecast = Duration.ofSeconds(forecastSeconds);
+        warnHorizons.stream().filter(horizon -> forecast.compareTo(horizon) <= 0).findFirst().ifPresent(horizon -> {
+            details.put("warning", "Timestamp bits are forecast to run out within " + horizon);
+            if (!horizon.equals(sample.warned)) {
+                log.warn("Timestamp bits of UidGenerator:{} are forecast to run out within {}, at {}",
+                        name, horizon, details.get("forecastExhaustion"));
+            }
+            sample.warned = horizon;
+        });
+
+        if (sample.starvingSince >= 0) {
+            long starvingMillis = sample.millis - sample.starvingSince;
+            details.put("starvingSeconds", TimeUnit.MILLISECONDS.toSeconds(starvingMillis));
+            if (starvingMillis >= starvationWindow.toMillis()) {
+                details.put("error", "Ring buffer is starved for " + Duration.ofMillis(starvingMillis));
+                return Status.DOWN;
+            }
+        }
+        return Status.UP;
+    }
+
+    /**
+     * Take a new sample if the last one is older than a second, otherwise keep the last one
+     */
+    private Sample sample(String name, DefaultUidGenerator generator) {
+        long millis = System.currentTimeMillis();
+        Sample last = samples.get(name);
+        if (last != null && millis - last.millis < TimeUnit.SECONDS.toMillis(1)) {
+            return last;
+        }
+
+        // seconds are spent by the clock anyway even if no UID is issued
+        long second = Math.max(generator.getHighWaterSecond(), TimeUnit.MILLISECONDS.toSeconds(millis));
+        long rejectedTakes = generator instanceof CachedUidGenerator cached
+                ? cached.getRingBuffer().getMetrics().getRejectedTakeCount() : 0L;
+
+        Sample sample = new Sample(millis, second, rejectedTakes);
+        if (last != null) {
+            sample.burnRate = Math.max(1.0, (second - last.second) * 1000.0 / (millis - last.millis));
+            if (rejectedTakes > last.rejectedTakes) {
+                sample.starvingSince = last.starvingSince >= 0 ? last.starvingSince : last.millis;
+            }
+            sample.warned = last.warned;
+        }
+        samples.put(name, sample);
+        return sample;
+    }
+
+    private static class Sample {
+        private final long millis;
+        private final long second;
+        private final long rejectedTakes;
+        private double burnRate = 1.0;
+        private long starvingSince = -1L;
+        private Duration warned;
+
+        private Sample(long millis, long second, long rejectedTakes) {
+            this.millis = millis;
+            this.second = second;
+            this.rejectedTakes = rejectedTakes;
+        }
+    }
+
+}
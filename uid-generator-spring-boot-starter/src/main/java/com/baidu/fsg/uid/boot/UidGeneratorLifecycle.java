@@ -0,0 +1,122 @@
+package com.baidu.fsg.uid.boot;
+
+import com.baidu.fsg.uid.core.UidGenerator;
+import com.baidu.fsg.uid.core.impl.AsyncUidGenerator;
+import com.baidu.fsg.uid.core.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.core.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.core.impl.ThreadLocalUidGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Warm-up and shutdown of the UID generator beans<p>
+ *
+ * On start, waits until each {@link AsyncUidGenerator} is built and each {@link CachedUidGenerator} has its ring
+ * buffer filled to the warm-up percent, which matters with a lazy fill. Spring Boot publishes
+ * {@link ReadinessState#ACCEPTING_TRAFFIC} only after the lifecycle beans are started, and the phase is below
+ * the web server, so no traffic is accepted with a cold buffer. After the warm-up timeout it is logged and traffic
+ * is accepted anyway.<p>
+ *
+ * On stop, after the web server is drained, the padding stops once the second in progress is put instead of
+ * being interrupted mid-fill, then the final high-water mark of the worker is checkpointed while the storage is
+ * still up.
+ */
+@Slf4j
+public class UidGeneratorLifecycle implements SmartLifecycle {
+    /** Started before and stopped after the web server */
+    public static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final ListableBeanFactory beanFactory;
+    private final GeneratorProperties.Lifecycle properties;
+    private volatile boolean running;
+
+    public UidGeneratorLifecycle(ListableBeanFactory beanFactory, GeneratorProperties.Lifecycle properties) {
+        this.beanFactory = beanFactory;
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        long deadline = System.nanoTime() + properties.getWarmUpTimeout().toNanos();
+        for (Map.Entry<String, UidGenerator> entry : beanFactory.getBeansOfType(UidGenerator.class).entrySet()) {
+            warmUp(entry.getKey(), entry.getValue(), deadline);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (Map.Entry<String, UidGenerator> entry : beanFactory.getBeansOfType(UidGenerator.class).entrySet()) {
+            drain(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void warmUp(String name, UidGenerator uidGenerator, long deadline) {
+        if (uidGenerator instanceof AsyncUidGenerator async) {
+            if (!async.awaitReady(remaining(deadline))) {
+                log.warn("UidGenerator:{} is not ready after warm-up timeout:{}", name, properties.getWarmUpTimeout());
+                return;
+            }
+            uidGenerator = async.readiness().join();
+        }
+        if (uidGenerator instanceof ThreadLocalUidGenerator threadLocal) {
+            uidGenerator = threadLocal.getDelegate();
+        }
+        if (!(uidGenerator instanceof CachedUidGenerator cached) || properties.getWarmUpFill() <= 0) {
+            return;
+        }
+
+        if (cached.awaitFill(properties.getWarmUpFill(), remaining(deadline))) {
+            log.info("Warmed up UidGenerator:{}, ring buffer filled:{}%", name, cached.getFillPercent());
+        } else {
+            log.warn("UidGenerator:{} is not warmed up after warm-up timeout:{}, ring buffer filled:{}% below {}%",
+                    name, properties.getWarmUpTimeout(), cached.getFillPercent(), properties.getWarmUpFill());
+        }
+    }
+
+    private void drain(String name, UidGenerator uidGenerator) {
+        if (uidGenerator instanceof AsyncUidGenerator async) {
+            // closed as soon as it is built, nothing issued yet
+            if (!async.isReady()) {
+                return;
+            }
+            uidGenerator = async.readiness().join();
+        }
+        if (uidGenerator instanceof ThreadLocalUidGenerator threadLocal) {
+            uidGenerator = threadLocal.getDelegate();
+        }
+        if (!(uidGenerator instanceof DefaultUidGenerator generator)) {
+            return;
+        }
+
+        if (generator instanceof CachedUidGenerator cached) {
+            if (!cached.stopPadding(properties.getShutdownTimeout())) {
+                log.warn("UidGenerator:{} is still padding after shutdown timeout:{}", name, properties.getShutdownTimeout());
+            }
+        } else {
+            generator.checkpoint();
+        }
+        log.info("Stopped UidGenerator:{}, high-water second:{}", name, generator.getHighWaterSecond());
+    }
+
+    private static Duration remaining(long deadline) {
+        return Duration.ofNanos(Math.max(deadline - System.nanoTime(), 0L));
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.baidu.fsg.uid.boot;
+
+import com.baidu.fsg.uid.core.UidGenerator;
+import com.baidu.fsg.uid.core.buffer.BufferPaddingExecutor;
+import com.baidu.fsg.uid.core.buffer.RingBuffer;
+import com.baidu.fsg.uid.core.buffer.RingBufferMetrics;
+import com.baidu.fsg.uid.core.impl.AsyncUidGenerator;
+import com.baidu.fsg.uid.core.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.core.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.core.impl.ThreadLocalUidGenerator;
+import com.baidu.fsg.uid.core.latency.LatencyRecorder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ListableBeanFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of UID generators, read from the counters of Core when scraped. An {@link AsyncUidGenerator} is bound
+ * as soon as it is ready. Generators are told apart by the tag of the bean name
+ */
+public class UidGeneratorMeterBinder implements MeterBinder {
+
+    private final ListableBeanFactory beanFactory;
+
+    public UidGeneratorMeterBinder(ListableBeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        beanFactory.getBeansOfType(UidGenerator.class).forEach((name, uidGenerator) -> {
+            if (uidGenerator instanceof AsyncUidGenerator async) {
+                async.readiness().thenAccept(delegate -> bind(registry, name, delegate));
+            } else {
+                bind(registry, name, uidGenerator);
+            }
+        });
+    }
+
+    private void bind(MeterRegistry registry, String name, UidGenerator uidGenerator) {
+        if (uidGenerator instanceof ThreadLocalUidGenerator threadLocal) {
+            uidGenerator = threadLocal.getDelegate();
+        }
+        if (!(uidGenerator instanceof DefaultUidGenerator generator)) {
+            return;
+        }
+
+        Tags tags = Tags.of("name", name, "worker", String.valueOf(generator.getWorkerId()),
+                "type", generator.getClass().getSimpleName());
+        FunctionCounter.builder("uid.clock.backwards", generator, DefaultUidGenerator::getClockBackwardsCount)
+                .description("Refusals as the clock moved backwards")
+                .tags(tags)
+                .register(registry);
+
+        if (generator instanceof CachedUidGenerator cached) {
+            bindRingBuffer(registry, cached.getRingBuffer(), tags);
+        }
+        if (generator.getLatencyRecorder() != null) {
+            bindLatency(registry, generator.getLatencyRecorder(), tags);
+        }
+    }
+
+    /**
+     * Percentiles & max of the last latency snapshot
+     */
+    private void bindLatency(MeterRegistry registry, LatencyRecorder latencyRecorder, Tags tags) {
+        for (double percentile : new double[]{0.5, 0.99, 0.999}) {
+            TimeGauge.builder("uid.latency", latencyRecorder, TimeUnit.NANOSECONDS,
+                            recorder -> recorder.getSnapshot().getValueAtPercentile(percentile * 100))
+                    .description("Latency percentile of getUID() in the last interval")
+                    .tags(tags).tag("phi", String.valueOf(percentile))
+                    .register(registry);
+        }
+        TimeGauge.builder("uid.latency.max", latencyRecorder, TimeUnit.NANOSECONDS,
+                        recorder -> recorder.getSnapshot().getMax())
+                .description("Max latency of getUID() in the last interval")
+                .tags(tags)
+                .register(registry);
+    }
+
+    private void bindRingBuffer(MeterRegistry registry, RingBuffer ringBuffer, Tags tags) {
+        RingBufferMetrics metrics = ringBuffer.getMetrics();
+        BufferPaddingExecutor bufferPaddingExecutor = ringBuffer.getBufferPaddingExecutor();
+
+        Gauge.builder("uid.buffer.size", ringBuffer, RingBuffer::getBufferSize)
+                .description("Slots of the ring buffer")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder("uid.buffer.remaining", ringBuffer, buffer -> buffer.getTail() - buffer.getCursor())
+                .description("UIDs available in the ring buffer, tail - cursor")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("uid.buffer.taken", ringBuffer, RingBuffer::getTakenCount)
+                .description("UIDs taken from the ring buffer")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("uid.buffer.rejected", metrics, RingBufferMetrics::getRejectedPutCount)
+                .description("Puts rejected as the ring buffer is full, each padding ends with one")
+                .tags(tags).tag("operation", "put")
+                .register(registry);
+        FunctionCounter.builder("uid.buffer.rejected", metrics, RingBufferMetrics::getRejectedTakeCount)
+                .description("Takes rejected as the ring buffer is empty")
+                .tags(tags).tag("operation", "take")
+                .register(registry);
+        FunctionTimer.builder("uid.buffer.padding", metrics, RingBufferMetrics::getPaddingCount,
+                        RingBufferMetrics::getPaddingNanos, TimeUnit.NANOSECONDS)
+                .description("Runs of padding the ring buffer")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder("uid.buffer.lead", bufferPaddingExecutor,
+                        executor -> executor.getLastSecond() - TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()))
+                .description("Seconds borrowed ahead of the wall clock")
+                .baseUnit("seconds")
+                .tags(tags)
+                .register(registry);
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.baidu.fsg.uid.boot;
+
+import com.baidu.fsg.uid.core.CacheGeneratorProperties;
+import com.baidu.fsg.uid.jdbc.JdbcProperties;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection of the starter for a native image<p>
+ *
+ * Binding of the properties is registered by Spring Boot, but the constraints are validated on the fields,
+ * including the ones of the superclasses, the nested classes and the named generators, which are not registered
+ * with the properties bean. The conditions are evaluated at build time, so the generator type, the named
+ * generators and <code>com.baidu.fsg.uid.async.enabled</code> are fixed by the build.
+ */
+class UidGeneratorRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> type : new Class<?>[]{GeneratorProperties.class, TypedGeneratorProperties.class,
+                CacheGeneratorProperties.class, com.baidu.fsg.uid.core.GeneratorProperties.class,
+                GeneratorProperties.Jdbc.class, JdbcProperties.class, GeneratorProperties.LocalCache.class,
+                GeneratorProperties.Assigner.class, GeneratorProperties.Async.class, GeneratorProperties.Health.class,
+                GeneratorProperties.Lifecycle.class}) {
+            hints.reflection().registerType(type, MemberCategory.DECLARED_FIELDS);
+        }
+        hints.reflection().registerTypeIfPresent(classLoader, "com.baidu.fsg.uid.r2dbc.R2dbcProperties",
+                MemberCategory.DECLARED_FIELDS);
+    }
+
+}
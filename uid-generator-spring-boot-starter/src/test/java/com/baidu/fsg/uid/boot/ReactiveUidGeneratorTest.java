@@ -0,0 +1,64 @@
+package com.baidu.fsg.uid.boot;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.baidu.fsg.uid.core.CacheGeneratorProperties;
+import com.baidu.fsg.uid.core.impl.CachedUidGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+public class ReactiveUidGeneratorTest {
+
+    private CachedUidGenerator uidGenerator;
+    private Scheduler scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        // 16 UIDs a second in 32 slots, so the buffer runs dry quickly
+        CacheGeneratorProperties properties = new CacheGeneratorProperties();
+        properties.setScheduleInterval(null).setBoostPower(1);
+        properties.setWorkerBits(28).setSeqBits(4);
+        uidGenerator = new CachedUidGenerator(() -> 1L, properties);
+        scheduler = Schedulers.newSingle("uid-test");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        uidGenerator.close();
+        scheduler.dispose();
+    }
+
+    @Test
+    public void singleUidTakesOneSlot() {
+        ReactiveUidGenerator reactive = new ReactiveUidGenerator(uidGenerator, scheduler);
+        long taken = uidGenerator.getRingBuffer().getTakenCount();
+        Set<Long> uids = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertTrue(uids.add(reactive.uid().block()));
+        }
+        Assertions.assertEquals(taken + 10, uidGenerator.getRingBuffer().getTakenCount());
+    }
+
+    @Test
+    public void deferredUidsAreEmittedOnTheScheduler() {
+        ReactiveUidGenerator reactive = new ReactiveUidGenerator(uidGenerator, scheduler);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<Long> uids = reactive.uids()
+                .doOnNext(uid -> threads.add(Thread.currentThread().getName()))
+                .take(500)
+                .collectList()
+                .block();
+
+        Assertions.assertEquals(500, new HashSet<>(uids).size());
+        Assertions.assertTrue(threads.stream().noneMatch(name -> name.startsWith("RingBuffer-Padding")), threads::toString);
+        Assertions.assertTrue(threads.stream().anyMatch(name -> name.startsWith("uid-test")), threads::toString);
+    }
+
+}
@@ -0,0 +1,243 @@
+package com.baidu.fsg.uid.boot;
+
+import java.util.Set;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import com.baidu.fsg.uid.core.UidGenerator;
+import com.baidu.fsg.uid.core.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.core.worker.InMemoryWorkerNodeStorage;
+import com.baidu.fsg.uid.core.worker.IpWorkerIdAssigner;
+import com.baidu.fsg.uid.core.worker.WorkerIdAssigner;
+import com.baidu.fsg.uid.core.worker.WorkerNodeStorage;
+import com.baidu.fsg.uid.jdbc.JdbcWorkerNodeStorage;
+import com.baidu.fsg.uid.r2dbc.R2dbcWorkerNodeStorage;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+@ExtendWith(OutputCaptureExtension.class)
+public class UIDGeneratorAutoConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.setId("uid-test"))
+            .withConfiguration(AutoConfigurations.of(UIDGeneratorAutoConfiguration.class));
+
+    @Configuration(proxyBeanMethods = false)
+    static class H2TestConfiguration {
+
+        @Bean
+        public DataSource dataSource() {
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+            new org.springframework.jdbc.datasource.init.ResourceDatabasePopulator(new ClassPathResource("init-h2.sql"))
+                    .execute(dataSource);
+            return dataSource;
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class LocalAssignerConfiguration {
+
+        @Bean
+        public WorkerIdAssigner workerIdAssigner() {
+            return () -> 5L;
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class CustomFactoryConfiguration {
+
+        @Bean
+        public UidGeneratorFactory customUidGeneratorFactory(GeneratorProperties properties) {
+            return new UidGeneratorFactory(() -> 7L, properties);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class R2dbcTestConfiguration {
+
+        @Bean
+        public ConnectionFactory connectionFactory() {
+            ConnectionFactory connectionFactory = H2ConnectionFactory.inMemory(UUID.randomUUID().toString());
+            new ResourceDatabasePopulator(new ClassPathResource("init-h2.sql")).populate(connectionFactory).block();
+            return connectionFactory;
+        }
+    }
+
+    @Test
+    public void registersOnH2DataSource() {
+        contextRunner.withUserConfiguration(H2TestConfiguration.class).run(context -> {
+            Assertions.assertInstanceOf(JdbcWorkerNodeStorage.class, context.getBean(WorkerNodeStorage.class));
+
+            context.getBean(UidGenerator.class).getUID();
+            long rows = JdbcClient.create(context.getBean(DataSource.class))
+                    .sql("SELECT COUNT(*) FROM t_worker_node")
+                    .query(Long.class)
+                    .single();
+            Assertions.assertEquals(1L, rows);
+        });
+    }
+
+    @Test
+    public void namedGeneratorsRegisterWorkerNodesOfTheirOwn() {
+        contextRunner.withUserConfiguration(H2TestConfiguration.class)
+                .withPropertyValues("com.baidu.fsg.uid.generators.orders.type=direct",
+                        "com.baidu.fsg.uid.generators.payments.type=cached")
+                .run(context -> {
+                    long defaultWorkerId = context.getBean("uidGenerator", DefaultUidGenerator.class).getWorkerId();
+                    long ordersWorkerId = context.getBean("orders", DefaultUidGenerator.class).getWorkerId();
+                    long paymentsWorkerId = context.getBean("payments", DefaultUidGenerator.class).getWorkerId();
+                    Assertions.assertEquals(3, Set.of(defaultWorkerId, ordersWorkerId, paymentsWorkerId).size());
+
+                    long rows = JdbcClient.create(context.getBean(DataSource.class))
+                            .sql("SELECT COUNT(*) FROM t_worker_node")
+                            .query(Long.class)
+                            .single();
+                    Assertions.assertEquals(3L, rows);
+                });
+    }
+
+    @Test
+    public void leasedCachedGeneratorWithoutCheckpointFailsToStart() {
+        contextRunner.withUserConfiguration(H2TestConfiguration.class)
+                .withPropertyValues("com.baidu.fsg.uid.jdbc.lease-timeout=1m",
+                        "com.baidu.fsg.uid.generators.orders.type=thread-local",
+                        "com.baidu.fsg.uid.generators.orders.checkpoint-interval=1")
+                .run(context -> {
+                    Assertions.assertNotNull(context.getStartupFailure());
+                    Assertions.assertTrue(NestedExceptionUtils.getMostSpecificCause(context.getStartupFailure()).getMessage()
+                            .startsWith("UidGenerator:uidGenerator must have com.baidu.fsg.uid.checkpoint-interval"));
+                });
+    }
+
+    @Test
+    public void leasedGeneratorsStartWithCheckpointOrUncached() {
+        contextRunner.withUserConfiguration(H2TestConfiguration.class)
+                .withPropertyValues("com.baidu.fsg.uid.jdbc.lease-timeout=1m",
+                        "com.baidu.fsg.uid.checkpoint-interval=1",
+                        "com.baidu.fsg.uid.generators.orders.type=direct")
+                .run(context -> {
+                    Assertions.assertNull(context.getStartupFailure());
+                    context.getBean("uidGenerator", UidGenerator.class).getUID();
+                    context.getBean("orders", UidGenerator.class).getUID();
+                });
+    }
+
+    @Test
+    public void namedGeneratorsOffsetTheLocalWorkerId() {
+        contextRunner.withUserConfiguration(LocalAssignerConfiguration.class)
+                .withPropertyValues("com.baidu.fsg.uid.generators.payments.type=direct",
+                        "com.baidu.fsg.uid.generators.payments.worker-id-offset=2000",
+                        "com.baidu.fsg.uid.generators.orders.type=direct",
+                        "com.baidu.fsg.uid.generators.orders.worker-id-offset=1000")
+                .run(context -> {
+                    // the default one is never moved by the named ones
+                    Assertions.assertEquals(5L, context.getBean("uidGenerator", DefaultUidGenerator.class).getWorkerId());
+                    Assertions.assertEquals(1005L, context.getBean("orders", DefaultUidGenerator.class).getWorkerId());
+                    Assertions.assertEquals(2005L, context.getBean("payments", DefaultUidGenerator.class).getWorkerId());
+                });
+    }
+
+    @Test
+    public void namedGeneratorWithoutOffsetFailsToStart() {
+        contextRunner.withUserConfiguration(LocalAssignerConfiguration.class)
+                .withPropertyValues("com.baidu.fsg.uid.generators.orders.type=direct")
+                .run(context -> {
+                    Assertions.assertNotNull(context.getStartupFailure());
+                    Assertions.assertTrue(NestedExceptionUtils.getMostSpecificCause(context.getStartupFailure()).getMessage()
+                            .contains("com.baidu.fsg.uid.generators.orders.worker-id-offset"));
+                });
+    }
+
+    @Test
+    public void workerIdBeyondTheOffsetGapFailsToStart() {
+        contextRunner.withUserConfiguration(LocalAssignerConfiguration.class)
+                .withPropertyValues("com.baidu.fsg.uid.generators.orders.type=direct",
+                        "com.baidu.fsg.uid.generators.orders.worker-id-offset=4")
+                .run(context -> {
+                    Assertions.assertNotNull(context.getStartupFailure());
+                    Assertions.assertTrue(NestedExceptionUtils.getMostSpecificCause(context.getStartupFailure()).getMessage()
+                            .startsWith("Worker id:5 of the host is not below the smallest gap:4"));
+                });
+    }
+
+    @Test
+    public void namedGeneratorsResolveTheFactoryByType() {
+        contextRunner.withUserConfiguration(CustomFactoryConfiguration.class)
+                .withPropertyValues("com.baidu.fsg.uid.generators.orders.type=direct",
+                        "com.baidu.fsg.uid.generators.orders.worker-id-offset=100")
+                .run(context -> {
+                    Assertions.assertFalse(context.containsBean("uidGeneratorFactory"));
+                    DefaultUidGenerator orders = context.getBean("orders", DefaultUidGenerator.class);
+                    Assertions.assertEquals(107L, orders.getWorkerId());
+                    Assertions.assertEquals("orders", orders.getName());
+                });
+    }
+
+    @Test
+    public void fallsBackToMemoryWithWarning(CapturedOutput output) {
+        contextRunner.run(context -> {
+            Assertions.assertInstanceOf(InMemoryWorkerNodeStorage.class, context.getBean(WorkerNodeStorage.class));
+            context.getBean(UidGenerator.class).getUID();
+            Assertions.assertTrue(output.getOut().contains("unique within the JVM only"));
+        });
+    }
+
+    @Test
+    public void localAssignerTakesNoMemoryStorage(CapturedOutput output) {
+        contextRunner.withPropertyValues("com.baidu.fsg.uid.assigner.type=ip").run(context -> {
+            Assertions.assertFalse(context.containsBean("inMemoryWorkerNodeStorage"));
+            Assertions.assertInstanceOf(IpWorkerIdAssigner.class, context.getBean(WorkerIdAssigner.class));
+            Assertions.assertFalse(output.getOut().contains("unique within the JVM only"));
+        });
+    }
+
+    @Test
+    public void failsWithoutStorageUnlessFallingBack() {
+        contextRunner.withPropertyValues("com.baidu.fsg.uid.assigner.in-memory-fallback=false").run(context -> {
+            Assertions.assertNotNull(context.getStartupFailure());
+            Assertions.assertTrue(NestedExceptionUtils.getMostSpecificCause(context.getStartupFailure()).getMessage()
+                    .startsWith("No WorkerNodeStorage"));
+        });
+    }
+
+    @Test
+    public void registersReactivelyOnR2dbc() {
+        contextRunner.withUserConfiguration(R2dbcTestConfiguration.class).run(context -> {
+            Assertions.assertInstanceOf(R2dbcWorkerNodeStorage.class, context.getBean(WorkerNodeStorage.class));
+            Assertions.assertInstanceOf(R2dbcWorkerIdAssigner.class, context.getBean(WorkerIdAssigner.class));
+
+            context.getBean(UidGenerator.class).getUID();
+            Long rows = DatabaseClient.create(context.getBean(ConnectionFactory.class))
+                    .sql("SELECT COUNT(*) AS c FROM t_worker_node")
+                    .map(row -> row.get("c", Long.class))
+                    .one()
+                    .block();
+            Assertions.assertEquals(1L, rows);
+        });
+    }
+
+    @Test
+    public void localAssignerIsKeptOnR2dbc() {
+        contextRunner.withUserConfiguration(R2dbcTestConfiguration.class)
+                .withPropertyValues("com.baidu.fsg.uid.assigner.type=ip")
+                .run(context -> Assertions.assertFalse(context.getBean(WorkerIdAssigner.class) instanceof R2dbcWorkerIdAssigner));
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.baidu.fsg.uid.boot;
+
+import java.util.Map;
+
+import com.baidu.fsg.uid.core.CacheGeneratorProperties;
+import com.baidu.fsg.uid.core.GeneratorProperties;
+import com.baidu.fsg.uid.core.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.core.impl.DefaultUidGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+public class UidGeneratorEndpointTest {
+
+    private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    private final UidGeneratorEndpoint endpoint = new UidGeneratorEndpoint(beanFactory);
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        for (AutoCloseable generator : beanFactory.getBeansOfType(AutoCloseable.class).values()) {
+            generator.close();
+        }
+    }
+
+    /**
+     * 16 UIDs a second in 128 slots, so the initial padding borrows seconds ahead of the clock
+     */
+    private static CacheGeneratorProperties borrowingProperties(Long scheduleInterval) {
+        CacheGeneratorProperties properties = new CacheGeneratorProperties();
+        properties.setScheduleInterval(scheduleInterval).setBoostPower(3);
+        properties.setWorkerBits(28).setSeqBits(4);
+        return properties;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> section(Map<String, Object> description, String key) {
+        return (Map<String, Object>) description.get(key);
+    }
+
+    @Test
+    public void remainingSecondsCountBorrowedSeconds() {
+        CachedUidGenerator generator = new CachedUidGenerator(() -> 1L, borrowingProperties(null));
+        beanFactory.registerSingleton("cached", generator);
+
+        Map<String, Object> timestamp = section(endpoint.generator("cached"), "timestamp");
+        long borrowedDelta = generator.getHighWaterSecond() - generator.getEpochSeconds();
+        Assertions.assertEquals(generator.getBitsAllocator().getMaxDeltaSeconds() - borrowedDelta,
+                timestamp.get("remainingSeconds"));
+        Assertions.assertTrue((long) section(endpoint.generator("cached"), "padding").get("leadSeconds") > 0);
+    }
+
+    @Test
+    public void describesEveryGenerator() {
+        beanFactory.registerSingleton("direct", new DefaultUidGenerator(() -> 1L, new GeneratorProperties()));
+        beanFactory.registerSingleton("cached", new CachedUidGenerator(() -> 2L, borrowingProperties(null)));
+
+        Map<String, Object> generators = endpoint.generators();
+        Assertions.assertEquals(2, generators.size());
+        Map<String, Object> direct = section(generators, "direct");
+        Assertions.assertEquals("DefaultUidGenerator", direct.get("type"));
+        Assertions.assertEquals(1L, direct.get("workerId"));
+        Assertions.assertNull(direct.get("ringBuffer"));
+        Assertions.assertEquals(2L, section(generators, "cached").get("workerId"));
+    }
+
+    @Test
+    public void tunesScheduledGenerator() {
+        CachedUidGenerator generator = new CachedUidGenerator(() -> 1L, borrowingProperties(60L));
+        beanFactory.registerSingleton("cached", generator);
+
+        Map<String, Object> description = endpoint.tune("cached", 70, 5L, true);
+        Assertions.assertEquals(70, section(description, "ringBuffer").get("paddingFactor"));
+        Assertions.assertEquals(5L, section(description, "padding").get("scheduleInterval"));
+        Assertions.assertEquals(5L, generator.getRingBuffer().getBufferPaddingExecutor().getScheduleInterval());
+    }
+
+    @Test
+    public void rejectsScheduleIntervalWithoutSchedule() {
+        CachedUidGenerator generator = new CachedUidGenerator(() -> 1L, borrowingProperties(null));
+        beanFactory.registerSingleton("cached", generator);
+        int paddingFactor = generator.getRingBuffer().getPaddingFactor();
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> endpoint.tune("cached", 70, 5L, null));
+        // nothing is applied when rejected
+        Assertions.assertEquals(paddingFactor, generator.getRingBuffer().getPaddingFactor());
+        Assertions.assertFalse(generator.getRingBuffer().getBufferPaddingExecutor().isUsingSchedule());
+
+        endpoint.tune("cached", 70, null, null);
+        Assertions.assertEquals(70, generator.getRingBuffer().getPaddingFactor());
+    }
+
+    @Test
+    public void rejectsTuningDirectGenerator() {
+        beanFactory.registerSingleton("direct", new DefaultUidGenerator(() -> 1L, new GeneratorProperties()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> endpoint.tune("direct", 70, null, null));
+    }
+
+}
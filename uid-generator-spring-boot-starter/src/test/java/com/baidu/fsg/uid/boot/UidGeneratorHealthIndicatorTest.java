@@ -0,0 +1,165 @@
+package com.baidu.fsg.uid.boot;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.baidu.fsg.uid.core.CacheGeneratorProperties;
+import com.baidu.fsg.uid.core.GeneratorProperties;
+import com.baidu.fsg.uid.core.impl.AsyncUidGenerator;
+import com.baidu.fsg.uid.core.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.core.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.core.worker.LeaseListener;
+import com.baidu.fsg.uid.core.worker.WorkerIdAssigner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+public class UidGeneratorHealthIndicatorTest {
+
+    private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    private final UidGeneratorHealthIndicator indicator = new UidGeneratorHealthIndicator(beanFactory,
+            List.of(Duration.ofDays(365), Duration.ofDays(30)), Duration.ZERO);
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        for (AutoCloseable generator : beanFactory.getBeansOfType(AutoCloseable.class).values()) {
+            generator.close();
+        }
+    }
+
+    /**
+     * 28 timestamp bits, whose epoch leaves the seconds remaining
+     */
+    private static GeneratorProperties remaining(Duration remaining) {
+        long maxDeltaSeconds = (1L << 28) - 1;
+        long nowSecond = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        return new GeneratorProperties().setTimeBits(28).setWorkerBits(22).setSeqBits(13)
+                .setEpochSeconds(nowSecond - maxDeltaSeconds + remaining.toSeconds());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> details(Health health, String name) {
+        return (Map<String, Object>) health.getDetails().get(name);
+    }
+
+    @Test
+    public void upWithHeadroom() {
+        beanFactory.registerSingleton("direct", new DefaultUidGenerator(() -> 1L, new GeneratorProperties()));
+
+        Health health = indicator.health();
+        Assertions.assertEquals(Status.UP, health.getStatus());
+        Map<String, Object> details = details(health, "direct");
+        Assertions.assertEquals(1L, details.get("workerId"));
+        Assertions.assertTrue((long) details.get("remainingSeconds") > 0);
+        Assertions.assertNull(details.get("warning"));
+    }
+
+    @Test
+    public void warnsWithinTheNearestHorizon() {
+        beanFactory.registerSingleton("direct", new DefaultUidGenerator(() -> 1L, remaining(Duration.ofDays(10))));
+
+        Health health = indicator.health();
+        Assertions.assertEquals(Status.UP, health.getStatus());
+        Assertions.assertEquals("Timestamp bits are forecast to run out within " + Duration.ofDays(30),
+                details(health, "direct").get("warning"));
+    }
+
+    @Test
+    public void downOnceTimestampBitsAreExhausted() {
+        beanFactory.registerSingleton("up", new DefaultUidGenerator(() -> 1L, new GeneratorProperties()));
+        beanFactory.registerSingleton("exhausted", new DefaultUidGenerator(() -> 2L, remaining(Duration.ofSeconds(-10))));
+
+        Health health = indicator.health();
+        Assertions.assertEquals(Status.DOWN, health.getStatus());
+        Assertions.assertEquals("UP", details(health, "up").get("status"));
+        Assertions.assertEquals("Timestamp bits are exhausted", details(health, "exhausted").get("error"));
+    }
+
+    @Test
+    public void downWhileLeaseIsLost() {
+        WorkerIdAssigner lost = new WorkerIdAssigner() {
+            @Override
+            public long assignWorkerId() {
+                return 1L;
+            }
+
+            @Override
+            public void watchLease(long workerId, LeaseListener listener) {
+                listener.onLease(workerId, false);
+            }
+        };
+        beanFactory.registerSingleton("fenced", new DefaultUidGenerator(lost, new GeneratorProperties()));
+
+        Health health = indicator.health();
+        Assertions.assertEquals(Status.DOWN, health.getStatus());
+        Assertions.assertEquals("Lease of the worker id may be lost", details(health, "fenced").get("error"));
+    }
+
+    @Test
+    public void outOfServiceUntilAsyncIsBuiltAndDownIfFailed() {
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        beanFactory.registerSingleton("pending", new AsyncUidGenerator(() -> {
+            release.join();
+            return new DefaultUidGenerator(() -> 1L, new GeneratorProperties());
+        }, Duration.ZERO));
+        Assertions.assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+
+        AsyncUidGenerator failed = new AsyncUidGenerator(() -> {
+            throw new IllegalStateException("Storage is down");
+        }, Duration.ZERO);
+        failed.awaitReady(Duration.ofSeconds(10));
+        beanFactory.registerSingleton("failed", failed);
+        Assertions.assertEquals(Status.DOWN, indicator.health().getStatus());
+
+        release.complete(null);
+    }
+
+    @Test
+    public void downWhenTakesKeepBeingRejected() throws Exception {
+        // the padding stops once the reservation of the high-water mark fails to save
+        AtomicBoolean storageDown = new AtomicBoolean();
+        WorkerIdAssigner assigner = new WorkerIdAssigner() {
+            @Override
+            public long assignWorkerId() {
+                return 1L;
+            }
+
+            @Override
+            public void saveHighWaterMark(long workerId, long second) {
+                if (storageDown.get()) {
+                    throw new IllegalStateException("Storage is down");
+                }
+            }
+        };
+        CacheGeneratorProperties properties = new CacheGeneratorProperties();
+        properties.setScheduleInterval(null).setBoostPower(1);
+        properties.setCheckpointInterval(1L);
+        CachedUidGenerator generator = new CachedUidGenerator(assigner, properties);
+        beanFactory.registerSingleton("cached", generator);
+        Assertions.assertEquals(Status.UP, indicator.health().getStatus());
+
+        storageDown.set(true);
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (generator.getRingBuffer().getMetrics().getRejectedTakeCount() == 0) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Timed out");
+            try {
+                generator.getUID();
+            } catch (RuntimeException e) {
+                // rejected
+            }
+        }
+        Thread.sleep(1100);
+
+        Health health = indicator.health();
+        Assertions.assertEquals(Status.DOWN, health.getStatus());
+        Assertions.assertTrue(((String) details(health, "cached").get("error")).startsWith("Ring buffer is starved"));
+    }
+
+}
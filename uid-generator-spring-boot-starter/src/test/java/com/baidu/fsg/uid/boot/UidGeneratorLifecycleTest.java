@@ -0,0 +1,148 @@
+package com.baidu.fsg.uid.boot;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.baidu.fsg.uid.core.CacheGeneratorProperties;
+import com.baidu.fsg.uid.core.GeneratorProperties;
+import com.baidu.fsg.uid.core.impl.AsyncUidGenerator;
+import com.baidu.fsg.uid.core.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.core.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.core.impl.ThreadLocalUidGenerator;
+import com.baidu.fsg.uid.core.worker.WorkerIdAssigner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+@ExtendWith(OutputCaptureExtension.class)
+public class UidGeneratorLifecycleTest {
+
+    private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    private final com.baidu.fsg.uid.boot.GeneratorProperties.Lifecycle properties =
+            new com.baidu.fsg.uid.boot.GeneratorProperties.Lifecycle();
+    private final UidGeneratorLifecycle lifecycle = new UidGeneratorLifecycle(beanFactory, properties);
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        for (AutoCloseable generator : beanFactory.getBeansOfType(AutoCloseable.class).values()) {
+            generator.close();
+        }
+    }
+
+    /**
+     * Assigner keeping the mark in memory, which refuses to save it past the limit
+     */
+    private static class MarkAssigner implements WorkerIdAssigner {
+        private final AtomicLong saved = new AtomicLong(-1L);
+        private final long limit;
+
+        private MarkAssigner(long limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public long assignWorkerId() {
+            return 1L;
+        }
+
+        @Override
+        public long getHighWaterMark(long workerId) {
+            return saved.get();
+        }
+
+        @Override
+        public void saveHighWaterMark(long workerId, long second) {
+            if (second > limit) {
+                throw new IllegalStateException("Storage is down");
+            }
+            saved.accumulateAndGet(second, Math::max);
+        }
+    }
+
+    private static CacheGeneratorProperties lazyFill() {
+        CacheGeneratorProperties properties = new CacheGeneratorProperties();
+        properties.setBoostPower(8).setLazyFill(true).setScheduleInterval(null);
+        return properties;
+    }
+
+    @Test
+    public void warmsUpTheRingBufferToTheFullPercent() {
+        CachedUidGenerator generator = new CachedUidGenerator(() -> 1L, lazyFill());
+        beanFactory.registerSingleton("cached", generator);
+        // a lazy fill pads one second at first
+        Assertions.assertTrue(generator.getFillPercent() < 100);
+
+        properties.setWarmUpFill(100);
+        lifecycle.start();
+        Assertions.assertTrue(lifecycle.isRunning());
+        Assertions.assertEquals(100, generator.getFillPercent());
+    }
+
+    @Test
+    public void warmsUpTheGeneratorsBehindAsyncAndThreadLocal() {
+        CachedUidGenerator generator = new CachedUidGenerator(() -> 1L, lazyFill());
+        beanFactory.registerSingleton("async", new AsyncUidGenerator(
+                () -> new ThreadLocalUidGenerator(generator, 64), Duration.ZERO));
+
+        properties.setWarmUpFill(100);
+        lifecycle.start();
+        Assertions.assertEquals(100, generator.getFillPercent());
+    }
+
+    @Test
+    public void acceptsTrafficAfterTheWarmUpTimeout(CapturedOutput output) {
+        // the padding can't borrow past the reservation of a few seconds
+        MarkAssigner assigner = new MarkAssigner(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 5);
+        CacheGeneratorProperties cacheProperties = lazyFill();
+        cacheProperties.setCheckpointInterval(1L);
+        CachedUidGenerator generator = new CachedUidGenerator(assigner, cacheProperties);
+        beanFactory.registerSingleton("cached", generator);
+
+        properties.setWarmUpFill(100).setWarmUpTimeout(Duration.ofMillis(200));
+        lifecycle.start();
+        Assertions.assertTrue(lifecycle.isRunning());
+        Assertions.assertTrue(generator.getFillPercent() < 100);
+        Assertions.assertTrue(output.getOut().contains("UidGenerator:cached is not warmed up after warm-up timeout"));
+    }
+
+    @Test
+    public void stopsPaddingAndCheckpointsTheHighWaterMark() throws Exception {
+        MarkAssigner assigner = new MarkAssigner(Long.MAX_VALUE);
+        CacheGeneratorProperties cacheProperties = new CacheGeneratorProperties();
+        cacheProperties.setBoostPower(1).setScheduleInterval(null);
+        CachedUidGenerator generator = new CachedUidGenerator(assigner, cacheProperties);
+        beanFactory.registerSingleton("cached", generator);
+        lifecycle.start();
+
+        lifecycle.stop();
+        Assertions.assertFalse(lifecycle.isRunning());
+        Assertions.assertTrue(assigner.saved.get() >= generator.getHighWaterSecond());
+
+        // UIDs left can still be taken, but no more are padded
+        long tail = generator.getRingBuffer().getTail();
+        for (int i = 0; i < generator.getRingBuffer().getBufferSize() / 2; i++) {
+            generator.getUID();
+        }
+        Thread.sleep(100);
+        Assertions.assertEquals(tail, generator.getRingBuffer().getTail());
+    }
+
+    @Test
+    public void stopCheckpointsTheDirectGenerator() {
+        MarkAssigner assigner = new MarkAssigner(Long.MAX_VALUE);
+        DefaultUidGenerator generator = new DefaultUidGenerator(assigner, new GeneratorProperties());
+        beanFactory.registerSingleton("direct", generator);
+        lifecycle.start();
+        generator.getUID();
+        Assertions.assertEquals(-1L, assigner.saved.get());
+
+        lifecycle.stop();
+        Assertions.assertEquals(generator.getHighWaterSecond(), assigner.saved.get());
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.baidu.fsg.uid.boot;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import com.baidu.fsg.uid.core.CacheGeneratorProperties;
+import com.baidu.fsg.uid.core.GeneratorProperties;
+import com.baidu.fsg.uid.core.impl.AsyncUidGenerator;
+import com.baidu.fsg.uid.core.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.core.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.core.impl.ThreadLocalUidGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+public class UidGeneratorMeterBinderTest {
+
+    private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private static CacheGeneratorProperties cacheProperties() {
+        CacheGeneratorProperties properties = new CacheGeneratorProperties();
+        properties.setScheduleInterval(null).setBoostPower(1);
+        return properties;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    public void bindsRingBufferOfCachedGenerator() {
+        try (CachedUidGenerator generator = new CachedUidGenerator(() -> 1L, cacheProperties())) {
+            beanFactory.registerSingleton("cached", generator);
+            new UidGeneratorMeterBinder(beanFactory).bindTo(registry);
+            for (int i = 0; i < 3; i++) {
+                generator.getUID();
+            }
+
+            Assertions.assertEquals(3.0, registry.get("uid.buffer.taken").tag("name", "cached").functionCounter().count());
+            Assertions.assertEquals(generator.getRingBuffer().getBufferSize(),
+                    registry.get("uid.buffer.size").tag("worker", "1").gauge().value());
+            Assertions.assertEquals(generator.getRingBuffer().getTail() - generator.getRingBuffer().getCursor(),
+                    registry.get("uid.buffer.remaining").tag("type", "CachedUidGenerator").gauge().value());
+            Assertions.assertEquals(0.0, registry.get("uid.buffer.rejected").tag("operation", "take").functionCounter().count());
+            Assertions.assertTrue(registry.get("uid.buffer.padding").functionTimer().count() >= 1);
+            Assertions.assertEquals(0.0, registry.get("uid.clock.backwards").functionCounter().count());
+            Assertions.assertTrue(registry.find("uid.latency").gauges().isEmpty());
+        }
+    }
+
+    @Test
+    public void bindsLatencyOfDirectGeneratorAndUnwrapsThreadLocal() throws Exception {
+        try (DefaultUidGenerator direct = new DefaultUidGenerator(() -> 1L, new GeneratorProperties().setLatencySampleRate(1));
+             ThreadLocalUidGenerator threadLocal = new ThreadLocalUidGenerator(new CachedUidGenerator(() -> 2L, cacheProperties()), 4)) {
+            beanFactory.registerSingleton("direct", direct);
+            beanFactory.registerSingleton("threadLocal", threadLocal);
+            new UidGeneratorMeterBinder(beanFactory).bindTo(registry);
+
+            Assertions.assertEquals(3, registry.find("uid.latency").tag("name", "direct").timeGauges().size());
+            Assertions.assertNotNull(registry.find("uid.latency.max").tag("name", "direct").timeGauge());
+            Assertions.assertNull(registry.find("uid.buffer.size").tag("name", "direct").gauge());
+
+            Assertions.assertNotNull(registry.find("uid.buffer.size")
+                    .tags("name", "threadLocal", "worker", "2", "type", "CachedUidGenerator").gauge());
+        }
+    }
+
+    @Test
+    public void bindsAsyncGeneratorOnceReady() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (AsyncUidGenerator async = new AsyncUidGenerator(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new DefaultUidGenerator(() -> 1L, new GeneratorProperties());
+        }, Duration.ofSeconds(1))) {
+            beanFactory.registerSingleton("async", async);
+            new UidGeneratorMeterBinder(beanFactory).bindTo(registry);
+            Assertions.assertNull(registry.find("uid.clock.backwards").functionCounter());
+
+            release.countDown();
+            await(() -> registry.find("uid.clock.backwards").tags("name", "async", "type", "DefaultUidGenerator")
+                    .functionCounter() != null);
+        }
+    }
+
+}
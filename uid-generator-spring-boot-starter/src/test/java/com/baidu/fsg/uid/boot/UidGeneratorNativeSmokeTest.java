@@ -0,0 +1,72 @@
+package com.baidu.fsg.uid.boot;
+
+import java.net.InetAddress;
+import java.util.List;
+
+import com.baidu.fsg.uid.core.BitsAllocator;
+import com.baidu.fsg.uid.core.UidGenerator;
+import com.baidu.fsg.uid.core.aot.CoreRuntimeHints;
+import com.baidu.fsg.uid.core.utils.DockerUtils;
+import com.baidu.fsg.uid.core.utils.NetUtils;
+import com.baidu.fsg.uid.jdbc.JdbcRuntimeHints;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.aot.AotServices;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Smoke test of the starter in a native image, run by <code>mvn -PnativeTest -pl uid-generator-spring-boot-starter
+ * test</code> on GraalVM. The context is processed ahead of time, and it runs on the JVM as well
+ */
+@SpringBootTest(properties = "com.baidu.fsg.uid.assigner.in-memory-fallback=true")
+public class UidGeneratorNativeSmokeTest {
+
+    @SpringBootConfiguration
+    @ImportAutoConfiguration(UIDGeneratorAutoConfiguration.class)
+    static class SmokeTestConfiguration {
+    }
+
+    @Autowired
+    private UidGenerator uidGenerator;
+
+    @Test
+    public void generatesUidsInTheProcessedContext() {
+        long uid = uidGenerator.getUID();
+        Assertions.assertTrue(uidGenerator.getUID() > uid);
+        Assertions.assertTrue(uidGenerator.parseUID(uid).contains("\"workerId\""));
+    }
+
+    @Test
+    public void resolvesTheHostOnFirstUse() {
+        // the worker node was built on the host of the running process, not the one of the build
+        InetAddress address = NetUtils.getCachedLocalInetAddress();
+        Assertions.assertSame(address, NetUtils.getCachedLocalInetAddress());
+        Assertions.assertFalse(address.isLoopbackAddress());
+        Assertions.assertEquals(System.getenv("JPAAS_HOST") != null, DockerUtils.isDocker());
+    }
+
+    @Test
+    public void registersHintsOfTheStarterAndItsModules() {
+        RuntimeHints hints = new RuntimeHints();
+        new UidGeneratorRuntimeHints().registerHints(hints, getClass().getClassLoader());
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection()
+                .onField(GeneratorProperties.Lifecycle.class, "warmUpFill").test(hints));
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection()
+                .onField(com.baidu.fsg.uid.core.GeneratorProperties.class, "timeBits").test(hints));
+
+        // the ones of Core & JDBC are loaded by aot.factories
+        List<RuntimeHintsRegistrar> registrars = AotServices.factories().load(RuntimeHintsRegistrar.class).asList();
+        Assertions.assertTrue(registrars.stream().anyMatch(CoreRuntimeHints.class::isInstance));
+        Assertions.assertTrue(registrars.stream().anyMatch(JdbcRuntimeHints.class::isInstance));
+        registrars.forEach(registrar -> registrar.registerHints(hints, getClass().getClassLoader()));
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection().onType(BitsAllocator.class).test(hints));
+        Assertions.assertTrue(RuntimeHintsPredicates.resource().forResource("init-h2.sql").test(hints));
+    }
+
+}